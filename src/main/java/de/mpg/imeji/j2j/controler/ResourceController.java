@@ -3,6 +3,8 @@ package de.mpg.imeji.j2j.controler;
 import java.lang.reflect.Field;
 import java.net.URI;
 import java.util.Calendar;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.jena.rdf.model.Model;
@@ -79,11 +81,21 @@ public class ResourceController {
     }
     setTimestamp(imejiDataObject);
     java2rdf.write(imejiDataObject);
+    rdf2Java.clear();
     Object dataObjectInStore = this.read(imejiDataObject);
     return dataObjectInStore;
   }
 
 
+  /**
+   * Read all statements of the objects at once, before reading the objects one by one
+   *
+   * @param objects
+   */
+  public void preload(List<Object> objects) {
+    rdf2Java.preload(objects.stream().map(J2JHelper::getId).collect(Collectors.toList()));
+  }
+
   /**
    * Read the uri and write it into the {@link RDFResource}
    *
@@ -105,7 +117,7 @@ public class ResourceController {
    * @throws NotFoundException
    */
   public Object read(Object object) throws NotFoundException {
-    if (!java2rdf.exists(object)) {
+    if (!rdf2Java.exists(J2JHelper.getId(object))) {
       throw new NotFoundException(object,
           getObjectType(J2JHelper.getId(object)) + " " + getObjectId(J2JHelper.getId(object)) + " not found!");
     }
@@ -131,6 +143,7 @@ public class ResourceController {
     checkModified(imejiDataObject);
     java2rdf.update(imejiDataObject);
     updateTimestampInJena(imejiDataObject);
+    rdf2Java.clear();
     Object dataObjectInStore = this.read(imejiDataObject);
     return dataObjectInStore;
   }
@@ -180,6 +193,7 @@ public class ResourceController {
           "Error deleting resource " + J2JHelper.getId(object).getPath().replace("imeji/", "") + " from Jena. Resource doesn't exist! ");
     }
     java2rdf.remove(object);
+    rdf2Java.clear();
   }
 
 
@@ -43,18 +43,7 @@ public class J2JHelper {
     if (o == null) {
       return null;
     }
-    final j2jId ano = o.getClass().getAnnotation(j2jId.class);
-    if (ano != null) {
-      try {
-        final Object id = o.getClass().getMethod(ano.getMethod(), null).invoke(o, null);
-        if (id != null) {
-          return new URI(id.toString());
-        }
-      } catch (final Exception e) {
-        throw new RuntimeException("Error reading ID of " + o, e);
-      }
-    }
-    return null;
+    return MappingPlan.of(o).getId(o);
   }
 
   /**
@@ -64,16 +53,7 @@ public class J2JHelper {
    * @param id
    */
   public static Object setId(Object o, URI id) {
-    final j2jId ano = o.getClass().getAnnotation(j2jId.class);
-    final Object[] args = {id};
-    if (ano != null) {
-      try {
-        o.getClass().getMethod(ano.setMethod(), URI.class).invoke(o, args);
-      } catch (final Exception e) {
-        throw new RuntimeException("Error setting ID of " + o, e);
-      }
-    }
-    return o;
+    return MappingPlan.of(o).setId(o, id);
   }
 
   /**
@@ -93,10 +73,7 @@ public class J2JHelper {
    * @return
    */
   public static String getType(Object o) {
-    if (hasDataType(o)) {
-      return o.getClass().getAnnotation(j2jDataType.class).value();
-    }
-    return null;
+    return MappingPlan.of(o).getDataType();
   }
 
   /**
@@ -160,11 +137,7 @@ public class J2JHelper {
    * @return
    */
   public static String getResourceNamespace(Object o) {
-    if (isResource(o)) {
-      return o.getClass().getAnnotation(j2jResource.class).value();
-    } else {
-      return null;
-    }
+    return o != null ? MappingPlan.of(o).getResourceNamespace() : null;
   }
 
   /**
@@ -244,7 +217,7 @@ public class J2JHelper {
    * @return
    */
   public static boolean isResource(Object o) {
-    return o != null && o.getClass().getAnnotation(j2jResource.class) != null;
+    return o != null && MappingPlan.of(o).isResource();
   }
 
   /**
@@ -254,7 +227,7 @@ public class J2JHelper {
    * @return
    */
   public static boolean isResource(Class<?> c) {
-    return c != null && c.getAnnotation(j2jResource.class) != null;
+    return c != null && MappingPlan.of(c).isResource();
   }
 
   /**
@@ -358,7 +331,7 @@ public class J2JHelper {
    * @return
    */
   public static boolean hasDataType(Object o) {
-    return o.getClass().getAnnotation(j2jDataType.class) != null;
+    return MappingPlan.of(o).hasDataType();
   }
 
   /**
@@ -401,20 +374,18 @@ public class J2JHelper {
 
   /**
    * Return all the Fields that should be written as rdf property If class is not inheriting from a
-   * {@link RDFObject} then return empty list.
+   * {@link RDFObject} then return empty list. The fields are read from the cached
+   * {@link MappingPlan} of the class
    *
    * @param clazz
    * @return
    */
   public static List<Field> getAllObjectFields(Class<?> clazz) {
-    if (clazz.getAnnotation(j2jResource.class) != null) {
-      final List<Field> l = new ArrayList<Field>(Arrays.asList(clazz.getDeclaredFields()));
-      if (clazz.getSuperclass() != null && clazz.getSuperclass().getAnnotation(j2jResource.class) != null) {
-        l.addAll(getAllObjectFields(clazz.getSuperclass()));
-      }
-      return getOnlyAnnotatedFields(l);
+    final List<Field> l = new ArrayList<Field>();
+    for (final MappingPlan.FieldMapping fm : MappingPlan.of(clazz).getFields()) {
+      l.add(fm.getField());
     }
-    return new ArrayList<Field>();
+    return l;
   }
 
   /**
@@ -0,0 +1,594 @@
+package de.mpg.imeji.j2j.helper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.ResourceFactory;
+
+import de.mpg.imeji.j2j.annotations.j2jDataType;
+import de.mpg.imeji.j2j.annotations.j2jId;
+import de.mpg.imeji.j2j.annotations.j2jLazyList;
+import de.mpg.imeji.j2j.annotations.j2jLazyLiteral;
+import de.mpg.imeji.j2j.annotations.j2jLazyURIResource;
+import de.mpg.imeji.j2j.annotations.j2jList;
+import de.mpg.imeji.j2j.annotations.j2jLiteral;
+import de.mpg.imeji.j2j.annotations.j2jReferencedResource;
+import de.mpg.imeji.j2j.annotations.j2jResource;
+
+/**
+ * Immutable description of how a j2j annotated class is mapped to Jena. The plan is computed once
+ * per {@link Class} (see {@link #of(Class)}) and contains everything {@link J2JHelper} would
+ * otherwise find out by reflection for every object: the annotated fields, their predicates, their
+ * kind and accessors to read and write them.
+ */
+public final class MappingPlan {
+  private static final Logger LOGGER = LogManager.getLogger(MappingPlan.class);
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+  private static final ClassValue<MappingPlan> PLANS = new ClassValue<MappingPlan>() {
+    @Override
+    protected MappingPlan computeValue(Class<?> type) {
+      return new MappingPlan(type);
+    }
+  };
+
+  private final Class<?> type;
+  private final String resourceNamespace;
+  private final String dataType;
+  private final MethodHandle idGetter;
+  private final MethodHandle idSetter;
+  private final List<FieldMapping> fields;
+
+  private MappingPlan(Class<?> type) {
+    this.type = type;
+    final j2jResource resource = type.getAnnotation(j2jResource.class);
+    this.resourceNamespace = resource != null ? resource.value() : null;
+    final j2jDataType dt = type.getAnnotation(j2jDataType.class);
+    this.dataType = dt != null ? dt.value() : null;
+    final j2jId id = type.getAnnotation(j2jId.class);
+    this.idGetter = id != null ? findMethod(type, id.getMethod(), MethodType.methodType(Object.class, Object.class)) : null;
+    this.idSetter = id != null ? findMethod(type, id.setMethod(), MethodType.methodType(void.class, Object.class, URI.class)) : null;
+    this.fields = Collections.unmodifiableList(buildFields(type));
+  }
+
+  /**
+   * Return the {@link MappingPlan} of a {@link Class}. The plan is computed at the first call and
+   * then cached
+   *
+   * @param clazz
+   * @return
+   */
+  public static MappingPlan of(Class<?> clazz) {
+    return PLANS.get(clazz);
+  }
+
+  /**
+   * Return the {@link MappingPlan} of the {@link Class} of an {@link Object}
+   *
+   * @param o
+   * @return
+   */
+  public static MappingPlan of(Object o) {
+    return PLANS.get(o.getClass());
+  }
+
+  /**
+   * Find all annotated fields of the class and then of its annotated super classes
+   *
+   * @param clazz
+   * @return
+   */
+  private static List<FieldMapping> buildFields(Class<?> clazz) {
+    final List<FieldMapping> l = new ArrayList<>();
+    Class<?> c = clazz;
+    while (c != null && c.getAnnotation(j2jResource.class) != null) {
+      for (final Field f : c.getDeclaredFields()) {
+        if (J2JHelper.isAnnotated(f)) {
+          l.add(new FieldMapping(clazz, f));
+        }
+      }
+      c = c.getSuperclass();
+    }
+    return l;
+  }
+
+  /**
+   * Find a public method (possibly inherited) and adapt it to the passed generic type
+   *
+   * @param clazz
+   * @param name
+   * @param genericType
+   * @return
+   */
+  private static MethodHandle findMethod(Class<?> clazz, String name, MethodType genericType) {
+    try {
+      final Class<?>[] params = genericType.parameterCount() > 1 ? new Class<?>[] {URI.class} : new Class<?>[0];
+      return LOOKUP.unreflect(clazz.getMethod(name, params)).asType(genericType);
+    } catch (final Exception e) {
+      throw new RuntimeException("Error initializing j2jId method " + name + " of " + clazz, e);
+    }
+  }
+
+  /**
+   * The class of this plan
+   *
+   * @return
+   */
+  public Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * True if the class is a {@link j2jResource}
+   *
+   * @return
+   */
+  public boolean isResource() {
+    return resourceNamespace != null;
+  }
+
+  /**
+   * The {@link j2jResource} value of the class
+   *
+   * @return
+   */
+  public String getResourceNamespace() {
+    return resourceNamespace;
+  }
+
+  /**
+   * The {@link j2jDataType} value of the class
+   *
+   * @return
+   */
+  public String getDataType() {
+    return dataType;
+  }
+
+  /**
+   * True if the class has a {@link j2jDataType}
+   *
+   * @return
+   */
+  public boolean hasDataType() {
+    return dataType != null;
+  }
+
+  /**
+   * True if the class has a {@link j2jId}
+   *
+   * @return
+   */
+  public boolean hasId() {
+    return idGetter != null;
+  }
+
+  /**
+   * Read the id of an object of this class
+   *
+   * @param o
+   * @return
+   */
+  public URI getId(Object o) {
+    if (idGetter == null) {
+      return null;
+    }
+    try {
+      final Object id = idGetter.invokeExact(o);
+      return id != null ? new URI(id.toString()) : null;
+    } catch (final Throwable e) {
+      throw new RuntimeException("Error reading ID of " + o, e);
+    }
+  }
+
+  /**
+   * Set the id of an object of this class
+   *
+   * @param o
+   * @param id
+   * @return
+   */
+  public Object setId(Object o, URI id) {
+    if (idSetter != null) {
+      try {
+        idSetter.invokeExact(o, id);
+      } catch (final Throwable e) {
+        throw new RuntimeException("Error setting ID of " + o, e);
+      }
+    }
+    return o;
+  }
+
+  /**
+   * All fields which are mapped to Jena
+   *
+   * @return
+   */
+  public List<FieldMapping> getFields() {
+    return fields;
+  }
+
+  /**
+   * Mapping of one annotated {@link Field}
+   */
+  public static final class FieldMapping {
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final Constructor<?> defaultConstructor;
+    private final boolean uriType;
+    private final boolean resource;
+    private final boolean literal;
+    private final boolean lazyLiteral;
+    private final boolean list;
+    private final boolean lazyList;
+    private final boolean lazyURIResource;
+    private final String resourceNamespace;
+    private final String lazyURIResourceNamespace;
+    private final String listNamespace;
+    private final String lazyListNamespace;
+    private final String literalNamespace;
+    private final Property resourceProperty;
+    private final Property lazyURIResourceProperty;
+    private final Property listProperty;
+    private final Property lazyListProperty;
+    private final Property literalProperty;
+    private final Class<?> listElementType;
+    private final boolean listOfResources;
+    private final boolean referencedResource;
+    private final ReferenceMapping reference;
+
+    private FieldMapping(Class<?> owner, Field f) {
+      this.field = f;
+      f.setAccessible(true);
+      this.getter = unreflectGetter(f);
+      // primitive fields are set with Field.set, which applies the widening of jena literal values
+      this.setter = Modifier.isFinal(f.getModifiers()) || f.getType().isPrimitive() ? null : unreflectSetter(f);
+      this.defaultConstructor = findDefaultConstructor(f.getType());
+      this.uriType = f.getType().equals(URI.class);
+      this.resource = J2JHelper.isResource(f);
+      this.literal = J2JHelper.isLiteral(f);
+      this.lazyLiteral = J2JHelper.isLazyLitereal(f);
+      this.list = J2JHelper.isList(f);
+      this.lazyList = J2JHelper.isLazyList(f);
+      this.lazyURIResource = J2JHelper.isLazyURIResource(f);
+      this.resourceNamespace = resource ? f.getAnnotation(j2jResource.class).value() : null;
+      this.lazyURIResourceNamespace = lazyURIResource ? f.getAnnotation(j2jLazyURIResource.class).value() : null;
+      this.listNamespace = list ? f.getAnnotation(j2jList.class).value() : null;
+      this.lazyListNamespace = lazyList ? f.getAnnotation(j2jLazyList.class).value() : null;
+      this.literalNamespace = literal ? f.getAnnotation(j2jLiteral.class).value()
+          : lazyLiteral ? f.getAnnotation(j2jLazyLiteral.class).value() : list ? listNamespace : lazyListNamespace;
+      this.resourceProperty = createProperty(resourceNamespace);
+      this.lazyURIResourceProperty = createProperty(lazyURIResourceNamespace);
+      this.listProperty = createProperty(listNamespace);
+      this.lazyListProperty = createProperty(lazyListNamespace);
+      this.literalProperty = createProperty(literalNamespace);
+      this.listElementType = findListElementType(f);
+      this.listOfResources = listElementType != null && listElementType.getAnnotation(j2jResource.class) != null;
+      this.referencedResource = J2JHelper.isReferencedResource(f);
+      this.reference = referencedResource ? ReferenceMapping.create(owner, f) : null;
+    }
+
+    /**
+     * Build a mapping for a {@link Field} which is not part of a {@link MappingPlan}
+     *
+     * @param f
+     * @return
+     */
+    static FieldMapping standalone(Field f) {
+      return new FieldMapping(f.getDeclaringClass(), f);
+    }
+
+    private static MethodHandle unreflectGetter(Field f) {
+      try {
+        return LOOKUP.unreflectGetter(f).asType(GETTER_TYPE);
+      } catch (final IllegalAccessException e) {
+        throw new RuntimeException("Error initializing getter for field " + f, e);
+      }
+    }
+
+    private static MethodHandle unreflectSetter(Field f) {
+      try {
+        return LOOKUP.unreflectSetter(f).asType(SETTER_TYPE);
+      } catch (final IllegalAccessException e) {
+        throw new RuntimeException("Error initializing setter for field " + f, e);
+      }
+    }
+
+    private static Constructor<?> findDefaultConstructor(Class<?> c) {
+      if (c.isInterface() || c.isPrimitive() || Modifier.isAbstract(c.getModifiers())) {
+        return null;
+      }
+      try {
+        final Constructor<?> constructor = c.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return constructor;
+      } catch (final Exception e) {
+        return null;
+      }
+    }
+
+    private static Property createProperty(String namespace) {
+      return namespace != null ? ResourceFactory.createProperty(namespace) : null;
+    }
+
+    private static Class<?> findListElementType(Field f) {
+      final Type genericFieldType = f.getGenericType();
+      if (genericFieldType instanceof ParameterizedType) {
+        final Type[] args = ((ParameterizedType) genericFieldType).getActualTypeArguments();
+        if (args.length > 0 && args[0] instanceof Class<?>) {
+          return (Class<?>) args[0];
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Return the value of the field for this object
+     *
+     * @param o
+     * @return
+     */
+    public Object get(Object o) {
+      try {
+        return getter.invokeExact(o);
+      } catch (final Throwable e) {
+        return null;
+      }
+    }
+
+    /**
+     * Return the value of the field for this object, or a new instance of the field type if the
+     * value is null (null if the type can not be instantiated)
+     *
+     * @param o
+     * @return
+     */
+    public Object getNonNull(Object o) {
+      final Object value = get(o);
+      return value != null ? value : newInstance();
+    }
+
+    /**
+     * Create a new instance of the type of the field
+     *
+     * @return
+     */
+    public Object newInstance() {
+      if (defaultConstructor == null) {
+        return null;
+      }
+      try {
+        return defaultConstructor.newInstance();
+      } catch (final Exception e) {
+        return null;
+      }
+    }
+
+    /**
+     * Set the value of the field for this object
+     *
+     * @param o
+     * @param value
+     */
+    public void set(Object o, Object value) {
+      try {
+        if (setter != null) {
+          setter.invokeExact(o, value);
+        } else {
+          field.set(o, value);
+        }
+      } catch (final Throwable e) {
+        throw new RuntimeException("Error writing " + value + " to " + o + " for field " + field, e);
+      }
+    }
+
+    public Field getField() {
+      return field;
+    }
+
+    public boolean isResource() {
+      return resource;
+    }
+
+    public boolean isLiteral() {
+      return literal;
+    }
+
+    public boolean isLazyLiteral() {
+      return lazyLiteral;
+    }
+
+    public boolean isList() {
+      return list;
+    }
+
+    public boolean isLazyList() {
+      return lazyList;
+    }
+
+    public boolean isReferencedResource() {
+      return referencedResource;
+    }
+
+    /**
+     * Same as {@link J2JHelper#isURIResource(Object, Field)}
+     *
+     * @param o
+     * @return
+     */
+    public boolean isURIResource(Object o) {
+      return uriType && resource || ((list || lazyList) && o instanceof URI);
+    }
+
+    /**
+     * Same as {@link J2JHelper#isLazyURIResource(Object, Field)}
+     *
+     * @param o
+     * @return
+     */
+    public boolean isLazyURIResource(Object o) {
+      return uriType && lazyURIResource || (lazyList && o instanceof URI);
+    }
+
+    /**
+     * Same as {@link J2JHelper#getURIResourceNamespace(Object, Field)}, as {@link Property}
+     *
+     * @param o
+     * @return
+     */
+    public Property getURIResourceProperty(Object o) {
+      if (isURIResource(o) || isLazyURIResource(o)) {
+        if (resource) {
+          return resourceProperty;
+        } else if (lazyURIResource) {
+          return lazyURIResourceProperty;
+        } else if (list) {
+          return listProperty;
+        } else if (lazyList) {
+          return lazyListProperty;
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Same as {@link J2JHelper#getLiteralNamespace(Field)}
+     *
+     * @return
+     */
+    public String getLiteralNamespace() {
+      return literalNamespace;
+    }
+
+    /**
+     * {@link #getLiteralNamespace()} as {@link Property}
+     *
+     * @return
+     */
+    public Property getLiteralProperty() {
+      return literalProperty;
+    }
+
+    /**
+     * The {@link Property} of a {@link j2jList}
+     *
+     * @return
+     */
+    public Property getListProperty() {
+      return listProperty;
+    }
+
+    /**
+     * The {@link Property} of a {@link j2jLazyList}
+     *
+     * @return
+     */
+    public Property getLazyListProperty() {
+      return lazyListProperty;
+    }
+
+    /**
+     * Same as {@link J2JHelper#getNamespace(Field)}, as {@link Property}
+     *
+     * @return
+     */
+    public Property getProperty() {
+      if (resource) {
+        return resourceProperty;
+      } else if (literal) {
+        return literalProperty;
+      } else if (list) {
+        return listProperty;
+      }
+      return null;
+    }
+
+    /**
+     * The class of the element of the list, if the field is a generic {@link List}
+     *
+     * @return
+     */
+    public Class<?> getListElementType() {
+      return listElementType;
+    }
+
+    /**
+     * True if the elements of the list are {@link j2jResource}
+     *
+     * @return
+     */
+    public boolean isListOfResources() {
+      return listOfResources;
+    }
+
+    /**
+     * The referenced resource of a {@link j2jReferencedResource}, null if it could not be resolved
+     *
+     * @return
+     */
+    public ReferenceMapping getReference() {
+      return reference;
+    }
+  }
+
+  /**
+   * Resolved {@link j2jReferencedResource}
+   */
+  public static final class ReferenceMapping {
+    private final FieldMapping uriField;
+    private final FieldMapping targetField;
+
+    private ReferenceMapping(FieldMapping uriField, FieldMapping targetField) {
+      this.uriField = uriField;
+      this.targetField = targetField;
+    }
+
+    private static ReferenceMapping create(Class<?> owner, Field f) {
+      final j2jReferencedResource annotation = f.getAnnotation(j2jReferencedResource.class);
+      try {
+        final Field uri = owner.getDeclaredField(annotation.referencedResourceUri());
+        final Field target = Class.forName(annotation.referencedClass()).getDeclaredField(annotation.referencedField());
+        return new ReferenceMapping(FieldMapping.standalone(uri), FieldMapping.standalone(target));
+      } catch (final Exception e) {
+        LOGGER.error("Error initializing referenced resource for field " + f, e);
+        return null;
+      }
+    }
+
+    /**
+     * The uri of the referenced resource for this object
+     *
+     * @param o
+     * @return
+     */
+    public String getReferencedUri(Object o) {
+      final Object uri = uriField.get(o);
+      return uri != null ? uri.toString() : null;
+    }
+
+    /**
+     * The field to read from the referenced resource
+     *
+     * @return
+     */
+    public FieldMapping getTargetField() {
+      return targetField;
+    }
+  }
+}
@@ -1,12 +1,11 @@
 package de.mpg.imeji.j2j.persistence;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
@@ -14,6 +13,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.jena.Jena;
 import org.apache.jena.rdf.model.Literal;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
@@ -25,6 +25,8 @@ import org.apache.jena.vocabulary.RDFS;
 import de.mpg.imeji.exceptions.AlreadyExistsException;
 import de.mpg.imeji.j2j.helper.J2JHelper;
 import de.mpg.imeji.j2j.helper.LiteralHelper;
+import de.mpg.imeji.j2j.helper.MappingPlan;
+import de.mpg.imeji.j2j.helper.MappingPlan.FieldMapping;
 import de.mpg.imeji.util.LocalizedString;
 
 /**
@@ -72,8 +74,10 @@ public class Java2Jena {
   }
 
   /**
-   * Update a {@link RDFResource}. Remove all the properties of the {@link RDFResource} and write
-   * the new again
+   * Update a {@link RDFResource}. Only the triples which differ between the current state of the
+   * {@link RDFResource} in Jena and the new object are removed or added: the new object is first
+   * written in a temporary {@link Model}, which is compared to the triples which would have been
+   * removed by a complete rewrite.
    *
    * @param r
    */
@@ -81,12 +85,27 @@ public class Java2Jena {
     if (J2JHelper.getId(o) == null) {
       throw new NullPointerException("Fatal error: Resource " + o + " with a null id");
     }
-    if (lazy) {
-      removeLazy(o);
-    } else {
-      remove(o);
+    final Set<Statement> current = lazy ? listStatementsLazy(o) : listStatements(o);
+    final Model target = ModelFactory.createDefaultModel();
+    new Java2Jena(target, lazy).write(o);
+    final List<Statement> toRemove = new ArrayList<>();
+    for (final Statement st : current) {
+      if (!target.contains(st)) {
+        toRemove.add(st);
+      }
     }
-    write(o);
+    model.remove(toRemove);
+    final List<Statement> toAdd = new ArrayList<>();
+    for (final StmtIterator iterator = target.listStatements(); iterator.hasNext();) {
+      final Statement st = iterator.next();
+      if (!model.contains(st)) {
+        toAdd.add(st);
+      }
+    }
+    model.add(toAdd);
+    target.close();
+    UpdateStatistics.record(toRemove.size(), toAdd.size(), current.size() - toRemove.size());
+    LOGGER.debug("Updated " + J2JHelper.getId(o) + ": " + toRemove.size() + " triples removed, " + toAdd.size() + " triples added");
   }
 
   /**
@@ -148,24 +167,42 @@ public class Java2Jena {
 
 
   /**
-   * Remove only relation not defined in a lazy list
+   * List all the triples of a {@link RDFResource} and of its embedded {@link Resource} (i.e. all
+   * triples which are removed by {@link #remove(Object)})
+   *
+   * @param o
+   * @return
+   */
+  private Set<Statement> listStatements(Object o) {
+    final Set<Statement> l = new LinkedHashSet<>();
+    for (final Resource e : getEmbeddedResources(o)) {
+      l.addAll(model.listStatements(e, null, (RDFNode) null).toList());
+    }
+    l.addAll(model.listStatements(model.getResource(J2JHelper.getId(o).toString()), null, (RDFNode) null).toList());
+    return l;
+  }
+
+  /**
+   * List only the triples not defined in a lazy list
    *
    * @param o
+   * @return
    */
-  private void removeLazy(Object o) {
-    final Resource r = createResource(o);
-    for (final Field f : J2JHelper.getAllObjectFields(o.getClass())) {
-      if (!J2JHelper.isLazyList(f)) {
-        final String ns = J2JHelper.getNamespace(f);
-        if (ns != null) {
-          final Property p = model.createProperty(ns);
-          model.removeAll(r, p, null);
+  private Set<Statement> listStatementsLazy(Object o) {
+    final Set<Statement> l = new LinkedHashSet<>();
+    final Resource r = model.getResource(J2JHelper.getId(o).toString());
+    for (final FieldMapping f : MappingPlan.of(o).getFields()) {
+      if (!f.isLazyList()) {
+        final Property p = f.getProperty();
+        if (p != null) {
+          l.addAll(model.listStatements(r, p, (RDFNode) null).toList());
         }
       }
     }
     for (final Resource e : getEmbeddedResources(o)) {
-      model.removeAll(e, null, null);
+      l.addAll(model.listStatements(e, null, (RDFNode) null).toList());
     }
+    return l;
   }
 
   /**
@@ -222,9 +259,9 @@ public class Java2Jena {
    * @param o
    */
   private void addProperties2Resource(Resource s, Object o) {
-    for (final Field f : J2JHelper.getAllObjectFields(o.getClass())) {
+    for (final FieldMapping f : MappingPlan.of(o).getFields()) {
       try {
-        final Object r = J2JHelper.getFieldAsJavaObject(f, o);
+        final Object r = f.get(o);
         if (r != null) {
           if (r instanceof List<?>) {
             addList2Resource(s, ((List<?>) r), f);
@@ -233,7 +270,7 @@ public class Java2Jena {
           }
         }
       } catch (final Exception e) {
-        throw new RuntimeException("Error adding property for field " + f + " to object " + o.getClass(), e);
+        throw new RuntimeException("Error adding property for field " + f.getField() + " to object " + o.getClass(), e);
       }
     }
   }
@@ -244,8 +281,8 @@ public class Java2Jena {
    * @param s
    * @param list
    */
-  private void addList2Resource(Resource s, List<?> list, Field f) {
-    if (!(lazy && J2JHelper.isLazyList(f))) {
+  private void addList2Resource(Resource s, List<?> list, FieldMapping f) {
+    if (!(lazy && f.isLazyList())) {
       for (int i = 0; i < list.size(); i++) {
         Object listElement = list.get(i);
         if (J2JHelper.isResource(listElement) && J2JHelper.getId(listElement) == null) {
@@ -283,22 +320,22 @@ public class Java2Jena {
    * @param s
    * @param obj
    */
-  private void addProperty(Resource s, Object obj, Field f) {
+  private void addProperty(Resource s, Object obj, FieldMapping f) {
     try {
       if (obj == null) {
         return;
       } else if (J2JHelper.isResource(obj) && J2JHelper.getId(obj) != null) {
         writeResource(s, obj);
-      } else if (J2JHelper.isLiteral(f) || J2JHelper.isLazyLitereal(f)) {
+      } else if (f.isLiteral() || f.isLazyLiteral()) {
         addLiteral(s, obj, f);
-      } else if ((J2JHelper.isURIResource(obj, f) || J2JHelper.isLazyURIResource(obj, f)) && obj != null) {
+      } else if (f.isURIResource(obj) || f.isLazyURIResource(obj)) {
         addURIResource(s, obj, f);
       } else if (obj instanceof LocalizedString) {
         addLabel(s, (LocalizedString) obj);
-      } else if (J2JHelper.isList(f) || J2JHelper.isLazyList(f)) {
+      } else if (f.isList() || f.isLazyList()) {
         addLiteral(s, obj, f);
       } else {
-        LOGGER.error("Not adding field " + f);
+        LOGGER.error("Not adding field " + f.getField());
       }
     } catch (final Exception e) {
       throw new RuntimeException("Error adding property", e);
@@ -329,9 +366,9 @@ public class Java2Jena {
    * @param literalObject
    * @param f
    */
-  private void addLiteral(Resource s, Object literalObject, Field f) {
+  private void addLiteral(Resource s, Object literalObject, FieldMapping f) {
     if (!literalHelper.isEmpty(literalObject)) {
-      final Property p = model.createProperty(J2JHelper.getLiteralNamespace(f));
+      final Property p = f.getLiteralProperty();
       final Literal o = literalHelper.java2Literal(literalObject);
       if (o != null) {
         model.add(s, p, o);
@@ -360,8 +397,8 @@ public class Java2Jena {
    * @param obj
    * @param f
    */
-  private void addURIResource(Resource s, Object resourceURI, Field f) {
-    final Property p = model.createProperty(J2JHelper.getURIResourceNamespace(resourceURI, f));
+  private void addURIResource(Resource s, Object resourceURI, FieldMapping f) {
+    final Property p = f.getURIResourceProperty(resourceURI);
     final Resource o = model.createResource(resourceURI.toString());
     if (o != null) {
       model.add(s, p, o);
@@ -378,24 +415,21 @@ public class Java2Jena {
    */
   private List<Resource> getEmbeddedResources(Object r) {
     final List<Resource> l = new ArrayList<Resource>();
-    for (final Field f : J2JHelper.getAllObjectFields(r.getClass())) {
-      if (!(lazy && J2JHelper.isLazyList(f))) {
+    for (final FieldMapping f : MappingPlan.of(r).getFields()) {
+      if (!(lazy && f.isLazyList())) {
         try {
-          final Object r2 = J2JHelper.getFieldAsJavaObjectNonNull(f, r);
+          final Object r2 = f.getNonNull(r);
           if (J2JHelper.isResource(r2) && exists(r2)) {
             final Resource o = model.getResource(J2JHelper.getId(r2).toString());
             l.add(o);
             l.addAll(getEmbeddedResources(r2));
-          } else if (J2JHelper.isLazyList(f) || J2JHelper.isList(f)) {
-            final String predicate = J2JHelper.getNamespace(r2, f);
-            // Get the class of the object in the list
-            final ParameterizedType paramType = (ParameterizedType) f.getGenericType();
-            final Type type = paramType.getActualTypeArguments()[0];
-            final boolean isListOfResources = J2JHelper.isResource((Class<?>) type);
-            if (isListOfResources) {
+          } else if (f.isLazyList() || f.isList()) {
+            final Property predicate = f.isList() ? f.getListProperty() : f.getLazyListProperty();
+            // The class of the object in the list is known by the mapping plan
+            if (f.isListOfResources()) {
               final Resource parent = model.getResource(J2JHelper.getId(r).toString());
               // Find all child resources for this predicate: <parent> <predicate> <childs>
-              for (final StmtIterator iterator = parent.listProperties(model.createProperty(predicate)); iterator.hasNext();) {
+              for (final StmtIterator iterator = parent.listProperties(predicate); iterator.hasNext();) {
                 final Statement st = iterator.next();
                 if (st.getObject().isResource()) {
                   l.add(st.getResource());
@@ -1,17 +1,22 @@
 package de.mpg.imeji.j2j.persistence;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
+import org.apache.jena.graph.Node;
 import org.apache.jena.rdf.model.Literal;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
@@ -19,15 +24,20 @@ import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
 
 import de.mpg.imeji.j2j.annotations.j2jId;
-import de.mpg.imeji.j2j.annotations.j2jReferencedResource;
 import de.mpg.imeji.j2j.annotations.j2jResource;
 import de.mpg.imeji.j2j.helper.J2JHelper;
 import de.mpg.imeji.j2j.helper.LiteralHelper;
+import de.mpg.imeji.j2j.helper.MappingPlan;
+import de.mpg.imeji.j2j.helper.MappingPlan.FieldMapping;
+import de.mpg.imeji.j2j.helper.MappingPlan.ReferenceMapping;
 import de.mpg.imeji.util.LocalizedString;
 
 /**
  * Class to load a {@link Resource} into a java object. This java object must have been annotated
- * with j2j annotations
+ * with j2j annotations <br/>
+ * - All statements of a subject are read at once and kept in memory, grouped by predicate, so that
+ * the fields (and the positions of the lists) are loaded without probing the model again <br/>
+ * - The statements are kept until {@link #clear()}: the model must not be changed in between
  *
  * @author saquet (initial creation)
  * @author $Author$ (last modification)
@@ -36,6 +46,7 @@ import de.mpg.imeji.util.LocalizedString;
 public class Jena2Java {
   private final Model model;
   private boolean lazy = false;
+  private final Map<Node, Map<Node, List<Statement>>> statements = new HashMap<>();
   private static final Logger LOGGER = LogManager.getLogger(Jena2Java.class);
 
   public Jena2Java(Model model, boolean lazy) {
@@ -58,9 +69,41 @@ public class Jena2Java {
     return loadResourceFields(o);
   }
 
+  /**
+   * Read all statements of the subjects with one pass over the model, so that they can be loaded
+   * without any further access to the model
+   *
+   * @param uris
+   */
+  public void preload(Collection<URI> uris) {
+    for (final URI uri : uris) {
+      if (uri != null) {
+        getStatements(model.getResource(uri.toString()));
+      }
+    }
+  }
+
+  /**
+   * True if the subject has at least one statement
+   *
+   * @param uri
+   * @return
+   */
+  public boolean exists(URI uri) {
+    return uri != null && !getStatements(model.getResource(uri.toString())).isEmpty();
+  }
+
+  /**
+   * Forget the statements read so far. Must be called after the model has been changed
+   */
+  public void clear() {
+    statements.clear();
+  }
+
   /**
    * Load all {@link Field} defined in the Object. The Object must be a {@link Resource} (defined in
-   * Java by {@link j2jResource})
+   * Java by {@link j2jResource}). The fields are read according to the {@link MappingPlan} of the
+   * class of the object
    *
    * @param javaObject
    * @return
@@ -71,13 +114,12 @@ public class Jena2Java {
     if (J2JHelper.hasDataType(javaObject) && isTypedResource(subject)) {
       javaObject = createJavaObjectFromDataType(subject);
     }
-    List<Field> resourceFields = J2JHelper.getAllObjectFields(javaObject.getClass());
-    for (final Field field : resourceFields) {
+    for (final FieldMapping field : MappingPlan.of(javaObject).getFields()) {
       Object object = null;
-      if (J2JHelper.isReferencedResource(field)) {
+      if (field.isReferencedResource()) {
         object = loadReferenceObject(javaObject, field);
       } else {
-        object = J2JHelper.getFieldAsJavaObjectNonNull(field, javaObject);
+        object = field.getNonNull(javaObject);
         object = loadObject(subject, field, object, 0, null);
       }
       setField(javaObject, field, object);
@@ -92,42 +134,25 @@ public class Jena2Java {
    * @param field
    * @return
    */
-  private Object loadReferenceObject(Object javaObject, Field field) {
-
-    Object referenceObject = null;
-
-    if (javaObject != null) {
-      j2jReferencedResource referencedResourceAnnotation = field.getAnnotation(j2jReferencedResource.class);
-      if (referencedResourceAnnotation != null) {
-        String uriFieldName = referencedResourceAnnotation.referencedResourceUri();
-        String targetClassName = referencedResourceAnnotation.referencedClass();
-        String targetFieldName = referencedResourceAnnotation.referencedField();
-        if (uriFieldName != null) {
-          try {
-            // (1) get URI of resource whose field we want to read
-            Field uriField = javaObject.getClass().getDeclaredField(uriFieldName);
-            uriField.setAccessible(true);
-            String resourceUriString = (String) uriField.get(javaObject);
-            final Resource subject = model.getResource(resourceUriString);
-            // (2) get field that we want to read
-            Class<?> myClass = Class.forName(targetClassName);
-            Field targetField = myClass.getDeclaredField(targetFieldName);
-            targetField.setAccessible(true);
-            referenceObject = loadObject(subject, targetField, null, 0, null);
-          } catch (Exception e) {
-            // NoSuchFieldException, SecurityException
-            e.printStackTrace();
-          }
-        }
-      }
+  private Object loadReferenceObject(Object javaObject, FieldMapping field) {
+    final ReferenceMapping reference = field.getReference();
+    if (javaObject == null || reference == null) {
+      return null;
     }
-    return referenceObject;
+    // (1) get URI of resource whose field we want to read
+    final String resourceUriString = reference.getReferencedUri(javaObject);
+    if (resourceUriString == null) {
+      return null;
+    }
+    final Resource subject = model.getResource(resourceUriString);
+    // (2) read the field of this resource
+    return loadObject(subject, reference.getTargetField(), null, 0, null);
   }
 
 
   /**
-   * Load the Object of a Triple. The {@link Field} defines the relation between the subject and the
-   * object (i.e. the field contains predicate information)
+   * Load the Object of a Triple. The {@link FieldMapping} defines the relation between the subject
+   * and the object (i.e. the field contains predicate information)
    *
    * @param subject
    * @param f
@@ -135,18 +160,18 @@ public class Jena2Java {
    * @param position
    * @return
    */
-  private Object loadObject(Resource subject, Field f, Object object, int position, Statement st) {
+  private Object loadObject(Resource subject, FieldMapping f, Object object, int position, Statement st) {
     if (J2JHelper.isResource(object)) {
       object = loadResourceObject(subject, object, position);
-    } else if (J2JHelper.isLiteral(f) || (J2JHelper.isLazyLitereal(f) && !lazy)) {
+    } else if (f.isLiteral() || (f.isLazyLiteral() && !lazy)) {
       object = loadObjectLiteral(f, subject, object, position, st);
-    } else if (J2JHelper.isURIResource(object, f) || (J2JHelper.isLazyURIResource(object, f) && !lazy)) {
-      object = readURIResource(f, subject, object, position);
+    } else if (f.isURIResource(object) || (f.isLazyURIResource(object) && !lazy)) {
+      object = readURIResource(f, subject, object, position, st);
     } else if (object instanceof List<?>) {
       object = readList(f, subject);
     } else if (object instanceof LocalizedString) {
       object = readLocalizedString(f, subject, object, position, st);
-    } else if (J2JHelper.isList(f) && J2JHelper.getLiteralNamespace(f) != null) {
+    } else if (f.isList() && f.getLiteralNamespace() != null) {
       // field of a list which has not been handle so for (i.e not an URI or not a
       // localized String)
       object = loadObjectLiteral(f, subject, object, position, st);
@@ -162,17 +187,12 @@ public class Jena2Java {
    * @param object
    * @return
    */
-  private Object setField(Object subject, Field f, Object object) {
-    try {
-      f.setAccessible(true);
-      object = LiteralHelper.jenaTypeToJ2jType(object);
-      if (object != null) {
-        f.set(subject, object);
-      }
-      return subject;
-    } catch (final Exception e) {
-      throw new RuntimeException("Error writing " + object + " to " + subject + " for field " + f, e);
+  private Object setField(Object subject, FieldMapping f, Object object) {
+    object = LiteralHelper.jenaTypeToJ2jType(object);
+    if (object != null) {
+      f.set(subject, object);
     }
+    return subject;
   }
 
   /**
@@ -186,7 +206,7 @@ public class Jena2Java {
    * @return
    */
   private Object loadResourceObject(Resource subject, Object object, int position) {
-    final String predicate = J2JHelper.getResourceNamespace(object);
+    final Property predicate = model.createProperty(J2JHelper.getResourceNamespace(object));
     final Statement st = getStatement(subject, predicate, position);
     if (st != null) {
       final URI uri = URI.create(st.getObject().toString());
@@ -207,8 +227,8 @@ public class Jena2Java {
    * @param position
    * @return
    */
-  private Object loadObjectLiteral(Field f, Resource subject, Object object, int position, Statement statement) {
-    final String predicate = J2JHelper.getLiteralNamespace(f);
+  private Object loadObjectLiteral(FieldMapping f, Resource subject, Object object, int position, Statement statement) {
+    final Property predicate = f.getLiteralProperty();
     final Statement st = statement == null ? getStatement(subject, predicate, position) : statement;
     if (st != null) {
       object = LiteralHelper.jenaTypeToJ2jType(st.getLiteral().getValue());
@@ -219,17 +239,18 @@ public class Jena2Java {
   /**
    * Load the object the the statement (subject - predicate - object). The object must be a
    * {@link j2jResource} and an {@link URI}. The position defines which object should be loaded in
-   * case of many statement with the same subject and predicate.
+   * case of many statement with the same subject and predicate, if the statement isn't already
+   * known.
    *
    * @param f
    * @param subject
    * @param object
    * @param position
+   * @param statement
    * @return
    */
-  private Object readURIResource(Field f, Resource subject, Object object, int position) {
-    final String predicate = J2JHelper.getURIResourceNamespace(object, f);
-    final Statement st = getStatement(subject, predicate, position);
+  private Object readURIResource(FieldMapping f, Resource subject, Object object, int position, Statement statement) {
+    final Statement st = statement == null ? getStatement(subject, f.getURIResourceProperty(object), position) : statement;
     if (st != null) {
       object = URI.create(st.getObject().toString());
     }
@@ -247,33 +268,33 @@ public class Jena2Java {
    * @param position
    * @return
    */
-  private Object readLocalizedString(Field f, Resource subject, Object object, int position, Statement statement) {
-    final Statement st = statement == null ? getStatement(subject, RDFS.label.getURI(), position) : statement;
+  private Object readLocalizedString(FieldMapping f, Resource subject, Object object, int position, Statement statement) {
+    final Statement st = statement == null ? getStatement(subject, RDFS.label, position) : statement;
     final LocalizedString ls = new LocalizedString(st.getObject().asLiteral().getValue().toString(), st.getLanguage());
     return ls;
   }
 
   /**
    * Load the object the the statement (subject - predicate - object). The object must be a
-   * {@link List} The position defines which object should be loaded in case of many statement with
-   * the same subject and predicate.
+   * {@link List}. The statements of the list are iterated once, and each element is loaded from its
+   * own statement (and not looked up again by its position), so that a list is loaded in linear
+   * time.
    *
    * @param f
    * @param subject
    * @return
    */
-  private Object readList(Field f, Resource subject) {
+  private Object readList(FieldMapping f, Resource subject) {
     final List<Object> object = new ArrayList<Object>();
-    String predicate = J2JHelper.getListNamespace(f);
+    Property predicate = f.getListProperty();
     if (predicate == null && !lazy) {
-      predicate = J2JHelper.getLazyListNamespace(f);
+      predicate = f.getLazyListProperty();
     }
     if (predicate == null) {
       return object;
     }
     int count = 0;
-    for (final StmtIterator iterator = subject.listProperties(model.createProperty(predicate)); iterator.hasNext();) {
-      final Statement st = iterator.nextStatement();
+    for (final Statement st : getStatements(subject, predicate)) {
       Object listObject = null;
       if (st.getObject().isResource() && isTypedResource(st.getResource())) {
         listObject = createJavaObjectFromDataType(st.getResource());
@@ -303,8 +324,12 @@ public class Jena2Java {
    * @return
    */
   private boolean isTypedResource(Resource r) {
-    final Statement type = r.getProperty(RDF.type);
-    return type != null && type.getProperty(RDF.type).getObject().isLiteral();
+    final Statement type = getStatement(r, RDF.type, 0);
+    if (type == null) {
+      return false;
+    }
+    final Statement clazz = getStatement(type.getResource(), RDF.type, 0);
+    return clazz != null && clazz.getObject().isLiteral();
   }
 
   /**
@@ -315,8 +340,8 @@ public class Jena2Java {
    * @return
    */
   private Object createJavaObjectFromDataType(Resource r) {
-    final Statement statementType = r.getProperty(RDF.type);
-    final String clazz = statementType.getResource().getProperty(RDF.type).getString();
+    final Statement statementType = getStatement(r, RDF.type, 0);
+    final String clazz = getStatement(statementType.getResource(), RDF.type, 0).getString();
     try {
       final Object o = this.getClass().getClassLoader().loadClass(clazz).newInstance();
       J2JHelper.setId(o, URI.create(r.getURI()));
@@ -332,20 +357,44 @@ public class Jena2Java {
    * many statements with same subject and predicate)
    *
    * @param subject
-   * @param predicateUri
+   * @param predicate
    * @param position
    * @return
    */
-  private Statement getStatement(Resource subject, String predicateUri, int position) {
-    int count = 0;
-    for (final StmtIterator iterator = subject.listProperties(model.createProperty(predicateUri)); iterator.hasNext();) {
-      final Statement st = iterator.next();
-      if (position == count) {
-        return st;
+  private Statement getStatement(Resource subject, Property predicate, int position) {
+    final List<Statement> list = getStatements(subject, predicate);
+    return position < list.size() ? list.get(position) : null;
+  }
+
+  /**
+   * All statements with one subject and one predicate, in the order of the model
+   *
+   * @param subject
+   * @param predicate
+   * @return
+   */
+  private List<Statement> getStatements(Resource subject, Property predicate) {
+    return getStatements(subject).getOrDefault(predicate.asNode(), Collections.emptyList());
+  }
+
+  /**
+   * All statements of the subject grouped by predicate. Read from the model with one pass the first
+   * time, then from memory
+   *
+   * @param subject
+   * @return
+   */
+  private Map<Node, List<Statement>> getStatements(Resource subject) {
+    Map<Node, List<Statement>> subjectStatements = statements.get(subject.asNode());
+    if (subjectStatements == null) {
+      subjectStatements = new HashMap<>();
+      for (final StmtIterator iterator = model.listStatements(subject, null, (RDFNode) null); iterator.hasNext();) {
+        final Statement st = iterator.nextStatement();
+        subjectStatements.computeIfAbsent(st.getPredicate().asNode(), k -> new ArrayList<>()).add(st);
       }
-      count++;
+      statements.put(subject.asNode(), subjectStatements);
     }
-    return null;
+    return subjectStatements;
   }
 
   /**
@@ -354,23 +403,18 @@ public class Jena2Java {
    * @param f
    * @return
    */
-  private Object createJavaObjectForListElements(Field f) {
-    final Type genericFieldType = f.getGenericType();
-    if (genericFieldType instanceof ParameterizedType) {
-      final ParameterizedType aType = (ParameterizedType) genericFieldType;
-      final Type[] fieldArgTypes = aType.getActualTypeArguments();
-      for (final Type fieldArgType : fieldArgTypes) {
-        final Class<?> fieldArgClass = (Class<?>) fieldArgType;
-        try {
-          if (fieldArgClass == URI.class) {
-            return URI.create("");
-          }
-          return fieldArgClass.newInstance();
-        } catch (final Exception e) {
-          throw new RuntimeException("Error initializing " + fieldArgClass);
-        }
+  private Object createJavaObjectForListElements(FieldMapping f) {
+    final Class<?> fieldArgClass = f.getListElementType();
+    if (fieldArgClass == null) {
+      return null;
+    }
+    try {
+      if (fieldArgClass == URI.class) {
+        return URI.create("");
       }
+      return fieldArgClass.newInstance();
+    } catch (final Exception e) {
+      throw new RuntimeException("Error initializing " + fieldArgClass);
     }
-    return null;
   }
 }
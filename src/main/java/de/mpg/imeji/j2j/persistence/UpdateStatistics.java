@@ -0,0 +1,80 @@
+package de.mpg.imeji.j2j.persistence;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the triples touched by the updates made with {@link Java2Jena}
+ */
+public class UpdateStatistics {
+  private static final AtomicLong UPDATES = new AtomicLong();
+  private static final AtomicLong REMOVED = new AtomicLong();
+  private static final AtomicLong ADDED = new AtomicLong();
+  private static final AtomicLong UNCHANGED = new AtomicLong();
+
+  /**
+   * private constructor
+   */
+  private UpdateStatistics() {
+
+  }
+
+  /**
+   * Record the result of one update
+   *
+   * @param removed number of triples removed
+   * @param added number of triples added
+   * @param unchanged number of triples which didn't need to be rewritten
+   */
+  static void record(int removed, int added, int unchanged) {
+    UPDATES.incrementAndGet();
+    REMOVED.addAndGet(removed);
+    ADDED.addAndGet(added);
+    UNCHANGED.addAndGet(unchanged);
+  }
+
+  /**
+   * Number of updates made since the start of imeji
+   *
+   * @return
+   */
+  public static long getUpdates() {
+    return UPDATES.get();
+  }
+
+  /**
+   * Number of triples removed by updates
+   *
+   * @return
+   */
+  public static long getTriplesRemoved() {
+    return REMOVED.get();
+  }
+
+  /**
+   * Number of triples added by updates
+   *
+   * @return
+   */
+  public static long getTriplesAdded() {
+    return ADDED.get();
+  }
+
+  /**
+   * Number of triples which were left untouched by updates
+   *
+   * @return
+   */
+  public static long getTriplesUnchanged() {
+    return UNCHANGED.get();
+  }
+
+  /**
+   * Average number of triples written (removed + added) per update
+   *
+   * @return
+   */
+  public static double getTriplesTouchedPerUpdate() {
+    final long updates = UPDATES.get();
+    return updates == 0 ? 0 : (double) (REMOVED.get() + ADDED.get()) / updates;
+  }
+}
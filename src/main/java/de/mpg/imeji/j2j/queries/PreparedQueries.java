@@ -0,0 +1,340 @@
+package de.mpg.imeji.j2j.queries;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QueryParseException;
+import org.apache.jena.query.QuerySolutionMap;
+import org.apache.jena.query.Syntax;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.syntax.syntaxtransform.QueryTransformOps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Cache of the parsed SPARQL queries: <br/>
+ * - The constants (iris and literals) of a query are replaced by variables: the resulting shape is
+ * the same for all queries built by the same method of JenaCustomQueries <br/>
+ * - The final LIMIT and OFFSET are removed from the shape, so that all pages of a query have the
+ * same shape: they are set on a copy of the parsed shape <br/>
+ * - The shape is parsed once, and executed with the constants as initial bindings (which ARQ
+ * substitutes before optimizing the query) <br/>
+ * - Shapes which can't be parsed (e.g. a constant in a place where a variable isn't allowed) are
+ * remembered, and their queries are parsed as they are <br/>
+ * - The number of executions and a latency histogram are recorded per shape
+ */
+public class PreparedQueries {
+  private static final Logger LOGGER = LogManager.getLogger(PreparedQueries.class);
+  private static final int MAX_SHAPES = 500;
+  private static final String PARAMETER = "imejiParam";
+  private static final String OTHER_SHAPES = "(other shapes)";
+  // PREFIX declarations are kept, strings and iris are replaced
+  private static final Pattern CONSTANTS = Pattern.compile("(?i)(PREFIX\\s+[\\w-]*:\\s*<[^>]*>)"
+      + "|(\"(?:[^\"\\\\\\n]|\\\\.)*\"|'(?:[^'\\\\\\n]|\\\\.)*')(@[a-zA-Z]+(?:-[a-zA-Z0-9]+)*|\\^\\^<([^<>\"{}|^`\\\\\\s]*)>)?"
+      + "|<([^<>\"{}|^`\\\\\\s]*)>");
+  private static final Pattern PAGE = Pattern.compile("(?i)\\s+(LIMIT|OFFSET)\\s+(\\d+)\\s*$");
+  private static final Model NODES = ModelFactory.createDefaultModel();
+  private static final Query NOT_PARAMETERIZABLE = new Query();
+  private static final Map<String, Query> SHAPES = new LinkedHashMap<String, Query>(16, 0.75f, true) {
+    private static final long serialVersionUID = -3185468014961413424L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Query> eldest) {
+      return size() > MAX_SHAPES;
+    }
+  };
+  private static final Map<String, QueryStatistics> STATISTICS = new ConcurrentHashMap<>();
+
+  /**
+   * A query ready to be executed: the parsed query and its initial bindings
+   */
+  public static class PreparedQuery {
+    private final String shape;
+    private final Query query;
+    private final QuerySolutionMap bindings;
+
+    private PreparedQuery(String shape, Query query, QuerySolutionMap bindings) {
+      this.shape = shape;
+      this.query = query;
+      this.bindings = bindings;
+    }
+
+    public Query getQuery() {
+      return query;
+    }
+
+    public QuerySolutionMap getBindings() {
+      return bindings;
+    }
+
+    /**
+     * Record one execution of the query
+     *
+     * @param nanos the duration of the execution
+     */
+    public void record(long nanos) {
+      getStatistics(shape).record(nanos);
+    }
+  }
+
+  /**
+   * Number of executions and latency histogram of a query shape
+   */
+  public static class QueryStatistics {
+    private static final long[] BUCKETS_MS = {1, 10, 100, 1000, 10000};
+    private final String shape;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS_MS.length + 1);
+
+    private QueryStatistics(String shape) {
+      this.shape = shape;
+    }
+
+    private void record(long nanos) {
+      count.incrementAndGet();
+      totalNanos.addAndGet(nanos);
+      final long ms = nanos / 1000000;
+      int bucket = 0;
+      while (bucket < BUCKETS_MS.length && ms >= BUCKETS_MS[bucket]) {
+        bucket++;
+      }
+      histogram.incrementAndGet(bucket);
+    }
+
+    public String getShape() {
+      return shape;
+    }
+
+    public long getCount() {
+      return count.get();
+    }
+
+    public long getTotalTime() {
+      return totalNanos.get() / 1000000;
+    }
+
+    public long getAverageTime() {
+      return count.get() > 0 ? getTotalTime() / count.get() : 0;
+    }
+
+    /**
+     * The histogram as text, for instance: "<1ms: 10, <10ms: 2, >=10s: 0"
+     *
+     * @return
+     */
+    public String getHistogram() {
+      final StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < BUCKETS_MS.length; i++) {
+        sb.append("<").append(formatMs(BUCKETS_MS[i])).append(": ").append(histogram.get(i)).append(", ");
+      }
+      return sb.append(">=").append(formatMs(BUCKETS_MS[BUCKETS_MS.length - 1])).append(": ").append(histogram.get(BUCKETS_MS.length))
+          .toString();
+    }
+
+    private static String formatMs(long ms) {
+      return ms >= 1000 ? ms / 1000 + "s" : ms + "ms";
+    }
+  }
+
+  /**
+   * private constructor
+   */
+  private PreparedQueries() {
+
+  }
+
+  /**
+   * Prepare a SPARQL SELECT query for the execution
+   *
+   * @param sparql
+   * @return
+   */
+  public static PreparedQuery prepare(String sparql) {
+    final QuerySolutionMap bindings = new QuerySolutionMap();
+    String shape = toShape(sparql, bindings);
+    long limit = Query.NOLIMIT;
+    long offset = Query.NOLIMIT;
+    for (Matcher m = PAGE.matcher(shape); m.find(); m = PAGE.matcher(shape)) {
+      if ("LIMIT".equalsIgnoreCase(m.group(1))) {
+        limit = Long.parseLong(m.group(2));
+      } else {
+        offset = Long.parseLong(m.group(2));
+      }
+      shape = shape.substring(0, m.start());
+    }
+    Query query;
+    synchronized (SHAPES) {
+      query = SHAPES.get(shape);
+    }
+    if (query == null) {
+      query = parseShape(shape);
+      synchronized (SHAPES) {
+        SHAPES.put(shape, query);
+      }
+    }
+    if (query == NOT_PARAMETERIZABLE) {
+      return new PreparedQuery(shape, parse(sparql), new QuerySolutionMap());
+    }
+    if (limit != Query.NOLIMIT || offset != Query.NOLIMIT) {
+      query = page(query, limit, offset);
+    }
+    return new PreparedQuery(shape, query, bindings);
+  }
+
+  /**
+   * A copy of the shared query with the LIMIT and OFFSET of one page. The copy is made from the
+   * syntax tree, without parsing again
+   *
+   * @param shared
+   * @param limit
+   * @param offset
+   * @return
+   */
+  private static Query page(Query shared, long limit, long offset) {
+    final Query query = QueryTransformOps.transform(shared, Collections.<Var, Node>emptyMap());
+    query.setLimit(limit);
+    query.setOffset(offset);
+    query.setResultVars();
+    return query;
+  }
+
+  /**
+   * The statistics of all query shapes, the most time consuming first
+   *
+   * @return
+   */
+  public static List<QueryStatistics> getStatistics() {
+    return STATISTICS.values().stream().sorted(Comparator.comparingLong(QueryStatistics::getTotalTime).reversed())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Reset all statistics
+   */
+  public static void resetStatistics() {
+    STATISTICS.clear();
+  }
+
+  private static QueryStatistics getStatistics(String shape) {
+    final QueryStatistics statistics = STATISTICS.get(shape);
+    if (statistics != null) {
+      return statistics;
+    }
+    return STATISTICS.computeIfAbsent(STATISTICS.size() < MAX_SHAPES ? shape : OTHER_SHAPES, QueryStatistics::new);
+  }
+
+  /**
+   * Replace the constants of the query by variables, and bind the variables to the constants
+   *
+   * @param sparql
+   * @param bindings
+   * @return
+   */
+  private static String toShape(String sparql, QuerySolutionMap bindings) {
+    final Matcher m = CONSTANTS.matcher(sparql);
+    final StringBuffer sb = new StringBuffer(sparql.length());
+    int i = 0;
+    while (m.find()) {
+      final Node node = m.group(1) != null ? null : toNode(m, sparql);
+      if (node != null) {
+        final String variable = PARAMETER + i++;
+        bindings.add(variable, NODES.asRDFNode(node));
+        m.appendReplacement(sb, "?" + variable);
+      }
+    }
+    m.appendTail(sb);
+    return sb.toString();
+  }
+
+  /**
+   * The node of a constant, or null if the constant must stay in the query
+   *
+   * @param m
+   * @param sparql
+   * @return
+   */
+  private static Node toNode(Matcher m, String sparql) {
+    if (m.group(5) != null) {
+      // relative iris are resolved by the parser
+      return m.group(5).contains(":") ? NodeFactory.createURI(m.group(5)) : null;
+    }
+    final String suffix = m.group(3);
+    if (suffix == null && sparql.startsWith("^^", m.end())) {
+      // datatype with a prefix (e.g. xsd:dateTime): can't be resolved here
+      return null;
+    }
+    final String lexicalForm = unescape(m.group(2).substring(1, m.group(2).length() - 1));
+    if (suffix == null) {
+      return NodeFactory.createLiteral(lexicalForm);
+    } else if (suffix.startsWith("@")) {
+      return NodeFactory.createLiteral(lexicalForm, suffix.substring(1));
+    }
+    return NodeFactory.createLiteral(lexicalForm, TypeMapper.getInstance().getSafeTypeByName(m.group(4)));
+  }
+
+  private static String unescape(String s) {
+    final StringBuilder sb = new StringBuilder(s.length());
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if (c == '\\' && i + 1 < s.length()) {
+        final char next = s.charAt(++i);
+        switch (next) {
+          case 'n':
+            sb.append('\n');
+            break;
+          case 't':
+            sb.append('\t');
+            break;
+          case 'r':
+            sb.append('\r');
+            break;
+          case 'b':
+            sb.append('\b');
+            break;
+          case 'f':
+            sb.append('\f');
+            break;
+          default:
+            sb.append(next);
+        }
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static Query parseShape(String shape) {
+    try {
+      final Query query = parse(shape);
+      return query.isSelectType() ? query : NOT_PARAMETERIZABLE;
+    } catch (final QueryParseException e) {
+      LOGGER.debug("Query shape can't be parsed, the queries will be parsed as they are: " + shape, e);
+      return NOT_PARAMETERIZABLE;
+    }
+  }
+
+  private static Query parse(String sparql) {
+    final Query query = QueryFactory.create(sparql, Syntax.syntaxARQ);
+    // Set once, so that the shared query isn't changed by its executions
+    query.setResultVars();
+    return query;
+  }
+}
@@ -45,6 +45,9 @@ public class CRUDTransaction extends SecureTransaction {
   @Override
   protected void execute(Dataset ds) throws ImejiException {
     final ResourceController rc = new ResourceController(getModel(ds), lazy);
+    if (type == OperationType.READ) {
+      rc.preload(objects);
+    }
     for (final Object o : objects) {
       checkObjectStatus(rc, o, this.type);
       invokeResourceController(rc, o);
@@ -55,6 +58,12 @@ public class CRUDTransaction extends SecureTransaction {
     return this.results;
   }
 
+  @Override
+  protected void reset() {
+    super.reset();
+    this.results = new ArrayList<Object>();
+  }
+
 
 
   /**
@@ -89,6 +89,12 @@ public class ElementsTransaction extends SecureTransaction {
     }
   }
 
+  @Override
+  protected void reset() {
+    super.reset();
+    this.resultMap.clear();
+  }
+
   @Override
   protected ReadWrite getLockType() {
     return ReadWrite.WRITE;
@@ -0,0 +1,259 @@
+package de.mpg.imeji.j2j.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.jena.Jena;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.mpg.imeji.exceptions.ImejiException;
+
+/**
+ * Single writer for all WRITE {@link Transaction} of imeji. <br/>
+ * - The writer keeps one long-lived {@link Dataset} and runs all write {@link Transaction} in one
+ * dedicated {@link Thread} (necessary to follow the {@link Jena} per {@link Thread} Readers–writer
+ * lock) <br/>
+ * - Write {@link Transaction} are queued. All transactions waiting in the queue (at most
+ * maxBatchSize) are executed within one TDB write transaction and committed together (group
+ * commit). <br/>
+ * - If one {@link Transaction} of a group fails, the group is aborted and the other
+ * {@link Transaction} are executed again one by one, so that every caller gets its own result or
+ * exception
+ */
+public class GroupCommitWriter {
+  private static final Logger LOGGER = LogManager.getLogger(GroupCommitWriter.class);
+  public static final int DEFAULT_MAX_BATCH_SIZE = 20;
+  public static final long DEFAULT_MAX_LATENCY = 0;
+  private final Dataset dataset;
+  private final int maxBatchSize;
+  private final long maxLatency;
+  private final BlockingQueue<QueuedTransaction> queue = new LinkedBlockingQueue<>();
+  private final Thread writerThread;
+  // guards running and the queue: no transaction can be queued once the writer is stopped
+  private final Object lock = new Object();
+  private volatile boolean running = true;
+  private final AtomicLong commits = new AtomicLong();
+  private final AtomicLong transactions = new AtomicLong();
+
+  /**
+   * Create and start a new {@link GroupCommitWriter}
+   *
+   * @param dataset the {@link Dataset} used for all write transactions
+   * @param maxBatchSize the maximum number of {@link Transaction} committed together
+   * @param maxLatency the maximum time (in ms) to wait for other {@link Transaction} before
+   *        committing a group. With 0, only the {@link Transaction} queued while the previous group
+   *        was written are grouped
+   */
+  public GroupCommitWriter(Dataset dataset, int maxBatchSize, long maxLatency) {
+    this.dataset = dataset;
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.maxLatency = Math.max(0, maxLatency);
+    this.writerThread = new Thread(this::processQueue, "imeji-tdb-writer");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  /**
+   * Queue a WRITE {@link Transaction} and wait until it has been committed. If the
+   * {@link Transaction} caught an Exception, throw this exception
+   *
+   * @param transaction
+   * @throws ImejiException
+   */
+  public void write(Transaction transaction) throws ImejiException {
+    final QueuedTransaction queued = new QueuedTransaction(transaction);
+    synchronized (lock) {
+      if (!running) {
+        throw new ImejiException("Jena writer has been stopped");
+      }
+      queue.add(queued);
+    }
+    try {
+      queued.await();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ImejiException("Interrupted while waiting for Jena write transaction", e);
+    }
+    transaction.rethrowException();
+  }
+
+  /**
+   * Stop the writer: the {@link Transaction} already queued are still written
+   */
+  public void shutdown() {
+    synchronized (lock) {
+      running = false;
+    }
+    try {
+      writerThread.join(TimeUnit.MINUTES.toMillis(1));
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    LOGGER.info("Jena writer stopped after " + transactions.get() + " transactions in " + commits.get() + " commits");
+  }
+
+  /**
+   * Number of TDB commits made by this writer
+   *
+   * @return
+   */
+  public long getCommits() {
+    return commits.get();
+  }
+
+  /**
+   * Number of {@link Transaction} written by this writer
+   *
+   * @return
+   */
+  public long getTransactions() {
+    return transactions.get();
+  }
+
+  /**
+   * Loop of the writer thread
+   */
+  private void processQueue() {
+    while (running || !queue.isEmpty()) {
+      try {
+        final QueuedTransaction first = queue.poll(1, TimeUnit.SECONDS);
+        if (first != null) {
+          commit(nextBatch(first));
+        }
+      } catch (final InterruptedException e) {
+        LOGGER.warn("Jena writer interrupted");
+      } catch (final Exception e) {
+        LOGGER.error("Unexpected error in Jena writer", e);
+      }
+    }
+    failRemaining();
+  }
+
+  /**
+   * Release the callers of the {@link Transaction} still in the queue when the writer thread stops,
+   * with an exception
+   */
+  private void failRemaining() {
+    QueuedTransaction queued;
+    while ((queued = queue.poll()) != null) {
+      queued.transaction.fail(new ImejiException("Jena writer has been stopped"));
+      queued.done();
+    }
+  }
+
+  /**
+   * Build the next group of {@link Transaction}, starting with first
+   *
+   * @param first
+   * @return
+   * @throws InterruptedException
+   */
+  private List<QueuedTransaction> nextBatch(QueuedTransaction first) throws InterruptedException {
+    final List<QueuedTransaction> batch = new ArrayList<>(maxBatchSize);
+    batch.add(first);
+    queue.drainTo(batch, maxBatchSize - 1);
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxLatency);
+    while (batch.size() < maxBatchSize) {
+      final long remaining = deadline - System.nanoTime();
+      final QueuedTransaction next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+      if (next == null) {
+        break;
+      }
+      batch.add(next);
+    }
+    return batch;
+  }
+
+  /**
+   * Write a group of {@link Transaction} and release their callers
+   *
+   * @param batch
+   */
+  private void commit(List<QueuedTransaction> batch) {
+    try {
+      if (batch.size() == 1) {
+        batch.get(0).transaction.start(dataset);
+        commits.incrementAndGet();
+      } else {
+        writeGroup(batch);
+      }
+      transactions.addAndGet(batch.size());
+    } finally {
+      for (final QueuedTransaction queued : batch) {
+        queued.done();
+      }
+    }
+  }
+
+  /**
+   * Execute all {@link Transaction} of the group in one TDB write transaction. If one of them fails,
+   * abort and write the others one by one
+   *
+   * @param batch
+   */
+  private void writeGroup(List<QueuedTransaction> batch) {
+    int failed = -1;
+    boolean committed = false;
+    try {
+      dataset.begin(ReadWrite.WRITE);
+      for (int i = 0; i < batch.size() && failed < 0; i++) {
+        if (!batch.get(i).transaction.executeInGroup(dataset)) {
+          failed = i;
+        }
+      }
+      if (failed < 0) {
+        dataset.commit();
+        committed = true;
+        commits.incrementAndGet();
+      } else {
+        dataset.abort();
+      }
+    } catch (final Exception e) {
+      LOGGER.error("Error committing a group of " + batch.size() + " Jena transactions", e);
+      if (dataset.isInTransaction()) {
+        dataset.abort();
+      }
+    } finally {
+      dataset.end();
+    }
+    if (!committed) {
+      LOGGER.debug("Group of " + batch.size() + " Jena transactions aborted, writing them one by one");
+      for (int i = 0; i < batch.size(); i++) {
+        if (i != failed) {
+          final Transaction transaction = batch.get(i).transaction;
+          transaction.reset();
+          transaction.start(dataset);
+          commits.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  /**
+   * A {@link Transaction} waiting in the queue
+   */
+  private static class QueuedTransaction {
+    private final Transaction transaction;
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    private QueuedTransaction(Transaction transaction) {
+      this.transaction = transaction;
+    }
+
+    private void await() throws InterruptedException {
+      latch.await();
+    }
+
+    private void done() {
+      latch.countDown();
+    }
+  }
+}
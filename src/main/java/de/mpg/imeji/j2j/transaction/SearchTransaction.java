@@ -3,22 +3,22 @@ package de.mpg.imeji.j2j.transaction;
 import java.util.List;
 
 import org.apache.jena.query.Dataset;
-import org.apache.jena.query.Query;
 import org.apache.jena.query.QueryExecution;
 import org.apache.jena.query.QueryExecutionFactory;
-import org.apache.jena.query.QueryFactory;
 import org.apache.jena.query.QuerySolution;
 import org.apache.jena.query.ReadWrite;
 import org.apache.jena.query.ResultSet;
-import org.apache.jena.query.Syntax;
 import org.apache.jena.rdf.model.Literal;
 import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.tdb.TDB;
 
 import de.mpg.imeji.exceptions.ImejiException;
+import de.mpg.imeji.j2j.queries.PreparedQueries;
+import de.mpg.imeji.j2j.queries.PreparedQueries.PreparedQuery;
 
 /**
- * {@link Transaction} for search operation
+ * {@link Transaction} for search operation. The query is prepared by {@link PreparedQueries}, which
+ * caches the parsed query and records the execution time
  *
  * @author saquet (initial creation)
  * @author $Author$ (last modification)
@@ -49,7 +49,8 @@ public class SearchTransaction extends Transaction {
 
   @Override
   protected void execute(Dataset ds) throws ImejiException {
-    final Query q = QueryFactory.create(searchQuery, Syntax.syntaxARQ);
+    final long start = System.nanoTime();
+    final PreparedQuery q = PreparedQueries.prepare(searchQuery);
     final QueryExecution qexec = initQueryExecution(ds, q);
     qexec.getContext().set(TDB.symUnionDefaultGraph, true);
     qexec.setTimeout(-1);
@@ -60,6 +61,7 @@ public class SearchTransaction extends Transaction {
     } finally {
       qexec.close();
       count = false;
+      q.record(System.nanoTime() - start);
     }
   }
 
@@ -70,11 +72,11 @@ public class SearchTransaction extends Transaction {
    * @param q
    * @return
    */
-  private QueryExecution initQueryExecution(Dataset ds, Query q) {
+  private QueryExecution initQueryExecution(Dataset ds, PreparedQuery q) {
     if (modelName != null) {
-      return QueryExecutionFactory.create(q, ds.getNamedModel(modelName));
+      return QueryExecutionFactory.create(q.getQuery(), ds.getNamedModel(modelName), q.getBindings());
     }
-    return QueryExecutionFactory.create(q, ds);
+    return QueryExecutionFactory.create(q.getQuery(), ds, q.getBindings());
   }
 
   /**
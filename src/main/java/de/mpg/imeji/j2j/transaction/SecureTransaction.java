@@ -8,6 +8,7 @@ import java.util.List;
 
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
 import org.apache.jena.rdf.model.Model;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -29,6 +30,7 @@ import de.mpg.imeji.logic.model.User;
 import de.mpg.imeji.logic.model.UserGroup;
 import de.mpg.imeji.logic.model.aspects.CloneURI;
 import de.mpg.imeji.logic.search.jenasearch.JenaCustomQueries;
+import de.mpg.imeji.logic.security.authentication.PrincipalCache;
 import de.mpg.imeji.logic.security.authorization.Authorization;
 import de.mpg.imeji.logic.workflow.WorkflowValidator;
 
@@ -71,32 +73,15 @@ public abstract class SecureTransaction extends Transaction {
   }
 
   /**
-   * Do the {@link Transaction} over a {@link Dataset}.
+   * Check the security before and after the operations of the {@link Transaction}
    *
    * @param dataset
    */
   @Override
-  public void start(Dataset dataset) {
-    try {
-      dataset.begin(getLockType());
-      executeSecure(dataset);
-      dataset.commit();
-    } catch (final ImejiException exception) {
-      dataset.abort();
-      LOGGER.debug("Imeji Exception thrown during Jena access " + exception.getMessage());
-      exceptionWasThrown = true;
-      transactionException = exception;
-    } catch (final Exception e) {
-      dataset.abort();
-      LOGGER.debug("Other Exception thrown during Jena access " + e.getMessage());
-      exceptionWasThrown = true;
-      transactionException = new ImejiException(e.getMessage(), e);
-    } finally {
-      dataset.end();
-    }
+  protected void executeTransaction(Dataset dataset) throws ImejiException {
+    executeSecure(dataset);
   }
 
-
   /**
    * 
    * @param dataset
@@ -111,18 +96,16 @@ public abstract class SecureTransaction extends Transaction {
     // that involve no actual users. This user object does not exist in database.
     if (this.issuingUser != null && this.issuingUser != Imeji.adminUser) {
       // (1) check access rights:
-      // (1a) load user object from database (if not Imeji.adminUser)    	
-      String userModelURI = ImejiInitializer.getModelName(User.class);
-      Model userModel = dataset.getNamedModel(userModelURI);
-      final ResourceController userResourceController = new ResourceController(userModel, false);
-
-      Object emptyUserObject = this.issuingUser.cloneURI();
-      Object userInDatabase = userResourceController.read(emptyUserObject);
-      if (userInDatabase == null) {
-        throw new AuthenticationError(AuthenticationError.USER_MUST_BE_LOGGED_IN);
+      // (1a) load user object from the principal cache or from database (if not Imeji.adminUser).
+      // Write transactions always read the user from the database, and don't cache it: their
+      // dataset can contain uncommitted writes of the other transactions of their group commit
+      final boolean readOnly = getLockType() == ReadWrite.READ;
+      final User cachedUser = readOnly ? PrincipalCache.getUser(this.issuingUser.getId()) : null;
+      if (cachedUser != null) {
+        this.issuingUser = cachedUser;
+      } else {
+        loadUser(dataset, readOnly);
       }
-      this.issuingUser = (User) userInDatabase;
-      loadUsersUserGroups(userResourceController, dataset, userModelURI);
     }
 
     // (1b) check access rights of user
@@ -134,6 +117,31 @@ public abstract class SecureTransaction extends Transaction {
 
   }
 
+  /**
+   * Load the issuing user and its user groups from the database
+   *
+   * @param dataset
+   * @param cache if true, cache the user
+   * @throws ImejiException
+   */
+  private void loadUser(Dataset dataset, boolean cache) throws ImejiException {
+    final long generation = PrincipalCache.getGeneration();
+    String userModelURI = ImejiInitializer.getModelName(User.class);
+    Model userModel = dataset.getNamedModel(userModelURI);
+    final ResourceController userResourceController = new ResourceController(userModel, false);
+
+    Object emptyUserObject = this.issuingUser.cloneURI();
+    Object userInDatabase = userResourceController.read(emptyUserObject);
+    if (userInDatabase == null) {
+      throw new AuthenticationError(AuthenticationError.USER_MUST_BE_LOGGED_IN);
+    }
+    this.issuingUser = (User) userInDatabase;
+    loadUsersUserGroups(userResourceController, dataset, userModelURI);
+    if (cache) {
+      PrincipalCache.put(this.issuingUser, generation);
+    }
+  }
+
   /**
    * For data objects that have a status (i.e. Item or CollectionImeji) check whether the status
    * allows proceeding with a create, update or delete operation.
@@ -46,7 +46,7 @@ public abstract class Transaction {
   public void start(Dataset dataset) {
     try {
       dataset.begin(getLockType());
-      execute(dataset);
+      executeTransaction(dataset);
       dataset.commit();
     } catch (final ImejiException exception) {
       dataset.abort();
@@ -63,6 +63,61 @@ public abstract class Transaction {
     }
   }
 
+  /**
+   * Execute the {@link Transaction} within a write transaction already started by the
+   * {@link GroupCommitWriter} for a group of {@link Transaction}. The Exception are caught like in
+   * {@link #start(Dataset)}, but the transaction is neither committed nor aborted
+   *
+   * @param dataset
+   * @return true if no Exception has been thrown
+   */
+  boolean executeInGroup(Dataset dataset) {
+    try {
+      executeTransaction(dataset);
+      return true;
+    } catch (final ImejiException exception) {
+      LOGGER.debug("Imeji Exception thrown during Jena access " + exception.getMessage());
+      exceptionWasThrown = true;
+      transactionException = exception;
+    } catch (final Exception e) {
+      LOGGER.debug("Other Exception thrown during Jena access " + e.getMessage());
+      exceptionWasThrown = true;
+      transactionException = new ImejiException(e.getMessage(), e);
+    }
+    return false;
+  }
+
+  /**
+   * Reset the state of the {@link Transaction}, so that it can be started again after its group has
+   * been aborted by the {@link GroupCommitWriter}
+   */
+  protected void reset() {
+    exceptionWasThrown = false;
+    transactionException = null;
+  }
+
+  /**
+   * Mark the {@link Transaction} as failed without executing it (e.g. when the
+   * {@link GroupCommitWriter} has been stopped)
+   *
+   * @param exception
+   */
+  void fail(ImejiException exception) {
+    exceptionWasThrown = true;
+    transactionException = exception;
+  }
+
+  /**
+   * Execute all operations of the {@link Transaction}. Per default, only
+   * {@link #execute(Dataset)}
+   *
+   * @param ds
+   * @throws ImejiException
+   */
+  protected void executeTransaction(Dataset ds) throws ImejiException {
+    execute(ds);
+  }
+
   /**
    * Execute the operation of the {@link Transaction} Is called after the {@link Transaction} has
    * been started
@@ -1,27 +1,47 @@
 package de.mpg.imeji.logic.batch;
 
+import java.io.Serializable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.concurrent.Callable;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
 import de.mpg.imeji.exceptions.ImejiException;
-import de.mpg.imeji.logic.config.util.PropertyReader;
+import de.mpg.imeji.logic.batch.JobProgress.Job;
+import de.mpg.imeji.logic.config.Imeji;
 import de.mpg.imeji.logic.core.collection.CollectionService;
 import de.mpg.imeji.logic.core.content.ContentService;
 import de.mpg.imeji.logic.core.item.ItemService;
-import de.mpg.imeji.logic.model.CollectionImeji;
-import de.mpg.imeji.logic.model.Item;
+import de.mpg.imeji.logic.db.keyValue.KeyValueStoreService;
+import de.mpg.imeji.logic.db.keyValue.stores.HTreeMapStore;
+import de.mpg.imeji.logic.db.writer.WriterFacade;
+import de.mpg.imeji.logic.generic.SearchServiceAbstract;
+import de.mpg.imeji.logic.search.Search.SearchObjectTypes;
 import de.mpg.imeji.logic.search.elasticsearch.ElasticIndexer;
 import de.mpg.imeji.logic.search.elasticsearch.ElasticInitializer;
-import de.mpg.imeji.logic.search.elasticsearch.ElasticService;
-import de.mpg.imeji.logic.search.elasticsearch.ElasticService.ElasticAnalysers;
 import de.mpg.imeji.logic.search.elasticsearch.ElasticService.ElasticIndices;
+import de.mpg.imeji.logic.search.factory.SearchFactory;
+import de.mpg.imeji.logic.search.factory.SearchFactory.SEARCH_IMPLEMENTATIONS;
+import de.mpg.imeji.logic.search.jenasearch.ImejiSPARQL;
+import de.mpg.imeji.logic.search.jenasearch.JenaCustomQueries;
 import de.mpg.imeji.logic.security.user.UserService;
 import de.mpg.imeji.logic.security.usergroup.UserGroupService;
+import de.mpg.imeji.util.DateHelper;
 
 /**
- * REindex data from the database into elastic search
+ * REindex data from the database into elastic search: <br/>
+ * - All data is indexed into new indexes, while the current indexes are still used <br/>
+ * - Folders, items and contents are indexed by a {@link ReindexPipeline} <br/>
+ * - After each page, the progress is stored in a checkpoint: an interrupted reindex is resumed from
+ * there (at the next start of imeji or when the reindex is started again) <br/>
+ * - At the end, the aliases are switched to the new indexes, the objects modified in the meantime
+ * are indexed again, and the objects deleted in the meantime are deleted from the new indexes
  *
  * @author bastiens
  *
@@ -29,122 +49,274 @@ import de.mpg.imeji.logic.security.usergroup.UserGroupService;
 public class ElasticReIndexJob implements Callable<Integer> {
 
   private static final Logger LOGGER = LogManager.getLogger(ElasticReIndexJob.class);
+  private static final String CHECKPOINT_KEY = "reindex";
+  // The objects deleted while a reindex is in progress
+  private static final KeyValueStoreService DELETED_STORE = new KeyValueStoreService(new HTreeMapStore("reindexDeletedStore"));
+  private static volatile Boolean inProgress = null;
+  private static final int WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+  private static final int PAGE_SIZE = 500;
+  private static final int CONTENT_PAGE_SIZE = 50;
+  // Objects written shortly before the start might be committed after their page has been read
+  private static final long CATCH_UP_MARGIN = 60 * 1000;
 
-  @Override
-  public Integer call() {
-    try {
-      LOGGER.info("Reindex started!");
-      // ElasticService.ANALYSER =
-      // ElasticAnalysers.valueOf(PropertyReader.getProperty("elastic.analyser"));
-      // Check if the alias is used by only 1 index. If not, reset completely the
-      // indexes
-      // ElasticInitializer.getIndexNameFromAliasName(ElasticService.DATA_ALIAS);
-      // final String index = ElasticInitializer.createIndex();
-      // addAllMappings(index);
-      for (final ElasticIndices index : ElasticIndices.values()) {
-        ElasticInitializer.initializeIndex(index);
-        new ElasticIndexer(index.name()).addMapping();
-      }
+  /**
+   * The steps of the reindex, in their order
+   */
+  private enum Step {
+    FOLDERS, ITEMS, CONTENTS, USERS, USERGROUPS;
+  }
 
-      try {
-        reindexUsers(ElasticIndices.users.name());
-      } catch (Exception e) {
-        LOGGER.error("Error while reindexing users", e);
-      }
+  /**
+   * The state of a reindex: the new indexes, and the position of the reindex
+   */
+  private static class Checkpoint implements Serializable {
+    private static final long serialVersionUID = -5166452096379513215L;
+    private final Map<String, String> indexes = new HashMap<>();
+    private final long start = System.currentTimeMillis();
+    private Step step = Step.FOLDERS;
+    // null at the start of a step
+    private UriPager.Position position = null;
+  }
 
-      try {
-        reindexUserGroups(ElasticIndices.usergroups.name());
-      } catch (Exception e) {
-        LOGGER.error("Error while reindexing usergroups", e);
-      }
+  /**
+   * True if a reindex has been interrupted and should be resumed
+   *
+   * @return
+   */
+  public static boolean hasCheckpoint() {
+    return readCheckpoint() != null;
+  }
 
-      try {
-        reindexItems(ElasticIndices.items.name());
-      } catch (Exception e) {
-        LOGGER.error("Error while reindexing items", e);
+  /**
+   * If a reindex is in progress, remember the deleted objects: they might have been read before
+   * their deletion and written in the new indexes, while the deletion has been sent to the old ones
+   *
+   * @param objects
+   */
+  public static void recordDeleted(List<Object> objects) {
+    if (inProgress == null) {
+      inProgress = hasCheckpoint();
+    }
+    if (!inProgress) {
+      return;
+    }
+    final Map<String, Object> deleted = new HashMap<>();
+    for (final Object o : objects) {
+      final URI id = WriterFacade.extractID(o);
+      final SearchObjectTypes type = SearchObjectTypes.getFromDataType(o.getClass());
+      if (id != null && type != null && type != SearchObjectTypes.STATEMENT) {
+        deleted.put(id.toString(), o);
       }
+    }
+    try {
+      DELETED_STORE.putAll(deleted);
+    } catch (final ImejiException e) {
+      LOGGER.error("Error recording objects deleted during the reindex", e);
+    }
+  }
 
-      try {
-        reindexContents(ElasticIndices.items.name());
-      } catch (Exception e) {
-        LOGGER.error("Error while reindexing contents", e);
+  @Override
+  public Integer call() {
+    final JobProgress progress = JobProgress.get(Job.REINDEX);
+    if (!progress.tryStart()) {
+      LOGGER.warn("Reindex already running");
+      return 0;
+    }
+    try {
+      LOGGER.info("Reindex started!");
+      final Checkpoint checkpoint = initCheckpoint();
+      startProgress(checkpoint, progress);
+      for (final Step step : Step.values()) {
+        if (step.compareTo(checkpoint.step) >= 0) {
+          progress.setPhase(step.name().toLowerCase());
+          reindex(step, checkpoint);
+          checkpoint.step = step.ordinal() + 1 < Step.values().length ? Step.values()[step.ordinal() + 1] : step;
+          checkpoint.position = null;
+          writeCheckpoint(checkpoint);
+        }
       }
-
-      try {
-        reindexFolders(ElasticIndices.folders.name());
-      } catch (Exception e) {
-        LOGGER.error("Error while reindexing folders", e);
+      progress.setPhase("switching aliases");
+      for (final ElasticIndices index : getReindexedIndices()) {
+        ElasticInitializer.switchAlias(index, checkpoint.indexes.get(index.name()));
       }
-      // ElasticInitializer.setNewIndexAndRemoveOldIndex(index);
+      progress.setPhase("catching up");
+      catchUp(checkpoint.start - CATCH_UP_MARGIN);
+      removeDeleted();
+      JobCheckpoint.delete(CHECKPOINT_KEY);
+      inProgress = false;
+      progress.setPhase("done");
       LOGGER.info("Reindex done!");
-
     } catch (final Exception e) {
-      LOGGER.error("Error while initializing indexes, stopping reindex", e);
+      progress.setPhase("failed");
+      LOGGER.error("Error while reindexing, the reindex will be resumed at the next start", e);
+    } finally {
+      progress.stop();
     }
-
     return null;
   }
 
   /**
-   * Add the Mapping first, to avoid conflicts in mappings
+   * Reindex one step into the new indexes
    *
-   * @param index
-   */
-  /*
-   * private void addAllMappings(String index) { for (final ElasticIndices type :
-   * ElasticIndices.values()) { new ElasticIndexer(index, type,
-   * ElasticService.ANALYSER).addMapping(); } }
+   * @param step
+   * @param checkpoint
+   * @throws Exception
    */
+  private void reindex(Step step, Checkpoint checkpoint) throws Exception {
+    LOGGER.info("Reindexing " + step.name().toLowerCase()
+        + (checkpoint.position != null ? " after " + checkpoint.position.getAfter() : " from the start"));
+    switch (step) {
+      case USERS:
+        new UserService().reindex(checkpoint.indexes.get(ElasticIndices.users.name()));
+        break;
+      case USERGROUPS:
+        new UserGroupService().reindex(checkpoint.indexes.get(ElasticIndices.usergroups.name()));
+        break;
+      default:
+        getPipeline(step, checkpoint).run(checkpoint.position, position -> {
+          checkpoint.position = position;
+          writeCheckpoint(checkpoint);
+        });
+    }
+  }
 
   /**
-   * Reindex all the {@link CollectionImeji} stored in the database
+   * The {@link ReindexPipeline} of the step
    *
-   * @throws ImejiException
+   * @param step
+   * @param checkpoint
+   * @return
    */
-  private void reindexFolders(String index) throws Exception {
-    final CollectionService c = new CollectionService();
-    c.reindex(index);
+  private ReindexPipeline getPipeline(Step step, Checkpoint checkpoint) {
+    final String folders = checkpoint.indexes.get(ElasticIndices.folders.name());
+    final String items = checkpoint.indexes.get(ElasticIndices.items.name());
+    switch (step) {
+      case FOLDERS:
+        return new ReindexPipeline(JenaCustomQueries.selectCollectionAll(), Imeji.collectionModel, new CollectionService(),
+            new ElasticIndexer(folders, ElasticIndices.folders), PAGE_SIZE, WORKERS);
+      case ITEMS:
+        return new ReindexPipeline(JenaCustomQueries.selectItemAll(), Imeji.imageModel, new ItemService(),
+            new ElasticIndexer(items, ElasticIndices.items, folders), PAGE_SIZE, WORKERS);
+      case CONTENTS:
+        return new ReindexPipeline(JenaCustomQueries.selectContentAll(), Imeji.contentModel, new ContentService(),
+            new ElasticIndexer(items, ElasticIndices.items), CONTENT_PAGE_SIZE, WORKERS);
+      default:
+        return null;
+    }
   }
 
   /**
-   * Reindex all {@link Item} stored in the database
-   *
-   * @throws ImejiException
+   * Start the progress: count all objects of the pipelines, and the objects indexed before the
+   * checkpoint
    *
+   * @param checkpoint
+   * @param progress
    */
-  private void reindexItems(String index) throws Exception {
-    final ItemService controller = new ItemService();
-    controller.reindex(index);
+  private void startProgress(Checkpoint checkpoint, JobProgress progress) {
+    long total = 0;
+    long indexed = 0;
+    for (final Step step : new Step[] {Step.FOLDERS, Step.ITEMS, Step.CONTENTS}) {
+      final long count = getPipeline(step, checkpoint).count();
+      total += count;
+      if (step.compareTo(checkpoint.step) < 0) {
+        indexed += count;
+      } else if (step == checkpoint.step && checkpoint.position != null) {
+        indexed += checkpoint.position.getCount();
+      }
+    }
+    progress.start(checkpoint.step.name().toLowerCase(), total, indexed);
   }
 
   /**
-   * Reindex all ContentVO stored in the database
-   *
-   * @throws ImejiException
+   * Index again the folders, items and contents modified since the start of the reindex, since they
+   * might have been written in the old indexes
    *
+   * @param since
+   * @throws Exception
    */
-  private void reindexContents(String index) throws Exception {
-    new ContentService().reindex(index);
+  private void catchUp(long since) throws Exception {
+    final List<String> collections =
+        ImejiSPARQL.exec(JenaCustomQueries.selectModifiedSince("collection", DateHelper.getDate(since)), Imeji.collectionModel);
+    indexByPage(new CollectionService(), collections, new ElasticIndexer(ElasticIndices.folders.name()));
+    final List<String> items = ImejiSPARQL.exec(JenaCustomQueries.selectModifiedSince("item", DateHelper.getDate(since)), Imeji.imageModel);
+    indexByPage(new ItemService(), items, new ElasticIndexer(ElasticIndices.items.name()));
+    final ContentService contentService = new ContentService();
+    final List<String> contents = new ArrayList<>(contentService.findContentIds(items).values());
+    indexByPage(contentService, contents, new ElasticIndexer(ElasticIndices.items.name()));
+    LOGGER.info("Caught up " + collections.size() + " collections and " + items.size() + " items modified during the reindex");
   }
 
   /**
-   * Reindex all users
+   * Delete from the new indexes the objects deleted during the reindex. The aliases point to the new
+   * indexes, and the pipelines are done: a deleted object can't be indexed again
    *
-   * @param index
-   * @throws ImejiException
+   * @throws Exception
    */
-  private void reindexUsers(String index) throws Exception {
-    new UserService().reindex(index);
+  private void removeDeleted() throws Exception {
+    final List<Object> deleted = DELETED_STORE.getList(".*", Object.class);
+    final Map<Class<?>, List<Object>> byType = deleted.stream().collect(Collectors.groupingBy(Object::getClass));
+    for (final Map.Entry<Class<?>, List<Object>> entry : byType.entrySet()) {
+      SearchFactory.create(SearchObjectTypes.getFromDataType(entry.getKey()), SEARCH_IMPLEMENTATIONS.ELASTIC).getIndexer()
+          .deleteBatch(entry.getValue());
+    }
+    DELETED_STORE.deleteAll(deleted.stream().map(o -> WriterFacade.extractID(o).toString()).collect(Collectors.toList()));
+    LOGGER.info("Removed " + deleted.size() + " objects deleted during the reindex");
+  }
+
+  private void indexByPage(SearchServiceAbstract<?> service, List<String> uris, ElasticIndexer indexer) throws Exception {
+    for (int i = 0; i < uris.size(); i += PAGE_SIZE) {
+      indexer.indexBatch(service.retrieveExisting(uris.subList(i, Math.min(uris.size(), i + PAGE_SIZE)), Imeji.adminUser));
+    }
   }
 
   /**
-   * Reindex all usergroups
+   * Return the checkpoint of the interrupted reindex, if its indexes still exist. Otherwise, create
+   * the new indexes and a new checkpoint
    *
-   * @param index
+   * @return
    * @throws ImejiException
    */
-  private void reindexUserGroups(String index) throws Exception {
-    new UserGroupService().reindex(index);
+  private Checkpoint initCheckpoint() throws ImejiException {
+    final Checkpoint checkpoint = readCheckpoint();
+    if (checkpoint != null) {
+      if (checkpoint.indexes.values().stream().allMatch(ElasticInitializer::exists)) {
+        LOGGER.info("Resuming reindex at step " + checkpoint.step);
+        inProgress = true;
+        return checkpoint;
+      }
+      checkpoint.indexes.values().stream().filter(ElasticInitializer::exists).forEach(ElasticInitializer::deleteIndex);
+    }
+    // The indexes which are not reindexed must exist
+    for (final ElasticIndices index : ElasticIndices.values()) {
+      ElasticInitializer.initializeIndex(index);
+    }
+    final Checkpoint newCheckpoint = new Checkpoint();
+    inProgress = true;
+    for (final ElasticIndices index : getReindexedIndices()) {
+      final String indexName = ElasticInitializer.createReindexIndex(index);
+      if (indexName == null) {
+        throw new ImejiException("Could not create a new index for " + index.name());
+      }
+      newCheckpoint.indexes.put(index.name(), indexName);
+    }
+    writeCheckpoint(newCheckpoint);
+    return newCheckpoint;
   }
 
+  private static Checkpoint readCheckpoint() {
+    return JobCheckpoint.read(CHECKPOINT_KEY);
+  }
+
+  private static void writeCheckpoint(Checkpoint checkpoint) {
+    JobCheckpoint.write(CHECKPOINT_KEY, checkpoint);
+  }
+
+  /**
+   * The indexes filled by the reindex. The visibility index is only a cache of the security queries
+   *
+   * @return
+   */
+  private static ElasticIndices[] getReindexedIndices() {
+    return new ElasticIndices[] {ElasticIndices.folders, ElasticIndices.items, ElasticIndices.users, ElasticIndices.usergroups};
+  }
 }
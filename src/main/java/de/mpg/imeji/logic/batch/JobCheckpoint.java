@@ -0,0 +1,70 @@
+package de.mpg.imeji.logic.batch;
+
+import java.io.Serializable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.mpg.imeji.exceptions.ImejiException;
+import de.mpg.imeji.exceptions.NotFoundException;
+import de.mpg.imeji.logic.db.keyValue.KeyValueStoreService;
+import de.mpg.imeji.logic.db.keyValue.stores.HTreeMapStore;
+
+/**
+ * The checkpoints of the batch jobs: the position of an interrupted job, from which it is resumed
+ * at its next run. The checkpoint of each job is stored under its own key
+ */
+public final class JobCheckpoint {
+  private static final Logger LOGGER = LogManager.getLogger(JobCheckpoint.class);
+  private static final KeyValueStoreService STORE = new KeyValueStoreService(new HTreeMapStore("jobCheckpointStore"));
+
+  /**
+   * private constructor
+   */
+  private JobCheckpoint() {
+
+  }
+
+  /**
+   * Read the checkpoint of the job
+   *
+   * @param key the key of the job
+   * @return the checkpoint, or null if the job hasn't been interrupted
+   */
+  @SuppressWarnings("unchecked")
+  public static <T extends Serializable> T read(String key) {
+    try {
+      return (T) STORE.get(key);
+    } catch (final NotFoundException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Write the checkpoint of the job. An error is only logged: the job is then resumed from an older
+   * checkpoint
+   *
+   * @param key the key of the job
+   * @param checkpoint
+   */
+  public static void write(String key, Serializable checkpoint) {
+    try {
+      STORE.put(key, checkpoint);
+    } catch (final ImejiException e) {
+      LOGGER.error("Error writing checkpoint of " + key, e);
+    }
+  }
+
+  /**
+   * Delete the checkpoint of a finished job
+   *
+   * @param key the key of the job
+   */
+  public static void delete(String key) {
+    try {
+      STORE.delete(key);
+    } catch (final ImejiException e) {
+      LOGGER.error("Error deleting checkpoint of " + key, e);
+    }
+  }
+}
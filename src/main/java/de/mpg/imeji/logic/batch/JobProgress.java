@@ -0,0 +1,162 @@
+package de.mpg.imeji.logic.batch;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a long running batch job, displayed in the admin tools. There is one progress per
+ * {@link Job}, which also makes sure that the job doesn't run twice at the same time
+ */
+public class JobProgress {
+  private static final Map<Job, JobProgress> INSTANCES = new EnumMap<>(Job.class);
+  private final AtomicBoolean running = new AtomicBoolean(false);
+  private final AtomicLong done = new AtomicLong();
+  private final AtomicLong doneInRun = new AtomicLong();
+  private final AtomicLong skipped = new AtomicLong();
+  private volatile String phase = "";
+  private volatile long total = 0;
+  private volatile long startTime = 0;
+
+  /**
+   * The jobs with a progress
+   */
+  public enum Job {
+    /**
+     * {@link ElasticReIndexJob}
+     */
+    REINDEX,
+    /**
+     * {@link RegenerationPipeline}
+     */
+    IMAGES,
+    /**
+     * {@link RefreshFileSizeJob}
+     */
+    FILE_SIZES;
+  }
+
+  static {
+    for (final Job job : Job.values()) {
+      INSTANCES.put(job, new JobProgress());
+    }
+  }
+
+  /**
+   * private constructor
+   */
+  private JobProgress() {
+
+  }
+
+  /**
+   * The progress of the current (or last) run of the job
+   *
+   * @param job
+   * @return
+   */
+  public static JobProgress get(Job job) {
+    return INSTANCES.get(job);
+  }
+
+  /**
+   * Mark the job as running
+   *
+   * @return false if the job is already running
+   */
+  boolean tryStart() {
+    return running.compareAndSet(false, true);
+  }
+
+  /**
+   * Start counting a new run
+   *
+   * @param phase
+   * @param total the number of objects
+   * @param alreadyDone the number of objects processed before the job has been resumed
+   */
+  void start(String phase, long total, long alreadyDone) {
+    this.phase = phase;
+    this.total = total;
+    this.done.set(alreadyDone);
+    this.doneInRun.set(0);
+    this.skipped.set(0);
+    this.startTime = System.currentTimeMillis();
+  }
+
+  void setPhase(String phase) {
+    this.phase = phase;
+  }
+
+  void add(long count) {
+    done.addAndGet(count);
+    doneInRun.addAndGet(count);
+  }
+
+  void addSkipped(long count) {
+    skipped.addAndGet(count);
+  }
+
+  void stop() {
+    running.set(false);
+  }
+
+  public boolean isRunning() {
+    return running.get();
+  }
+
+  public String getPhase() {
+    return phase;
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  public long getDone() {
+    return done.get();
+  }
+
+  /**
+   * The number of objects processed since the job has been (re)started
+   *
+   * @return
+   */
+  public long getDoneInRun() {
+    return doneInRun.get();
+  }
+
+  /**
+   * The number of objects skipped in this run, because they were up to date
+   *
+   * @return
+   */
+  public long getSkipped() {
+    return skipped.get();
+  }
+
+  /**
+   * The number of objects processed per second since the job has been (re)started
+   *
+   * @return
+   */
+  public long getThroughput() {
+    final long seconds = (System.currentTimeMillis() - startTime) / 1000;
+    return seconds > 0 ? doneInRun.get() / seconds : doneInRun.get();
+  }
+
+  /**
+   * The estimated remaining time as h:mm:ss
+   *
+   * @return
+   */
+  public String getEta() {
+    final long throughput = getThroughput();
+    if (!isRunning() || throughput == 0) {
+      return "-";
+    }
+    final long seconds = Math.max(0, total - done.get()) / throughput;
+    return String.format("%d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+  }
+}
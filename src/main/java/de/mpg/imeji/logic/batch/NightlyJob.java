@@ -32,6 +32,7 @@ public class NightlyJob implements Runnable {
     Imeji.getEXECUTOR().submit(new CleanContentVOsJob());
     Imeji.getEXECUTOR().submit(new CleanPasswordResetsJob());
     Imeji.getEXECUTOR().submit(new AggregateMessages());
+    Imeji.getEXECUTOR().submit(new QuotaReconciliationJob());
 
   }
 
@@ -0,0 +1,161 @@
+package de.mpg.imeji.logic.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.mpg.imeji.exceptions.ImejiException;
+import de.mpg.imeji.j2j.helper.J2JHelper;
+import de.mpg.imeji.logic.config.Imeji;
+import de.mpg.imeji.logic.generic.SearchServiceAbstract;
+
+/**
+ * A job processing all objects selected by a query: <br/>
+ * - The uris are read page by page with a {@link UriPager}, and the objects of a page are processed
+ * in parallel by a pool of workers <br/>
+ * - After each page, the position of the pager is stored as {@link JobCheckpoint}, so that an
+ * interrupted job is resumed from there at its next run <br/>
+ * - The job can't run twice at the same time, and its progress is displayed in the admin tools by
+ * its {@link JobProgress}
+ *
+ * @param <T> the objects
+ * @param <R> the result of the processing of one object
+ */
+public abstract class PagedJob<T, R> {
+  private static final Logger LOGGER = LogManager.getLogger(PagedJob.class);
+  private final String name;
+  private final JobProgress progress;
+  private final String query;
+  private final String modelName;
+  private final SearchServiceAbstract<T> service;
+  private final int pageSize;
+  private final int workers;
+
+  /**
+   * @param name the name of the job, also the key of its checkpoint
+   * @param progress
+   * @param query the query selecting the uris of the objects
+   * @param modelName the model of the objects
+   * @param service the service retrieving the objects
+   * @param pageSize
+   * @param workers the number of objects processed in parallel
+   */
+  protected PagedJob(String name, JobProgress progress, String query, String modelName, SearchServiceAbstract<T> service, int pageSize,
+      int workers) {
+    this.name = name;
+    this.progress = progress;
+    this.query = query;
+    this.modelName = modelName;
+    this.service = service;
+    this.pageSize = pageSize;
+    this.workers = workers;
+  }
+
+  /**
+   * Process one object. Called by the workers
+   *
+   * @param object
+   * @return
+   * @throws Exception
+   */
+  protected abstract R process(T object) throws Exception;
+
+  /**
+   * Called after all objects of a page have been processed
+   *
+   * @param results the results of the objects processed without error
+   */
+  protected void afterPage(List<R> results) {
+    // nothing by default
+  }
+
+  /**
+   * Called before an object is given to the workers, for instance to wait until the system is less
+   * busy
+   *
+   * @throws InterruptedException
+   */
+  protected void beforeProcess() throws InterruptedException {
+    // nothing by default
+  }
+
+  /**
+   * Called at the end of every run, even if the run has been interrupted
+   */
+  protected void afterRun() {
+    // nothing by default
+  }
+
+  /**
+   * Process all objects, starting after the checkpoint of the last interrupted run
+   *
+   * @return the number of objects processed in this run
+   * @throws ImejiException
+   */
+  public long run() throws ImejiException {
+    if (!progress.tryStart()) {
+      LOGGER.warn(name + " is already running");
+      return 0;
+    }
+    final ExecutorService executor = Executors.newFixedThreadPool(workers);
+    try {
+      final UriPager.Position from = JobCheckpoint.read(name);
+      final UriPager pager = new UriPager(query, modelName, pageSize, from);
+      final long total = pager.countAll();
+      LOGGER.info("Starting " + name + " of " + total + " objects" + (from != null ? ", resuming after " + from.getCount() : ""));
+      progress.start(name, total, from != null ? from.getCount() : 0);
+      List<String> uris;
+      while (!(uris = pager.next()).isEmpty()) {
+        processPage(service.retrieveExisting(uris, Imeji.adminUser), executor);
+        JobCheckpoint.write(name, pager.getPosition());
+      }
+      JobCheckpoint.delete(name);
+      progress.setPhase("done");
+      LOGGER.info(name + " done: " + progress.getDoneInRun() + " objects processed, " + progress.getSkipped() + " up to date");
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      progress.setPhase("interrupted");
+      LOGGER.warn(name + " interrupted, it will be resumed at the next run");
+    } finally {
+      executor.shutdownNow();
+      progress.stop();
+      afterRun();
+    }
+    return progress.getDoneInRun();
+  }
+
+  /**
+   * Process the objects of a page in parallel, and wait until all are done
+   *
+   * @param objects
+   * @param executor
+   * @throws InterruptedException
+   */
+  private void processPage(List<T> objects, ExecutorService executor) throws InterruptedException {
+    final List<Future<R>> futures = new ArrayList<>(objects.size());
+    for (final T object : objects) {
+      beforeProcess();
+      futures.add(executor.submit(() -> process(object)));
+    }
+    final List<R> results = new ArrayList<>(objects.size());
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        results.add(futures.get(i).get());
+      } catch (final ExecutionException e) {
+        LOGGER.error(name + ": error processing " + J2JHelper.getId(objects.get(i)), e.getCause());
+      }
+      progress.add(1);
+    }
+    afterPage(results);
+  }
+
+  protected JobProgress getProgress() {
+    return progress;
+  }
+}
@@ -0,0 +1,35 @@
+package de.mpg.imeji.logic.batch;
+
+import java.util.concurrent.Callable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.mpg.imeji.logic.security.user.util.QuotaLedger;
+
+/**
+ * Compute again the used storage of all users of the {@link QuotaLedger}, and correct the drift of
+ * the incrementally maintained values
+ */
+public class QuotaReconciliationJob implements Callable<Integer> {
+  private static final Logger LOGGER = LogManager.getLogger(QuotaReconciliationJob.class);
+
+  @Override
+  public Integer call() throws Exception {
+    LOGGER.info("Reconciling used storage of users...");
+    int corrected = 0;
+    for (final String userId : QuotaLedger.getUsers()) {
+      try {
+        final long drift = QuotaLedger.reconcile(userId);
+        if (drift != 0) {
+          LOGGER.warn("Used storage of " + userId + " corrected by " + drift + " bytes");
+          corrected++;
+        }
+      } catch (final Exception e) {
+        LOGGER.error("Error reconciling used storage of " + userId, e);
+      }
+    }
+    LOGGER.info("...done! (" + corrected + " users corrected)");
+    return 1;
+  }
+}
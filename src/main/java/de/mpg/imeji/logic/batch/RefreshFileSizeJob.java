@@ -5,70 +5,86 @@ import java.io.File;
 import java.util.List;
 import java.util.concurrent.Callable;
 
-import org.apache.logging.log4j.Logger;
-import org.apache.logging.log4j.LogManager;
-
 import de.mpg.imeji.exceptions.ImejiException;
+import de.mpg.imeji.logic.batch.JobProgress.Job;
+import de.mpg.imeji.logic.config.Imeji;
 import de.mpg.imeji.logic.core.content.ContentService;
-import de.mpg.imeji.logic.core.item.ItemService;
-import de.mpg.imeji.logic.generic.SearchServiceAbstract;
+import de.mpg.imeji.logic.model.ContentVO;
 import de.mpg.imeji.logic.model.Item;
 import de.mpg.imeji.logic.search.jenasearch.ImejiSPARQL;
 import de.mpg.imeji.logic.search.jenasearch.JenaCustomQueries;
+import de.mpg.imeji.logic.security.user.util.QuotaLedger;
 import de.mpg.imeji.logic.storage.internal.InternalStorageManager;
-import de.mpg.imeji.logic.storage.util.ImageUtils;
+import de.mpg.imeji.logic.storage.util.ImageDimensionProbe;
 
 /**
- * Job which read all Items, read for each {@link Item} the size of the original File, and write the
- * items in Jena back with the file size;
+ * Job which read all contents, read for each content the size of the original File, and write the
+ * {@link Item} in Jena back with the file size: <br/>
+ * - The contents are read page by page by a {@link PagedJob}. The files of a page are read by a pool
+ * of workers (only the header of the images is read for the dimension), and the sizes of the page
+ * are written with one SPARQL update <br/>
+ * - An interrupted job is resumed from the last page
  *
  * @author saquet
  *
  */
-public class RefreshFileSizeJob implements Callable<Integer> {
-  private static final Logger LOGGER = LogManager.getLogger(RefreshFileSizeJob.class);
+public class RefreshFileSizeJob extends PagedJob<ContentVO, String> implements Callable<Integer> {
+  private static final int DEFAULT_BATCH_SIZE = 500;
+  private final InternalStorageManager storageManager = new InternalStorageManager();
+
+  public RefreshFileSizeJob() {
+    this(DEFAULT_BATCH_SIZE, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param batchSize the number of items updated in one SPARQL update
+   * @param workers the number of files read in parallel
+   */
+  public RefreshFileSizeJob(int batchSize, int workers) {
+    super("file sizes", JobProgress.get(Job.FILE_SIZES), JenaCustomQueries.selectContentAll(), Imeji.contentModel, new ContentService(),
+        batchSize, workers);
+  }
 
   @Override
   public Integer call() throws ImejiException {
-    LOGGER.info("Starting refreshing the file size of all Items");
-    LOGGER.info("Deleting all sizes...");
-    ImejiSPARQL.execUpdate(JenaCustomQueries.deleteAllFileSize());
-    LOGGER.info("...done!");
-    LOGGER.info("Retrieving all items...");
-    final ItemService itemController = new ItemService();
-    final ContentService contentService = new ContentService();
-    final InternalStorageManager storageManager = new InternalStorageManager();
-    final SearchServiceAbstract<Item>.RetrieveIterator iterator = itemController.iterateAll(500);
-    LOGGER.info("...done (found  " + iterator.getSize() + ")");
-    LOGGER.info("Reading the original file size of each item and update size");
-    int count = 1;
-    File f;
-    String path;
-    while (iterator.hasNext()) {
-      List<Item> items = (List<Item>) iterator.next();
-      for (final Item item : items) {
-        try {
-          LOGGER.info(count + "/" + items.size());
-          final String contentId = contentService.findContentId(item.getId().toString());
-          path = storageManager.transformUrlToPath(contentService.retrieveLazy(contentId).getOriginal());
-          f = new File(path);
-          final Dimension d = ImageUtils.getImageDimension(f);
-          if (d != null && d.width > 0 && d.height > 0) {
-            ImejiSPARQL.execUpdate(JenaCustomQueries.insertFileSizeAndDimension(item.getId().toString(), Long.toString(f.length()),
-                Long.toString(d.width), Long.toString(d.height)));
-          } else {
-            ImejiSPARQL.execUpdate(JenaCustomQueries.insertFileSize(item.getId().toString(), Long.toString(f.length())));
-          }
+    run();
+    return 1;
+  }
 
-        } catch (final Exception e) {
-          LOGGER.error("Error updating file size and dimension of item " + item.getIdString() + " : " + e.getMessage());
-        } finally {
-          count++;
-        }
-      }
+  @Override
+  protected String process(ContentVO content) {
+    return readFileSize(content, storageManager);
+  }
+
+  /**
+   * Write the sizes of the page with one SPARQL update
+   */
+  @Override
+  protected void afterPage(List<String> updates) {
+    if (!updates.isEmpty()) {
+      ImejiSPARQL.execUpdate(String.join(" ;\n", updates));
     }
+  }
 
-    LOGGER.info("File sizes successfully refreshed!");
-    return 1;
+  @Override
+  protected void afterRun() {
+    QuotaLedger.invalidateAll();
+  }
+
+  /**
+   * Read the size (and the dimension, for images) of the original file of the content
+   *
+   * @param content
+   * @param storageManager
+   * @return the SPARQL update writing them in the item
+   */
+  private static String readFileSize(ContentVO content, InternalStorageManager storageManager) {
+    final File f = new File(storageManager.transformUrlToPath(content.getOriginal()));
+    final Dimension d = ImageDimensionProbe.getDimension(f);
+    if (d != null && d.width > 0 && d.height > 0) {
+      return JenaCustomQueries.updateFileSizeAndDimension(content.getItemId(), Long.toString(f.length()), Long.toString(d.width),
+          Long.toString(d.height));
+    }
+    return JenaCustomQueries.updateFileSizeAndDimension(content.getItemId(), Long.toString(f.length()), null, null);
   }
 }
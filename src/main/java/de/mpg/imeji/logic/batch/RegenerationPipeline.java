@@ -0,0 +1,188 @@
+package de.mpg.imeji.logic.batch;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.mpg.imeji.exceptions.NotFoundException;
+import de.mpg.imeji.logic.batch.JobProgress.Job;
+import de.mpg.imeji.logic.config.Imeji;
+import de.mpg.imeji.logic.core.content.ContentService;
+import de.mpg.imeji.logic.db.keyValue.KeyValueStoreService;
+import de.mpg.imeji.logic.db.keyValue.stores.HTreeMapStore;
+import de.mpg.imeji.logic.model.ContentVO;
+import de.mpg.imeji.logic.search.jenasearch.JenaCustomQueries;
+import de.mpg.imeji.logic.storage.StorageController;
+import de.mpg.imeji.logic.storage.internal.InternalStorageManager;
+
+/**
+ * Regenerate the images (thumbnail, web resolution, and optionally full resolution) of all
+ * contents: <br/>
+ * - The contents are read page by page by a {@link PagedJob}, and the images of a page are generated
+ * by a pool of workers (one per core). The pool is not shared with the uploads <br/>
+ * - When the system load is too high (on Linux, the load includes the processes waiting for I/O),
+ * no new file is started until the load is back to normal <br/>
+ * - Files whose images have already been generated from the same source file with the same
+ * configuration (thumbnail and web resolution width) are skipped <br/>
+ * - An interrupted regeneration is resumed from the last page
+ */
+public class RegenerationPipeline extends PagedJob<ContentVO, Boolean> {
+  private static final KeyValueStoreService FINGERPRINT_STORE = new KeyValueStoreService(new HTreeMapStore("regenerationFingerprintStore"));
+  private static final int PAGE_SIZE = 100;
+  private static final double MAX_LOAD_PER_CORE = 1.5;
+  private static final long THROTTLE_DELAY = 500;
+  private final Mode mode;
+  private final boolean force;
+  private final int workers;
+  private final InternalStorageManager storageManager = new InternalStorageManager();
+  private final String configHash = getConfigHash();
+
+  /**
+   * The images to regenerate
+   */
+  public enum Mode {
+    /**
+     * Thumbnail and web resolution, from the full resolution
+     */
+    WEB_AND_THUMBNAIL,
+    /**
+     * Full resolution, thumbnail and web resolution, from the original file
+     */
+    FULL_WEB_AND_THUMBNAIL;
+  }
+
+  /**
+   * Create a new pipeline
+   *
+   * @param mode the images to regenerate
+   * @param force if true, the images are regenerated even if they are up to date
+   */
+  public RegenerationPipeline(Mode mode, boolean force) {
+    super(mode.name().toLowerCase(), JobProgress.get(Job.IMAGES), JenaCustomQueries.selectContentAll(), Imeji.contentModel,
+        new ContentService(), PAGE_SIZE, Runtime.getRuntime().availableProcessors());
+    this.mode = mode;
+    this.force = force;
+    this.workers = Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Count the files whose images were up to date
+   */
+  @Override
+  protected void afterPage(List<Boolean> upToDate) {
+    getProgress().addSkipped(upToDate.stream().filter(Boolean::booleanValue).count());
+  }
+
+  /**
+   * Regenerate the images of the content, if they are not up to date
+   *
+   * @param content
+   * @return true if the images were up to date
+   * @throws Exception
+   */
+  @Override
+  protected Boolean process(ContentVO content) throws Exception {
+    final File source = new File(storageManager.transformUrlToPath(
+        mode == Mode.WEB_AND_THUMBNAIL ? content.getFull() : content.getOriginal()));
+    final List<File> images = getImages(content);
+    final String key = mode.name() + ":" + content.getOriginal();
+    final String fingerprint = source.length() + ":" + source.lastModified() + ":" + configHash;
+    if (!force && isUpToDate(key, fingerprint, source, images)) {
+      return true;
+    }
+    final StorageController controller = new StorageController();
+    if (mode == Mode.WEB_AND_THUMBNAIL) {
+      controller.recalculateWebAndThumbnail(content.getOriginal());
+    } else {
+      controller.reGenerateFullWebThumbnailImages(content.getOriginal());
+    }
+    // the storage logs its errors without throwing them: the fingerprint is only written if all
+    // images have been generated
+    if (areNewerThan(images, source)) {
+      FINGERPRINT_STORE.put(key, fingerprint);
+    }
+    return false;
+  }
+
+  /**
+   * True if the images have been generated from the same source file with the same configuration,
+   * and haven't been changed since
+   *
+   * @param key
+   * @param fingerprint
+   * @param source
+   * @param images
+   * @return
+   */
+  private boolean isUpToDate(String key, String fingerprint, File source, List<File> images) {
+    try {
+      return fingerprint.equals(FINGERPRINT_STORE.get(key)) && areNewerThan(images, source);
+    } catch (final NotFoundException e) {
+      return false;
+    }
+  }
+
+  private boolean areNewerThan(List<File> images, File source) {
+    for (final File image : images) {
+      if (!image.exists() || image.lastModified() < source.lastModified()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The images generated by this pipeline for the content
+   *
+   * @param content
+   * @return
+   */
+  private List<File> getImages(ContentVO content) {
+    final List<File> images = new ArrayList<>(3);
+    images.add(new File(storageManager.transformUrlToPath(content.getThumbnail())));
+    images.add(new File(storageManager.transformUrlToPath(content.getPreview())));
+    if (mode == Mode.FULL_WEB_AND_THUMBNAIL) {
+      images.add(new File(storageManager.transformUrlToPath(content.getFull())));
+    }
+    return images;
+  }
+
+  /**
+   * Wait until the system load is low enough to start a new file
+   *
+   * @throws InterruptedException
+   */
+  @Override
+  protected void beforeProcess() throws InterruptedException {
+    final double maxLoad = workers * MAX_LOAD_PER_CORE;
+    if (getSystemLoad() <= maxLoad) {
+      return;
+    }
+    final String phase = getProgress().getPhase();
+    getProgress().setPhase(phase + " (throttled)");
+    while (getSystemLoad() > maxLoad) {
+      Thread.sleep(THROTTLE_DELAY);
+    }
+    getProgress().setPhase(phase);
+  }
+
+  /**
+   * The system load average of the last minute, or a negative value if not available (e.g. on
+   * Windows)
+   *
+   * @return
+   */
+  private static double getSystemLoad() {
+    return ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+  }
+
+  /**
+   * The hash of the configuration used to generate the images
+   *
+   * @return
+   */
+  private static String getConfigHash() {
+    return Integer.toHexString((Imeji.CONFIG.getThumbnailWidth() + "|" + Imeji.CONFIG.getWebResolutionWidth()).hashCode());
+  }
+}
@@ -0,0 +1,164 @@
+package de.mpg.imeji.logic.batch;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.mpg.imeji.logic.batch.JobProgress.Job;
+import de.mpg.imeji.logic.config.Imeji;
+import de.mpg.imeji.logic.generic.SearchServiceAbstract;
+import de.mpg.imeji.logic.search.elasticsearch.ElasticIndexer;
+
+/**
+ * Index all objects selected by a query: <br/>
+ * - a producer reads the uris of the objects in Jena page by page (with a {@link UriPager}), and
+ * puts the pages in a bounded queue <br/>
+ * - N workers take the pages from the queue, retrieve the objects and index them with one bulk
+ * request per page <br/>
+ * - Once all pages before a position have been indexed, the position is passed to the checkpoint
+ * consumer, so that an interrupted reindex can be resumed from there
+ */
+public class ReindexPipeline {
+  private static final Logger LOGGER = LogManager.getLogger(ReindexPipeline.class);
+  private static final Page END = new Page(-1, Collections.emptyList(), null);
+  private final String query;
+  private final String modelName;
+  private final SearchServiceAbstract<?> service;
+  private final ElasticIndexer indexer;
+  private final int pageSize;
+  private final int workers;
+  private final BlockingQueue<Page> queue;
+  private final AtomicReference<Exception> failure = new AtomicReference<>();
+  private final Map<Long, UriPager.Position> indexedPages = new HashMap<>();
+  private long nextPage = 0;
+  private Consumer<UriPager.Position> checkpointConsumer;
+
+  /**
+   * A page of uris, with its number and the position of the pager after it
+   */
+  private static class Page {
+    private final long number;
+    private final List<String> uris;
+    private final UriPager.Position end;
+
+    private Page(long number, List<String> uris, UriPager.Position end) {
+      this.number = number;
+      this.uris = uris;
+      this.end = end;
+    }
+  }
+
+  /**
+   * Create a new pipeline
+   *
+   * @param query the query selecting the uris of all objects
+   * @param modelName the model of the objects
+   * @param service the service retrieving the objects
+   * @param indexer the indexer of the index to fill
+   * @param pageSize
+   * @param workers
+   */
+  public ReindexPipeline(String query, String modelName, SearchServiceAbstract<?> service, ElasticIndexer indexer, int pageSize,
+      int workers) {
+    this.query = query;
+    this.modelName = modelName;
+    this.service = service;
+    this.indexer = indexer;
+    this.pageSize = pageSize;
+    this.workers = workers;
+    this.queue = new ArrayBlockingQueue<>(2 * workers);
+  }
+
+  /**
+   * The number of objects to index
+   *
+   * @return
+   */
+  public long count() {
+    return new UriPager(query, modelName, pageSize, null).countAll();
+  }
+
+  /**
+   * Index all objects from the position
+   *
+   * @param from the position to start from, or null to start from the first object
+   * @param checkpointConsumer called with the position before which all objects have been indexed
+   * @throws Exception
+   */
+  public void run(UriPager.Position from, Consumer<UriPager.Position> checkpointConsumer) throws Exception {
+    this.checkpointConsumer = checkpointConsumer;
+    final UriPager pager = new UriPager(query, modelName, pageSize, from);
+    final ExecutorService executor = Executors.newFixedThreadPool(workers);
+    for (int i = 0; i < workers; i++) {
+      executor.submit(this::work);
+    }
+    try {
+      long number = 0;
+      List<String> uris;
+      while (failure.get() == null && !(uris = pager.next()).isEmpty()) {
+        queue.put(new Page(number++, uris, pager.getPosition()));
+      }
+    } finally {
+      for (int i = 0; i < workers; i++) {
+        queue.put(END);
+      }
+      executor.shutdown();
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+  }
+
+  /**
+   * Work of one worker: index the pages until the end of the queue. After a failure, the remaining
+   * pages are only drained, so that the producer isn't blocked
+   *
+   * @return
+   * @throws InterruptedException
+   */
+  private Void work() throws InterruptedException {
+    Page page;
+    while ((page = queue.take()) != END) {
+      if (failure.get() == null) {
+        try {
+          final List<?> objects = service.retrieveExisting(page.uris, Imeji.adminUser);
+          indexer.indexBatch(objects);
+          JobProgress.get(Job.REINDEX).add(objects.size());
+          indexed(page);
+        } catch (final Exception e) {
+          LOGGER.error("Error indexing page starting at " + page.uris.get(0), e);
+          failure.compareAndSet(null, e);
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Mark the page as indexed, and move the checkpoint forward if all previous pages are indexed
+   *
+   * @param page
+   */
+  private synchronized void indexed(Page page) {
+    indexedPages.put(page.number, page.end);
+    UriPager.Position checkpoint = null;
+    while (indexedPages.containsKey(nextPage)) {
+      checkpoint = indexedPages.remove(nextPage++);
+    }
+    if (checkpoint != null) {
+      checkpointConsumer.accept(checkpoint);
+    }
+  }
+}
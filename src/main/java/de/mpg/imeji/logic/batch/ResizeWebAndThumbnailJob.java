@@ -1,40 +1,37 @@
 package de.mpg.imeji.logic.batch;
 
-import java.util.List;
 import java.util.concurrent.Callable;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
-import de.mpg.imeji.logic.core.content.ContentService;
-import de.mpg.imeji.logic.generic.SearchServiceAbstract;
-import de.mpg.imeji.logic.model.ContentVO;
-import de.mpg.imeji.logic.storage.StorageController;
+import de.mpg.imeji.logic.batch.RegenerationPipeline.Mode;
 
+/**
+ * Generate the web resolution and the thumbnail of all files from their full resolution
+ *
+ * @see RegenerationPipeline
+ */
 public class ResizeWebAndThumbnailJob implements Callable<Integer> {
   private static final Logger LOGGER = LogManager.getLogger(ResizeWebAndThumbnailJob.class);
+  private final boolean force;
+
+  public ResizeWebAndThumbnailJob() {
+    this(false);
+  }
+
+  /**
+   * @param force if true, the images are generated even if they are up to date
+   */
+  public ResizeWebAndThumbnailJob(boolean force) {
+    this.force = force;
+  }
 
   @Override
   public Integer call() throws Exception {
     LOGGER.info("Generating JPEG for all files");
-    ContentService service = new ContentService();
-    SearchServiceAbstract<ContentVO>.RetrieveIterator iterator = service.iterateAll(10);
-    int count = 1;
-    long start = System.currentTimeMillis();
-    while (iterator.hasNext()) {
-      List<ContentVO> result = (List<ContentVO>) iterator.next();
-      for (ContentVO content : result) {
-        StorageController controller = new StorageController();
-        LOGGER.info("Generating jpeg for file " + count + "/" + iterator.getSize());
-        try {
-          controller.recalculateWebAndThumbnail(content.getOriginal());
-        } catch (Exception e) {
-          LOGGER.error("Error generating images of " + content.getOriginal(), e);
-        }
-        count++;
-      }
-    }
-
+    final long start = System.currentTimeMillis();
+    new RegenerationPipeline(Mode.WEB_AND_THUMBNAIL, force).run();
     LOGGER.info("JPEG for all files generated in " + (System.currentTimeMillis() - start) + " ms!");
     return 1;
   }
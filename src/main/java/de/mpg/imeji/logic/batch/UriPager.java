@@ -0,0 +1,98 @@
+package de.mpg.imeji.logic.batch;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+import de.mpg.imeji.logic.search.jenasearch.ImejiSPARQL;
+import de.mpg.imeji.logic.search.jenasearch.JenaCustomQueries;
+
+/**
+ * Read the uris selected by a query "SELECT ?s WHERE {...}" page by page: <br/>
+ * - The uris are ordered, and each page starts after the last uri of the previous page: objects
+ * created or deleted in the meantime don't shift the next pages <br/>
+ * - The {@link Position} after a page can be stored, and a new pager started from it
+ *
+ */
+public class UriPager {
+  private final String query;
+  private final String modelName;
+  private final int pageSize;
+  private String after;
+  private long count;
+  private boolean end = false;
+
+  /**
+   * The position of a pager: the last read uri, and the number of uris read until there
+   */
+  public static class Position implements Serializable {
+    private static final long serialVersionUID = -2302497453637329421L;
+    private final String after;
+    private final long count;
+
+    public Position(String after, long count) {
+      this.after = after;
+      this.count = count;
+    }
+
+    public String getAfter() {
+      return after;
+    }
+
+    public long getCount() {
+      return count;
+    }
+  }
+
+  /**
+   * Create a new pager
+   *
+   * @param query the query selecting the uris
+   * @param modelName
+   * @param pageSize
+   * @param from the position to start from, or null to start from the first uri
+   */
+  public UriPager(String query, String modelName, int pageSize, Position from) {
+    this.query = query;
+    this.modelName = modelName;
+    this.pageSize = pageSize;
+    if (from != null) {
+      this.after = from.getAfter();
+      this.count = from.getCount();
+    }
+  }
+
+  /**
+   * Read the next page
+   *
+   * @return the uris of the page, or an empty list if all uris have been read
+   */
+  public List<String> next() {
+    final List<String> uris =
+        end ? Collections.<String>emptyList() : ImejiSPARQL.exec(JenaCustomQueries.selectPageAfter(query, after, pageSize), modelName);
+    if (!uris.isEmpty()) {
+      after = uris.get(uris.size() - 1);
+      count += uris.size();
+    }
+    end = uris.size() < pageSize;
+    return uris;
+  }
+
+  /**
+   * The position after the last read page
+   *
+   * @return
+   */
+  public Position getPosition() {
+    return new Position(after, count);
+  }
+
+  /**
+   * The number of uris selected by the query
+   *
+   * @return
+   */
+  public long countAll() {
+    return ImejiSPARQL.execCount(JenaCustomQueries.selectDistinct(query), modelName);
+  }
+}
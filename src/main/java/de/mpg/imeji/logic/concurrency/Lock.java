@@ -4,6 +4,7 @@ public class Lock {
   private long createTime = 0;
   private String email = null;
   private String uri = null;
+  private final String holder;
 
   /**
    * Lock for one user (Used for GUI presentation)
@@ -14,6 +15,7 @@ public class Lock {
   public Lock(String uri, String email) {
     this.email = email;
     this.uri = uri.toString();
+    this.holder = Thread.currentThread().getName();
     initTime();
   }
 
@@ -23,8 +25,7 @@ public class Lock {
    * @param uri
    */
   public Lock(String uri) {
-    this.uri = uri.toString();
-    initTime();
+    this(uri, null);
   }
 
   public void initTime() {
@@ -42,4 +43,19 @@ public class Lock {
   public String getUri() {
     return uri;
   }
+
+  /**
+   * The name of the thread which created the lock (for diagnostic)
+   *
+   * @return
+   */
+  public String getHolder() {
+    return holder;
+  }
+
+  @Override
+  public String toString() {
+    return uri + " by " + (email != null ? email : "system") + " (" + holder + ", since "
+        + (System.currentTimeMillis() - createTime) + " ms)";
+  }
 }
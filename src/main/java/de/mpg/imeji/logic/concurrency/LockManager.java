@@ -0,0 +1,386 @@
+package de.mpg.imeji.logic.concurrency;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Manager for all {@link Lock} of imeji: <br/>
+ * - Every uri is guarded by a fair read/write lock of a fixed set of stripes. Waiting threads are
+ * parked until the lock is free or the timeout is over <br/>
+ * - {@link Lock} set by users and by the system are set and released under the write lock of their
+ * uri <br/>
+ * - Expired {@link Lock} are released by a scheduled sweeper, which only looks at the {@link Lock}
+ * whose lifetime is over
+ */
+public class LockManager {
+  private static final Logger LOGGER = LogManager.getLogger(LockManager.class);
+  // Life time for a lock. After that limit, the lock is destroyed.
+  public static final long LOCK_MAX_TIME = 900000;// 900s = 15min
+  // Maximum time to wait for a read/write lock on an uri
+  public static final long LOCK_TIMEOUT = 10000;
+  private static final long SWEEP_PERIOD = 10000;
+  private static final int STRIPES = 64;
+  private final ReadWriteLock[] stripes = new ReadWriteLock[STRIPES];
+  private final Map<String, Lock> userLocks = new ConcurrentHashMap<>();
+  private final Map<String, Lock> systemLocks = new ConcurrentHashMap<>();
+  private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+  private ScheduledThreadPoolExecutor sweeper;
+  // Metrics
+  private final AtomicInteger waiters = new AtomicInteger();
+  private final AtomicLong acquisitions = new AtomicLong();
+  private final AtomicLong timeouts = new AtomicLong();
+  private final AtomicLong waitTime = new AtomicLong();
+  private final AtomicLong released = new AtomicLong();
+  private final AtomicLong expired = new AtomicLong();
+  private final AtomicLong holdTime = new AtomicLong();
+  private final AtomicLong maxHoldTime = new AtomicLong();
+
+  /**
+   * Default constructor
+   */
+  public LockManager() {
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new ReentrantReadWriteLock(true);
+    }
+  }
+
+  /**
+   * Acquire the read lock on the uri. The current thread is parked at most {@link #LOCK_TIMEOUT}
+   *
+   * @param uri
+   */
+  public void lockForRead(String uri) {
+    acquire(getStripe(uri).readLock(), uri);
+  }
+
+  /**
+   * Release the read lock on the uri
+   *
+   * @param uri
+   */
+  public void releaseLockForRead(String uri) {
+    getStripe(uri).readLock().unlock();
+  }
+
+  /**
+   * Acquire the write lock on the uri. The current thread is parked at most {@link #LOCK_TIMEOUT}
+   *
+   * @param uri
+   */
+  public void lockForWrite(String uri) {
+    acquire(getStripe(uri).writeLock(), uri);
+  }
+
+  /**
+   * Release the write lock on the uri
+   *
+   * @param uri
+   */
+  public void releaseLockForWrite(String uri) {
+    getStripe(uri).writeLock().unlock();
+  }
+
+  /**
+   * return true if the uri (i.e object) is locked for the user. <br/>
+   * Check first if uri is locked by system. <br/>
+   * Then check if uri is locked by one other user.
+   *
+   * @param uri
+   * @param email
+   * @return
+   */
+  public boolean isLocked(String uri, String email) {
+    if (systemLocks.containsKey(uri)) {
+      return true;
+    }
+    final Lock userLock = userLocks.get(uri);
+    return userLock != null && email != null && !userLock.getEmail().equals(email);
+  }
+
+  /**
+   * If lock doesn't already exist, then add a lock to: <br/>
+   * System locks if email is null in Lock <br/>
+   * User locks if email is defined.
+   *
+   * @param lock
+   */
+  public void lock(Lock lock) {
+    lockForWrite(lock.getUri());
+    try {
+      if (isLocked(lock.getUri(), lock.getEmail())) {
+        throw new RuntimeException(lock.getUri() + " already locked by another user " + lock.getEmail());
+      }
+      if (lock.getEmail() == null) {
+        LOGGER.debug(lock.getUri() + " locked by system (" + lock.getHolder() + ")");
+        systemLocks.put(lock.getUri(), lock);
+      } else {
+        LOGGER.debug(lock.getUri() + " locked by " + lock.getEmail() + " (" + lock.getHolder() + ")");
+        userLocks.put(lock.getUri(), lock);
+      }
+      expiries.add(new Expiry(lock));
+    } finally {
+      releaseLockForWrite(lock.getUri());
+    }
+  }
+
+  /**
+   * Unlock the lock.
+   *
+   * @param lock
+   */
+  public void unLock(Lock lock) {
+    lockForWrite(lock.getUri());
+    try {
+      final Lock removed = lock.getEmail() == null ? systemLocks.remove(lock.getUri()) : userLocks.remove(lock.getUri());
+      if (removed != null) {
+        LOGGER.debug(lock.getUri() + " unlocked by " + (lock.getEmail() == null ? "system" : lock.getEmail()));
+        recordHoldTime(removed);
+      }
+    } finally {
+      releaseLockForWrite(lock.getUri());
+    }
+  }
+
+  /**
+   * Unlock all locks for one User
+   *
+   * @param email
+   */
+  public void unlockAll(String email) {
+    if (email != null) {
+      for (final Lock l : new ArrayList<>(userLocks.values())) {
+        if (email.equals(l.getEmail())) {
+          unLock(l);
+        }
+      }
+    }
+  }
+
+  /**
+   * Release all locks
+   */
+  public void reset() {
+    userLocks.clear();
+    systemLocks.clear();
+    expiries.clear();
+  }
+
+  /**
+   * Start the sweeper, which releases the expired locks
+   */
+  public synchronized void startSweeper() {
+    if (sweeper == null || sweeper.isShutdown()) {
+      sweeper = new ScheduledThreadPoolExecutor(1, r -> {
+        final Thread t = new Thread(r, "imeji-locks-sweeper");
+        t.setDaemon(true);
+        return t;
+      });
+      sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_PERIOD, SWEEP_PERIOD, TimeUnit.MILLISECONDS);
+      LOGGER.info("Locks sweeper started");
+    }
+  }
+
+  /**
+   * Stop the sweeper
+   */
+  public synchronized void stopSweeper() {
+    if (sweeper != null) {
+      sweeper.shutdownNow();
+      LOGGER.info("Locks sweeper stopped");
+    }
+  }
+
+  /**
+   * Release all expired locks
+   */
+  void sweep() {
+    try {
+      Expiry expiry;
+      while ((expiry = expiries.poll()) != null) {
+        final Lock lock = expiry.lock;
+        final Map<String, Lock> locks = lock.getEmail() == null ? systemLocks : userLocks;
+        // The lock could have been released (and maybe set again) in the meantime
+        if (locks.get(lock.getUri()) == lock) {
+          LOGGER.info("Unlocking expired lock on " + lock.getUri() + " by " + lock.getEmail() + " (" + lock.getHolder() + ")");
+          unLock(lock);
+          expired.incrementAndGet();
+        }
+      }
+    } catch (final Exception e) {
+      LOGGER.error("Locks sweeper encountered a problem: ", e);
+    }
+  }
+
+  /**
+   * Retreive a list of all locks which are expired
+   *
+   * @return
+   */
+  public List<Lock> getExpiredLocks() {
+    final long now = System.currentTimeMillis();
+    final List<Lock> list = new ArrayList<>();
+    for (final Lock lock : getLocks()) {
+      if (now > LOCK_MAX_TIME + lock.getCreateTime()) {
+        list.add(lock);
+      }
+    }
+    return list;
+  }
+
+  /**
+   * All current locks (system and users), for diagnostic
+   *
+   * @return
+   */
+  public List<Lock> getLocks() {
+    final List<Lock> list = new ArrayList<>(systemLocks.values());
+    list.addAll(userLocks.values());
+    return list;
+  }
+
+  public Map<String, Lock> getUserLocks() {
+    return Collections.unmodifiableMap(userLocks);
+  }
+
+  public Map<String, Lock> getSystemLocks() {
+    return Collections.unmodifiableMap(systemLocks);
+  }
+
+  /**
+   * Number of threads currently waiting for a read/write lock
+   *
+   * @return
+   */
+  public int getWaiters() {
+    return waiters.get();
+  }
+
+  /**
+   * Number of read/write locks acquired
+   *
+   * @return
+   */
+  public long getAcquisitions() {
+    return acquisitions.get();
+  }
+
+  /**
+   * Number of read/write locks which couldn't be acquired before the timeout
+   *
+   * @return
+   */
+  public long getTimeouts() {
+    return timeouts.get();
+  }
+
+  /**
+   * Average time (in ms) waited for a read/write lock
+   *
+   * @return
+   */
+  public double getAverageWaitTime() {
+    final long n = acquisitions.get() + timeouts.get();
+    return n == 0 ? 0 : (double) waitTime.get() / n;
+  }
+
+  /**
+   * Number of locks released by the sweeper
+   *
+   * @return
+   */
+  public long getExpired() {
+    return expired.get();
+  }
+
+  /**
+   * Average time (in ms) a {@link Lock} was hold
+   *
+   * @return
+   */
+  public double getAverageHoldTime() {
+    final long n = released.get();
+    return n == 0 ? 0 : (double) holdTime.get() / n;
+  }
+
+  /**
+   * Longest time (in ms) a {@link Lock} was hold
+   *
+   * @return
+   */
+  public long getMaxHoldTime() {
+    return maxHoldTime.get();
+  }
+
+  /**
+   * Acquire the lock, parking the current thread at most {@link #LOCK_TIMEOUT}
+   *
+   * @param lock
+   * @param uri
+   */
+  private void acquire(java.util.concurrent.locks.Lock lock, String uri) {
+    final long start = System.currentTimeMillis();
+    waiters.incrementAndGet();
+    try {
+      if (!lock.tryLock(LOCK_TIMEOUT, TimeUnit.MILLISECONDS)) {
+        timeouts.incrementAndGet();
+        LOGGER.error("Lock on " + uri + " not acquired after " + LOCK_TIMEOUT + " ms. Current locks: " + getLocks());
+        throw new RuntimeException("Lock on " + uri + " could not be acquired in less than 10s. Check if there is no dead locks");
+      }
+      acquisitions.incrementAndGet();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for the lock on " + uri, e);
+    } finally {
+      waiters.decrementAndGet();
+      waitTime.addAndGet(System.currentTimeMillis() - start);
+    }
+  }
+
+  private ReadWriteLock getStripe(String uri) {
+    return stripes[(uri.hashCode() & 0x7fffffff) % STRIPES];
+  }
+
+  private void recordHoldTime(Lock lock) {
+    final long time = System.currentTimeMillis() - lock.getCreateTime();
+    released.incrementAndGet();
+    holdTime.addAndGet(time);
+    maxHoldTime.accumulateAndGet(time, Math::max);
+  }
+
+  /**
+   * Entry of the expiry queue of the sweeper
+   */
+  private static class Expiry implements Delayed {
+    private final Lock lock;
+    private final long expiryTime;
+
+    private Expiry(Lock lock) {
+      this.lock = lock;
+      this.expiryTime = lock.getCreateTime() + LOCK_MAX_TIME;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(expiryTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed o) {
+      return Long.compare(getDelay(TimeUnit.MILLISECONDS), o.getDelay(TimeUnit.MILLISECONDS));
+    }
+  }
+}
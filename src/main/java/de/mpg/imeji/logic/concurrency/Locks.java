@@ -1,36 +1,35 @@
 package de.mpg.imeji.logic.concurrency;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
-import org.apache.logging.log4j.Logger;
-import org.apache.logging.log4j.LogManager;
 
+/**
+ * Static access to the {@link LockManager} of imeji
+ */
 public class Locks {
-  // Lock on User Event
-  private static Map<String, Lock> userLocks = new ConcurrentHashMap<String, Lock>();
-  // Locks on System event
-  private static Map<String, Lock> sysLocks = new ConcurrentHashMap<String, Lock>();
-  // Life time for a lock. After that limit, the lock is destroyed.
-  private static final long LOCK_MAX_TIME = 900000;// 900s = 15min
-  // private static final long LOCK_MAX_TIME = 60000;// 60s = 1min
-  private static final Logger LOGGER = LogManager.getLogger(Locks.class);
-  private static boolean writeLock = false;
-  private static boolean counterLock = false;
+  private static final LockManager MANAGER = new LockManager();
+
+  /**
+   * private constructor
+   */
+  private Locks() {
+
+  }
+
+  public static LockManager getManager() {
+    return MANAGER;
+  }
 
   public static void reset() {
-    userLocks = new ConcurrentHashMap<String, Lock>();
-    sysLocks = new ConcurrentHashMap<String, Lock>();
+    MANAGER.reset();
   }
 
   public static Map<String, Lock> getUserLocks() {
-    return userLocks;
+    return MANAGER.getUserLocks();
   }
 
   public static Map<String, Lock> getSystemLocks() {
-    return sysLocks;
+    return MANAGER.getSystemLocks();
   }
 
   /**
@@ -43,16 +42,7 @@ public class Locks {
    * @return
    */
   public static boolean isLocked(String uri, String email) {
-    final Lock syslock = getSystemLocks().get(uri);
-    if (syslock != null) {
-      return true;
-    } else {
-      final Lock userLock = getUserLocks().get(uri);
-      if (userLock != null && email != null && !userLock.getEmail().equals(email)) {
-        return true;
-      }
-      return false;
-    }
+    return MANAGER.isLocked(uri, email);
   }
 
   /**
@@ -63,17 +53,7 @@ public class Locks {
    * @param lock
    */
   public static void lock(Lock lock) {
-    if (!isLocked(lock.getUri(), lock.getEmail())) {
-      if (lock.getEmail() == null) {
-        LOGGER.debug(lock.getUri() + " locked by system");
-        getSystemLocks().put(lock.getUri(), lock);
-      } else {
-        LOGGER.debug(lock.getUri() + " locked by " + lock.getEmail());
-        getUserLocks().put(lock.getUri(), lock);
-      }
-    } else {
-      throw new RuntimeException(lock.getUri() + " already locked by another user " + lock.getEmail());
-    }
+    MANAGER.lock(lock);
   }
 
   /**
@@ -82,13 +62,7 @@ public class Locks {
    * @param lock
    */
   public static void unLock(Lock lock) {
-    if (lock.getEmail() == null && getSystemLocks().get(lock.getUri()) != null) {
-      LOGGER.debug(lock.getUri() + " unlocked by system");
-      getSystemLocks().remove(lock.getUri());
-    } else if (lock.getEmail() != null && getUserLocks().get(lock.getUri()) != null) {
-      LOGGER.debug(lock.getUri() + " unlocked by " + lock.getEmail());
-      getUserLocks().remove(lock.getUri());
-    }
+    MANAGER.unLock(lock);
   }
 
   /**
@@ -97,17 +71,7 @@ public class Locks {
    * @param email
    */
   public static void unlockAll(String email) {
-    final List<Lock> toUnlock = new ArrayList<Lock>();
-    if (!getUserLocks().isEmpty() && email != null) {
-      for (final Lock l : getUserLocks().values()) {
-        if (email.equals(l.getEmail())) {
-          toUnlock.add(l);
-        }
-      }
-    }
-    for (final Lock l : toUnlock) {
-      unLock(l);
-    }
+    MANAGER.unlockAll(email);
   }
 
   /**
@@ -116,69 +80,42 @@ public class Locks {
    * @return
    */
   public static List<Lock> getExpiredLocks() {
-    final List<Lock> list = new ArrayList<Lock>();
-    if (!getUserLocks().isEmpty()) {
-      final List<Lock> l1 = new ArrayList<Lock>(userLocks.values());
-      for (final Lock lock : l1) {
-        final long created = lock.getCreateTime();
-        final long current = System.currentTimeMillis();
-        if (current > (LOCK_MAX_TIME + created)) {
-          list.add(lock);
-        }
-      }
-    }
-    if (!getSystemLocks().isEmpty()) {
-      final List<Lock> l1 = new ArrayList<Lock>(sysLocks.values());
-      for (final Lock lock : l1) {
-        final long created = lock.getCreateTime();
-        final long current = System.currentTimeMillis();
-        if (current > (LOCK_MAX_TIME + created)) {
-          list.add(lock);
-        }
-      }
-    }
-    return list;
-  }
-
-  public synchronized static boolean tryLock() {
-    final long startLocked = System.currentTimeMillis();
-    while (writeLock) {
-      // wait for lock to be released
-      if ((System.currentTimeMillis() - startLocked) > 10000) {
-        // if a lock is kept more than 10 s, throw exception
-        throw new RuntimeException("Write lock could not be released in less than 10s. Check if there is no dead locks");
-      }
-    }
-    lockForWrite();
-    return true;
+    return MANAGER.getExpiredLocks();
   }
 
-  public static void lockForWrite() {
-    writeLock = true;
-  }
-
-  public static void releaseLockForWrite() {
-    writeLock = false;
+  /**
+   * Acquire the write lock on an uri. The current thread waits (parked) at most 10s
+   *
+   * @param uri
+   */
+  public static void lockForWrite(String uri) {
+    MANAGER.lockForWrite(uri);
   }
 
-  public static void lockCounter() {
-    counterLock = true;
+  /**
+   * Release the write lock on an uri
+   *
+   * @param uri
+   */
+  public static void releaseLockForWrite(String uri) {
+    MANAGER.releaseLockForWrite(uri);
   }
 
-  public static void releaseCounter() {
-    counterLock = false;
+  /**
+   * Acquire the read lock on an uri. The current thread waits (parked) at most 10s
+   *
+   * @param uri
+   */
+  public static void lockForRead(String uri) {
+    MANAGER.lockForRead(uri);
   }
 
-  public synchronized static boolean tryLockCounter() {
-    final long startLocked = System.currentTimeMillis();
-    while (counterLock) {
-      // wait for lock to be released
-      if ((System.currentTimeMillis() - startLocked) > 10000) {
-        // if a lock is kept more than 10 s, throw exception
-        throw new RuntimeException("Write lock could not be released in less than 10s. Check if there is no dead locks");
-      }
-    }
-    lockCounter();
-    return true;
+  /**
+   * Release the read lock on an uri
+   *
+   * @param uri
+   */
+  public static void releaseLockForRead(String uri) {
+    MANAGER.releaseLockForRead(uri);
   }
 }
@@ -6,7 +6,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 
 import org.apache.jena.query.Dataset;
 
-import de.mpg.imeji.logic.concurrency.LocksSurveyor;
+import de.mpg.imeji.j2j.transaction.GroupCommitWriter;
 import de.mpg.imeji.logic.config.emailcontent.ImejiEmailContentConfiguration;
 import de.mpg.imeji.logic.model.User;
 
@@ -26,6 +26,10 @@ public class Imeji {
   public static String facetModel;
   public static String contentModel;
   public static Dataset dataset;
+  /**
+   * Writer for all write transactions on the {@link #dataset}
+   */
+  public static GroupCommitWriter writer;
   public static User adminUser;
   public static final String ADMIN_EMAIL_INIT = "admin@imeji.org";
   public static final String ADMIN_PASSWORD_INIT = "admin";
@@ -41,10 +45,6 @@ public class Imeji {
 
   public static final ImejiResourceBundle RESOURCE_BUNDLE = new ImejiResourceBundle();
 
-  /**
-   * Thread to check if locked objects can be unlocked
-   */
-  public static final LocksSurveyor locksSurveyor = new LocksSurveyor();
   /**
    * The {@link ExecutorService} which runs the thread in imeji
    */
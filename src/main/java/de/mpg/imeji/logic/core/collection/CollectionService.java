@@ -40,6 +40,7 @@ import de.mpg.imeji.logic.search.jenasearch.JenaCustomQueries;
 import de.mpg.imeji.logic.search.model.SearchQuery;
 import de.mpg.imeji.logic.search.model.SearchResult;
 import de.mpg.imeji.logic.search.model.SortCriterion;
+import de.mpg.imeji.logic.security.user.util.QuotaLedger;
 import de.mpg.imeji.logic.util.StringHelper;
 import de.mpg.imeji.logic.workflow.WorkflowValidator;
 
@@ -293,6 +294,8 @@ public class CollectionService extends SearchServiceAbstract<CollectionImeji> {
    */
   public void withdraw(CollectionImeji coll, User user) throws ImejiException {
     new WorkflowFacade().withdraw(coll, coll.getDiscardComment(), user);
+    // The withdrawn items could have been uploaded by many users
+    QuotaLedger.invalidateAll();
   }
 
   /**
@@ -4,6 +4,8 @@ import java.io.File;
 import java.io.Serializable;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -92,7 +94,21 @@ public class ContentService extends SearchServiceAbstract<ContentVO> implements
    * @throws ImejiException
    */
   public ContentVO create(Item item, File file, User user) throws ImejiException {
-    ContentVO contentVO = uploadFile(new ContentVO(), item.getId().toString(), file, user);
+    return create(item, file, null, user);
+  }
+
+  /**
+   * Create a {@link ContentVO} for a file whose checksum is already known
+   *
+   * @param item
+   * @param file
+   * @param checksum the MD5 checksum of the file, or null if not known
+   * @param user
+   * @return
+   * @throws ImejiException
+   */
+  public ContentVO create(Item item, File file, String checksum, User user) throws ImejiException {
+    ContentVO contentVO = uploadFile(new ContentVO(), item.getId().toString(), file, checksum, user);
     contentVO = controller.create(contentVO, Imeji.adminUser);
     analyzeFile(contentVO);
     messageService.add(new ItemMessage(MessageType.UPLOAD_FILE, item));
@@ -186,6 +202,20 @@ public class ContentService extends SearchServiceAbstract<ContentVO> implements
     return controller.getContentId(URI.create(itemId)).toString();
   }
 
+  /**
+   * Find the content ids of many items at once
+   * 
+   * @param itemIds
+   * @return a map [itemId, contentId], in the order of the items
+   */
+  public Map<String, String> findContentIds(Collection<String> itemIds) {
+    final Map<String, String> contentIds = new LinkedHashMap<>(itemIds.size());
+    for (final String itemId : itemIds) {
+      contentIds.put(itemId, findContentId(itemId));
+    }
+    return contentIds;
+  }
+
   /**
    * Update the ContentVO. The file will get a new url
    *
@@ -198,6 +228,20 @@ public class ContentService extends SearchServiceAbstract<ContentVO> implements
    * @throws ImejiException
    */
   public ContentVO update(Item item, File file, User user) throws ImejiException {
+    return update(item, file, null, user);
+  }
+
+  /**
+   * Update the file of a {@link ContentVO} with a file whose checksum is already known
+   *
+   * @param item
+   * @param file
+   * @param checksum the MD5 checksum of the file, or null if not known
+   * @param user
+   * @return
+   * @throws ImejiException
+   */
+  public ContentVO update(Item item, File file, String checksum, User user) throws ImejiException {
     ContentVO contentVO = retrieveLazy(findContentId(item.getId().toString()));
     final StorageController storageController = new StorageController();
     try {
@@ -209,7 +253,7 @@ public class ContentService extends SearchServiceAbstract<ContentVO> implements
       // Delete file should not stop update process
       LOGGER.error("Error deleting file", e);
     }
-    contentVO = uploadFile(contentVO, item.getId().toString(), file, user);
+    contentVO = uploadFile(contentVO, item.getId().toString(), file, checksum, user);
     contentVO = controller.update(contentVO, Imeji.adminUser);
     analyzeFile(contentVO);
     messageService.add(new ItemMessage(MessageType.CHANGE_FILE, item));
@@ -270,14 +314,15 @@ public class ContentService extends SearchServiceAbstract<ContentVO> implements
    * @param file
    * @param filename
    * @param contentVO
+   * @param checksum
    * @param user
    * @param c
    * @return
    * @throws ImejiException
    */
-  private ContentVO uploadFile(ContentVO contentVO, String itemId, File file, User user) throws ImejiException {
+  private ContentVO uploadFile(ContentVO contentVO, String itemId, File file, String checksum, User user) throws ImejiException {
     final StorageController sc = new StorageController();
-    final UploadResult uploadResult = sc.upload(file.getName(), file);
+    final UploadResult uploadResult = sc.upload(file.getName(), file, checksum);
     return toContentVO(itemId, uploadResult);
   }
 
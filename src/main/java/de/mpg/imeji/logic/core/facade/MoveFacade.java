@@ -1,5 +1,6 @@
 package de.mpg.imeji.logic.core.facade;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -31,6 +32,7 @@ import de.mpg.imeji.logic.model.Properties.Status;
 import de.mpg.imeji.logic.model.User;
 import de.mpg.imeji.logic.model.aspects.ChangeMember;
 import de.mpg.imeji.logic.model.aspects.ChangeMember.ActionType;
+import de.mpg.imeji.logic.search.elasticsearch.script.CollectionMoveIndexScript;
 import de.mpg.imeji.logic.security.authorization.Authorization;
 import de.mpg.imeji.logic.util.ObjectHelper;
 import de.mpg.imeji.logic.workflow.WorkflowValidator;
@@ -117,6 +119,7 @@ public class MoveFacade implements Serializable {
       collectionService.release(collection, user, license);
     }
 
+    final List<String> oldAncestors = new HierarchyService().findAllParents(collection.getId().toString());
     // Move collection 
     List<ChangeMember> changeParts = new ArrayList<ChangeMember>(1);
     try {
@@ -135,12 +138,28 @@ public class MoveFacade implements Serializable {
       }
 
       HierarchyService.reloadHierarchy();
+      updateAncestors(collection, oldAncestors);
     } catch (NoSuchFieldException | SecurityException e) {
       LOGGER.error("Could not move collection", e);
     }
 
   }
 
+  /**
+   * Update in the search index the ancestors of all objects below the moved collection
+   * 
+   * @param collection
+   * @param oldAncestors
+   */
+  private void updateAncestors(CollectionImeji collection, List<String> oldAncestors) {
+    final String collectionId = collection.getId().toString();
+    try {
+      CollectionMoveIndexScript.run(collectionId, oldAncestors, new HierarchyService().findAllParents(collectionId));
+    } catch (final IOException e) {
+      LOGGER.error("Error updating the ancestors of the objects of collection " + collectionId, e);
+    }
+  }
+
   /**
    * Throw {@link NotAllowedError} if the move operation is not possible, i.e if:
    * <li>the user can not update the collection and therefore not add new objects
@@ -215,8 +234,8 @@ public class MoveFacade implements Serializable {
    */
   private List<ContentVO> retrieveContentBatchLazy(List<Item> items) throws ImejiException {
     ContentService contentService = new ContentService();
-    List<String> contentIds =
-        items.stream().map(item -> contentService.findContentId(item.getId().toString())).collect(Collectors.toList());
+    List<String> contentIds = new ArrayList<>(
+        contentService.findContentIds(items.stream().map(item -> item.getId().toString()).collect(Collectors.toList())).values());
     return contentService.retrieveBatchLazy(contentIds);
   }
 
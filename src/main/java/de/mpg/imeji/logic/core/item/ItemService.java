@@ -30,6 +30,7 @@ import de.mpg.imeji.logic.core.facade.MoveFacade;
 import de.mpg.imeji.logic.core.facade.WorkflowFacade;
 import de.mpg.imeji.logic.generic.SearchServiceAbstract;
 import de.mpg.imeji.logic.model.CollectionImeji;
+import de.mpg.imeji.logic.model.ContentVO;
 import de.mpg.imeji.logic.model.Item;
 import de.mpg.imeji.logic.model.License;
 import de.mpg.imeji.logic.model.SearchFields;
@@ -50,6 +51,7 @@ import de.mpg.imeji.logic.search.model.SearchQuery;
 import de.mpg.imeji.logic.search.model.SearchResult;
 import de.mpg.imeji.logic.search.model.SortCriterion;
 import de.mpg.imeji.logic.security.user.UserService;
+import de.mpg.imeji.logic.security.user.util.QuotaLedger;
 import de.mpg.imeji.logic.security.user.util.QuotaUtil;
 import de.mpg.imeji.logic.storage.Storage;
 import de.mpg.imeji.logic.storage.StorageController;
@@ -103,15 +105,33 @@ public class ItemService extends SearchServiceAbstract<Item> {
    * @throws ImejiException
    */
   public Item createWithFile(Item item, File f, String filename, CollectionImeji c, User user) throws ImejiException {
+    return createWithFile(item, f, null, filename, c, user);
+  }
+
+  /**
+   * Create an {@link Item} for a {@link File} whose checksum has been calculated while the file was
+   * written
+   *
+   * @param item
+   * @param f
+   * @param checksum the MD5 checksum of the file, or null if not known
+   * @param filename
+   * @param c
+   * @param user
+   * @return
+   * @throws ImejiException
+   */
+  public Item createWithFile(Item item, File f, String checksum, String filename, CollectionImeji c, User user) throws ImejiException {
     if (item == null) {
       item = ImejiFactory.newItem(c);
     }
-    preValidateUpload(filename, c, f, user, item, false);
+    checksum = preValidateUpload(filename, c, f, checksum, user, item, false);
     item.setFilename(filename);
     item.setFileSize(f.length());
     item.setFiletype(StorageUtils.getMimeType(f));
     item = create(item, c, user);
-    new ContentService().create(item, f, user);
+    new ContentService().create(item, f, checksum, user);
+    QuotaLedger.addItems(Arrays.asList(item));
     return item;
   }
 
@@ -121,17 +141,24 @@ public class ItemService extends SearchServiceAbstract<Item> {
    * @param filename
    * @param c
    * @param f
+   * @param checksum the MD5 checksum of the file, or null if not known
    * @param user
+   * @return the checksum of the file
    * @throws ImejiException
    */
-  private void preValidateUpload(String filename, CollectionImeji c, File f, User user, Item item, boolean isUpdate) throws ImejiException {
+  private String preValidateUpload(String filename, CollectionImeji c, File f, String checksum, User user, Item item, boolean isUpdate)
+      throws ImejiException {
     if (StringHelper.isNullOrEmptyTrim(filename)) {
       throw new UnprocessableError("Filename must not be empty!");
     }
     validateFilenameExists(filename, c.getId(), item, isUpdate);
-    validateChecksum(c.getId(), f, isUpdate);
+    if (checksum == null) {
+      checksum = StorageUtils.calculateChecksum(f);
+    }
+    validateChecksum(checksum, c.getId(), f, isUpdate);
     validateFileFormat(f);
     QuotaUtil.checkQuota(user, f, c);
+    return checksum;
   }
 
   /**
@@ -372,14 +399,16 @@ public class ItemService extends SearchServiceAbstract<Item> {
    */
   public Item updateFile(Item item, CollectionImeji col, File f, String filename, User user) throws ImejiException {
     //validateChecksum(item.getCollection(), f, true);
-    preValidateUpload(filename, col, f, user, item, true);
+    final String checksum = preValidateUpload(filename, col, f, null, user, item, true);
     if (filename != null) {
       item.setFilename(filename);
     }
+    final long previousFileSize = item.getFileSize();
     item.setFileSize(f.length());
     item.setFiletype(StorageUtils.getMimeType(f));
     item = update(item, user);
-    new ContentService().update(item, f, user);
+    new ContentService().update(item, f, checksum, user);
+    QuotaLedger.add(item.getCreatedBy(), item.getFileSize() - previousFileSize);
     return item;
   }
 
@@ -423,6 +452,7 @@ public class ItemService extends SearchServiceAbstract<Item> {
    */
   public void delete(List<Item> items, User user) throws ImejiException {
     itemController.deleteBatch(items, user);
+    QuotaLedger.removeItems(items);
     Imeji.getEXECUTOR().submit(new RemoveFileTask(items));
   }
 
@@ -553,6 +583,7 @@ public class ItemService extends SearchServiceAbstract<Item> {
    */
   public void withdraw(List<Item> l, String comment, User user) throws ImejiException {
     new WorkflowFacade().withdrawItems(l, comment, user);
+    QuotaLedger.removeItems(l);
     Imeji.getEXECUTOR().submit(new RemoveFileTask(l));
   }
 
@@ -630,8 +661,23 @@ public class ItemService extends SearchServiceAbstract<Item> {
 
     @Override
     public Integer call() throws Exception {
-      for (final Item item : items) {
-        removeFileFromStorage(item);
+      final ContentService contentService = new ContentService();
+      final List<String> contentIds = new ArrayList<>(
+          contentService.findContentIds(items.stream().map(item -> item.getId().toString()).collect(Collectors.toList())).values());
+      List<ContentVO> contents;
+      try {
+        contents = contentService.retrieveBatchLazy(contentIds);
+      } catch (final NotFoundException e) {
+        // Some contents are already deleted: remove the files one by one
+        items.forEach(item -> removeFileFromStorage(item));
+        return null;
+      }
+      for (final ContentVO content : contents) {
+        try {
+          contentService.delete(content);
+        } catch (final Exception e) {
+          LOGGER.error("error deleting file", e);
+        }
       }
       return null;
     }
@@ -670,17 +716,6 @@ public class ItemService extends SearchServiceAbstract<Item> {
     return !isNullOrEmpty(fetchUrl);
   }
 
-  /**
-   * Throws an {@link Exception} if the file cannot be uploaded. The validation will only occur when
-   * the file has been stored locally)
-   *
-   * @throws ImejiException
-   * @throws UnprocessableError
-   */
-  private void validateChecksum(URI collectionURI, File file, Boolean isUpdate) throws ImejiException {
-    validateChecksum(StorageUtils.calculateChecksum(file), collectionURI, file, isUpdate);
-  }
-
   /**
    * Throws an {@link Exception} if the file cannot be uploaded. The validation will only occur when
    * the file has been stored locally)
@@ -832,16 +867,7 @@ public class ItemService extends SearchServiceAbstract<Item> {
     final User targetCollectionUser =
         col == null || user.getId().equals(col.getCreatedBy()) ? user : new UserService().retrieve(col.getCreatedBy(), Imeji.adminUser);
 
-    final Search search = SearchFactory.create(); // default is JENA
-    final List<String> results = search.searchString(JenaCustomQueries.selectUserFileSize(user.getId().toString()), null, null,
-        Search.SEARCH_FROM_START_INDEX, Search.GET_ALL_RESULTS).getResults();
-    long currentDiskUsage = 0L;
-    try {
-      currentDiskUsage = Long.parseLong(results.get(0).toString());
-    } catch (final NumberFormatException e) {
-      throw new UnprocessableError("Cannot parse currentDiskSpaceUsage " + results.get(0).toString() + "; requested by user: "
-          + user.getEmail() + "; targetCollectionUser: " + targetCollectionUser.getEmail(), e);
-    }
+    final long currentDiskUsage = QuotaLedger.getUsed(user.getId());
     final long needed = currentDiskUsage + file.length();
     if (needed > targetCollectionUser.getQuota()) {
       throw new QuotaExceededException("Data quota (" + QuotaUtil.getQuotaHumanReadable(targetCollectionUser.getQuota(), Locale.ENGLISH)
@@ -1,7 +1,9 @@
 package de.mpg.imeji.logic.db.keyValue;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface for Key/Value Store
@@ -35,6 +37,13 @@ public interface KeyValueStore {
    */
   public void put(String key, byte[] value);
 
+  /**
+   * Put all key/values to the store
+   *
+   * @param entries
+   */
+  public void putAll(Map<String, byte[]> entries);
+
   /**
    * Delete an entry from the store
    *
@@ -42,6 +51,18 @@ public interface KeyValueStore {
    */
   public void delete(String key);
 
+  /**
+   * Delete all entries with the keys from the store
+   *
+   * @param keys
+   */
+  public void deleteAll(Collection<String> keys);
+
+  /**
+   * Commit all pending writes
+   */
+  public void flush();
+
   /**
    * Return a list of value which the key matches the pattern
    *
@@ -51,6 +72,25 @@ public interface KeyValueStore {
    */
   public List<byte[]> getList(String keyPattern);
 
+  /**
+   * Return the list of values which the key starts with the prefix, ordered by key if the store is
+   * ordered
+   *
+   * @param prefix
+   * @return
+   */
+  public List<byte[]> getListByPrefix(String prefix);
+
+  /**
+   * Return the list of values which the key is between fromKey (inclusive) and toKey (exclusive),
+   * ordered by key if the store is ordered
+   *
+   * @param fromKey
+   * @param toKey
+   * @return
+   */
+  public List<byte[]> getListInRange(String fromKey, String toKey);
+
   /**
    * Start the Key/Value Store
    *
@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -106,8 +107,45 @@ public class KeyValueStoreService {
    */
 
   public <T> List<T> getList(String keyPattern, Class<T> clazz) throws ImejiException {
+    return deserializeList(store.getList(keyPattern), clazz);
+  }
+
+  /**
+   * Return all elements with a Key starting with the prefix
+   *
+   * @param prefix
+   * @param clazz
+   * @return
+   * @throws ImejiException
+   */
+  public <T> List<T> getListByPrefix(String prefix, Class<T> clazz) throws ImejiException {
+    return deserializeList(store.getListByPrefix(prefix), clazz);
+  }
+
+  /**
+   * Return all elements with a Key between fromKey (inclusive) and toKey (exclusive)
+   *
+   * @param fromKey
+   * @param toKey
+   * @param clazz
+   * @return
+   * @throws ImejiException
+   */
+  public <T> List<T> getListInRange(String fromKey, String toKey, Class<T> clazz) throws ImejiException {
+    return deserializeList(store.getListInRange(fromKey, toKey), clazz);
+  }
+
+  /**
+   * Deserialize a list of values
+   *
+   * @param values
+   * @param clazz
+   * @return
+   * @throws ImejiException
+   */
+  private <T> List<T> deserializeList(List<byte[]> values, Class<T> clazz) throws ImejiException {
     final List<T> list = new ArrayList<>();
-    for (final byte[] b : store.getList(keyPattern)) {
+    for (final byte[] b : values) {
       try {
         list.add(clazz.cast(deserialize(b)));
       } catch (ClassNotFoundException e) {
@@ -134,6 +172,24 @@ public class KeyValueStoreService {
     }
   }
 
+  /**
+   * Put all objects to the Key/Value Store
+   *
+   * @param entries
+   * @throws ImejiException
+   */
+  public void putAll(Map<String, ?> entries) throws ImejiException {
+    try {
+      final Map<String, byte[]> serialized = new HashMap<>(entries.size());
+      for (final Map.Entry<String, ?> entry : entries.entrySet()) {
+        serialized.put(entry.getKey(), serialize(entry.getValue()));
+      }
+      store.putAll(serialized);
+    } catch (final Exception e) {
+      throw new ImejiException("Error writing Data in Key/Value Store", e);
+    }
+  }
+
   /**
    * Delete the key/value by its key
    *
@@ -148,6 +204,20 @@ public class KeyValueStoreService {
     }
   }
 
+  /**
+   * Delete all key/values with the keys
+   *
+   * @param keys
+   * @throws ImejiException
+   */
+  public void deleteAll(Collection<String> keys) throws ImejiException {
+    try {
+      store.deleteAll(keys);
+    } catch (final Exception e) {
+      throw new ImejiException("Error deleting Data " + store.getName(), e);
+    }
+  }
+
   /**
    * Create the Object from its serialized byte representation
    *
@@ -0,0 +1,74 @@
+package de.mpg.imeji.logic.db.keyValue.stores;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.mapdb.BTreeKeySerializer;
+import org.mapdb.BTreeMap;
+import org.mapdb.DB;
+
+/**
+ * A Key Value store based on the MapsDB BTreeMap. The keys are ordered, so that prefix and range
+ * scans only read the matching entries
+ */
+public class BTreeMapStore extends MapDBStore {
+  public static final String STORE_FILENAME_PREFIX = "imeji_BTreeMap_";
+  private BTreeMap<String, byte[]> map;
+
+  /**
+   * Create a new {@link BTreeMapStore}
+   *
+   * @param name
+   */
+  public BTreeMapStore(String name) {
+    super(name);
+  }
+
+  /**
+   * Create a new {@link BTreeMapStore} committing the writes by batch
+   *
+   * @param name
+   * @param batchSize
+   * @param batchDelay
+   */
+  public BTreeMapStore(String name, int batchSize, long batchDelay) {
+    super(name, batchSize, batchDelay);
+  }
+
+  @Override
+  public List<byte[]> getList(String keyPattern) {
+    final List<byte[]> list = new ArrayList<>();
+    for (final Map.Entry<String, byte[]> entry : map.entrySet()) {
+      if (entry.getKey().matches(keyPattern)) {
+        list.add(entry.getValue());
+      }
+    }
+    return list;
+  }
+
+  @Override
+  public List<byte[]> getListByPrefix(String prefix) {
+    return new ArrayList<>(map.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values());
+  }
+
+  @Override
+  public List<byte[]> getListInRange(String fromKey, String toKey) {
+    return new ArrayList<>(map.subMap(fromKey, true, toKey, false).values());
+  }
+
+  @Override
+  protected String getFilenamePrefix() {
+    return STORE_FILENAME_PREFIX;
+  }
+
+  @Override
+  protected void openMap(DB db) {
+    map = db.createTreeMap(name).keySerializer(BTreeKeySerializer.STRING).makeOrGet();
+  }
+
+  @Override
+  protected Map<String, byte[]> getMap() {
+    return map;
+  }
+}
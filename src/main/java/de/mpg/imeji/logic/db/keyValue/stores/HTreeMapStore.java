@@ -1,30 +1,22 @@
 package de.mpg.imeji.logic.db.keyValue.stores;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
-import org.apache.commons.io.FileUtils;
 import org.mapdb.DB;
-import org.mapdb.DBMaker;
 import org.mapdb.HTreeMap;
 import org.mapdb.Serializer;
 
-import de.mpg.imeji.logic.config.Imeji;
-import de.mpg.imeji.logic.db.keyValue.KeyValueStore;
-import de.mpg.imeji.logic.util.StringHelper;
-
 /**
  * A Key Value store based on the MapsDB HTreeMapStore
  *
  * @author bastiens
  *
  */
-public class HTreeMapStore implements KeyValueStore {
+public class HTreeMapStore extends MapDBStore {
   public static final String STORE_FILENAME_PREFIX = "imeji_HTreeMap_";
-  protected static DB STORE;
-  protected HTreeMap<Object, Object> map;
-  protected String name;
+  protected HTreeMap<String, byte[]> map;
 
   /**
    * Basic HTreeMapStore without expiration date
@@ -32,70 +24,65 @@ public class HTreeMapStore implements KeyValueStore {
    * @param storeName
    */
   public HTreeMapStore(String name) {
-    this.name = name;
-  }
-
-  @Override
-  public String getName() {
-    return name;
-  }
-
-  @Override
-  public byte[] get(String key) {
-    return (byte[]) map.get(key);
+    super(name);
   }
 
-  @Override
-  public void put(String key, byte[] value) {
-    map.put(key, value);
-    STORE.commit();
+  /**
+   * HTreeMapStore committing the writes by batch
+   *
+   * @param name
+   * @param batchSize
+   * @param batchDelay
+   */
+  public HTreeMapStore(String name, int batchSize, long batchDelay) {
+    super(name, batchSize, batchDelay);
   }
 
   @Override
-  public void delete(String key) {
-    map.remove(key);
-    STORE.commit();
+  public List<byte[]> getList(String keyPattern) {
+    final List<byte[]> list = new ArrayList<>();
+    for (final String key : map.keySet()) {
+      if (key.matches(keyPattern)) {
+        list.add(map.get(key));
+      }
+    }
+    return list;
   }
 
   @Override
-  public List<byte[]> getList(String keyPattern) {
+  public List<byte[]> getListByPrefix(String prefix) {
     final List<byte[]> list = new ArrayList<>();
-    for (final Object key : map.keySet()) {
-      if (((String) key).matches(keyPattern)) {
-        list.add((byte[]) map.get(key));
+    for (final String key : map.keySet()) {
+      if (key.startsWith(prefix)) {
+        list.add(map.get(key));
       }
     }
     return list;
   }
 
   @Override
-  public void start() {
-    final File f = new File(StringHelper.normalizePath(Imeji.tdbPath) + STORE_FILENAME_PREFIX + name);
-    STORE = DBMaker.newFileDB(f).make();
-    map = STORE.createHashMap(name).keySerializer(Serializer.STRING).makeOrGet();
-
+  public List<byte[]> getListInRange(String fromKey, String toKey) {
+    final List<byte[]> list = new ArrayList<>();
+    for (final String key : map.keySet()) {
+      if (key.compareTo(fromKey) >= 0 && key.compareTo(toKey) < 0) {
+        list.add(map.get(key));
+      }
+    }
+    return list;
   }
 
   @Override
-  public synchronized void stop() {
-    if (!STORE.isClosed()) {
-      STORE.commit();
-      STORE.close();
-    }
+  protected String getFilenamePrefix() {
+    return STORE_FILENAME_PREFIX;
   }
 
   @Override
-  public boolean isStarted() {
-    return STORE != null && map != null && !STORE.isClosed();
+  protected void openMap(DB db) {
+    map = db.createHashMap(name).keySerializer(Serializer.STRING).makeOrGet();
   }
 
   @Override
-  public void reset() {
-    if (isStarted()) {
-      map.clear();
-      stop();
-      FileUtils.deleteQuietly(new File(StringHelper.normalizePath(Imeji.tdbPath) + STORE_FILENAME_PREFIX + name));
-      start();
-    }
+  protected Map<String, byte[]> getMap() {
+    return map;
   }
 }
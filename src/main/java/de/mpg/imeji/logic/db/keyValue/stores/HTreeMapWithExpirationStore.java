@@ -1,14 +1,10 @@
 package de.mpg.imeji.logic.db.keyValue.stores;
 
-import java.io.File;
 import java.util.concurrent.TimeUnit;
 
-import org.mapdb.DBMaker;
+import org.mapdb.DB;
 import org.mapdb.Serializer;
 
-import de.mpg.imeji.logic.config.Imeji;
-import de.mpg.imeji.logic.util.StringHelper;
-
 /**
  * Extends the HTreeMapStore to add expiration capability
  *
@@ -24,9 +20,8 @@ public class HTreeMapWithExpirationStore extends HTreeMapStore {
   }
 
   @Override
-  public void start() {
-    STORE = DBMaker.newFileDB(new File(StringHelper.normalizePath(Imeji.tdbPath) + STORE_FILENAME_PREFIX + name)).make();
-    map = STORE.createHashMap(name).keySerializer(Serializer.STRING).expireAfterWrite(this.expiration, TimeUnit.DAYS).makeOrGet();
+  protected void openMap(DB db) {
+    map = db.createHashMap(name).keySerializer(Serializer.STRING).expireAfterWrite(this.expiration, TimeUnit.DAYS).makeOrGet();
   }
 
 }
@@ -0,0 +1,184 @@
+package de.mpg.imeji.logic.db.keyValue.stores;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+
+import de.mpg.imeji.logic.config.Imeji;
+import de.mpg.imeji.logic.db.keyValue.KeyValueStore;
+import de.mpg.imeji.logic.util.StringHelper;
+
+/**
+ * Common part of the Key Value stores based on MapDB. Every store has its own {@link DB}. <br/>
+ * Writes are committed according to the batch size and the batch delay of the store: <br/>
+ * - with a batch size of 1 (default), every write is committed immediately <br/>
+ * - otherwise, the writes are committed once batch size writes are pending, or at the latest batch
+ * delay ms after the first pending write
+ */
+public abstract class MapDBStore implements KeyValueStore {
+  private static final Logger LOGGER = LogManager.getLogger(MapDBStore.class);
+  private static final ScheduledExecutorService FLUSH_EXECUTOR = new ScheduledThreadPoolExecutor(1, r -> {
+    final Thread t = new Thread(r, "imeji-keyvalue-flush");
+    t.setDaemon(true);
+    return t;
+  });
+  protected final String name;
+  protected DB store;
+  private final int batchSize;
+  private final long batchDelay;
+  private int pending = 0;
+  private boolean flushScheduled = false;
+
+  /**
+   * Store committing every write
+   *
+   * @param name
+   */
+  public MapDBStore(String name) {
+    this(name, 1, 0);
+  }
+
+  /**
+   * Store committing the writes by batch
+   *
+   * @param name
+   * @param batchSize the number of writes committed together
+   * @param batchDelay the maximum time (in ms) a write waits for its commit
+   */
+  public MapDBStore(String name, int batchSize, long batchDelay) {
+    this.name = name;
+    this.batchSize = Math.max(1, batchSize);
+    this.batchDelay = Math.max(0, batchDelay);
+  }
+
+  /**
+   * The prefix of the file of the store
+   *
+   * @return
+   */
+  protected abstract String getFilenamePrefix();
+
+  /**
+   * Create or open the map of the store in the {@link DB}
+   *
+   * @param db
+   */
+  protected abstract void openMap(DB db);
+
+  /**
+   * The map of the store
+   *
+   * @return
+   */
+  protected abstract Map<String, byte[]> getMap();
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public byte[] get(String key) {
+    return getMap().get(key);
+  }
+
+  @Override
+  public void put(String key, byte[] value) {
+    getMap().put(key, value);
+    written(1);
+  }
+
+  @Override
+  public void putAll(Map<String, byte[]> entries) {
+    getMap().putAll(entries);
+    written(entries.size());
+  }
+
+  @Override
+  public void delete(String key) {
+    getMap().remove(key);
+    written(1);
+  }
+
+  @Override
+  public void deleteAll(Collection<String> keys) {
+    for (final String key : keys) {
+      getMap().remove(key);
+    }
+    written(keys.size());
+  }
+
+  @Override
+  public synchronized void flush() {
+    flushScheduled = false;
+    if (pending > 0 && isStarted()) {
+      store.commit();
+      pending = 0;
+    }
+  }
+
+  @Override
+  public synchronized void start() {
+    store = DBMaker.newFileDB(getFile()).make();
+    openMap(store);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (store != null && !store.isClosed()) {
+      store.commit();
+      store.close();
+      pending = 0;
+    }
+  }
+
+  @Override
+  public boolean isStarted() {
+    return store != null && getMap() != null && !store.isClosed();
+  }
+
+  @Override
+  public synchronized void reset() {
+    if (isStarted()) {
+      getMap().clear();
+      stop();
+      FileUtils.deleteQuietly(getFile());
+      start();
+    }
+  }
+
+  /**
+   * Count the writes and commit them if the batch is full. Otherwise make sure they will be
+   * committed after the batch delay
+   *
+   * @param writes
+   */
+  private synchronized void written(int writes) {
+    pending += writes;
+    if (pending >= batchSize) {
+      flush();
+    } else if (!flushScheduled) {
+      flushScheduled = true;
+      FLUSH_EXECUTOR.schedule(() -> {
+        try {
+          flush();
+        } catch (final Exception e) {
+          LOGGER.error("Error committing store " + name, e);
+        }
+      }, batchDelay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private File getFile() {
+    return new File(StringHelper.normalizePath(Imeji.tdbPath) + getFilenamePrefix() + name);
+  }
+}
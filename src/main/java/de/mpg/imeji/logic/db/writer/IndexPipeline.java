@@ -0,0 +1,306 @@
+package de.mpg.imeji.logic.db.writer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.mpg.imeji.exceptions.SearchIndexBulkFailureException;
+import de.mpg.imeji.exceptions.UnprocessableError;
+import de.mpg.imeji.logic.db.indexretry.model.RetryBaseRequest;
+import de.mpg.imeji.logic.db.indexretry.model.RetryDeleteFromIndexRequest;
+import de.mpg.imeji.logic.db.indexretry.model.RetryIndexRequest;
+import de.mpg.imeji.logic.db.indexretry.queue.RetryQueue;
+import de.mpg.imeji.logic.search.SearchIndexer;
+import de.mpg.imeji.logic.search.elasticsearch.ElasticIndexer;
+
+/**
+ * Application wide pipeline writing the changes of the database into the search index: <br/>
+ * - Index and delete operations are queued, and sent with one bulk request per index by a bounded
+ * pool of workers, once enough operations are pending or after a short delay <br/>
+ * - Operations on the same document which are still pending are collapsed: only the last one is
+ * sent <br/>
+ * - Operations on a document which is being sent wait for the next bulk request, so that the
+ * operations on a document are always sent in their order <br/>
+ * - Operations which could not be sent, or which are queued after the shutdown, are added to the
+ * {@link RetryQueue} <br/>
+ * - Callers waiting for a {@link Acknowledgement#SYNC} operation can read their writes: the pending
+ * operations are sent immediately
+ */
+public class IndexPipeline {
+  private static final Logger LOGGER = LogManager.getLogger(IndexPipeline.class);
+  private static final int BULK_SIZE = 500;
+  private static final long MAX_DELAY = 200;
+  private static final int WORKERS = 4;
+  private static final IndexPipeline INSTANCE = new IndexPipeline();
+  private final AtomicLong sequence = new AtomicLong();
+  private final Map<String, Operation> pending = new LinkedHashMap<>();
+  private final Set<String> inFlight = new HashSet<>();
+  private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> newThread(r, "imeji-index-flush"));
+  private final ExecutorService workers = Executors.newFixedThreadPool(WORKERS, r -> newThread(r, "imeji-index-worker"));
+  private boolean flushScheduled = false;
+
+  /**
+   * When the caller of an operation is acknowledged: <br/>
+   * - SYNC: once the operation has been sent to the search index <br/>
+   * - ASYNC: once the operation has been queued. The search index is then up to date only after
+   * the flush delay and the refresh interval of the index: not to be used when the caller, or the
+   * next page displayed to the user, searches the written objects
+   */
+  public enum Acknowledgement {
+    SYNC, ASYNC;
+  }
+
+  /**
+   * An index or delete operation on one document
+   */
+  private static class Operation {
+    private final String key;
+    private final Object object;
+    private final SearchIndexer indexer;
+    private final String index;
+    private final boolean delete;
+    private CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private Operation(String key, Object object, SearchIndexer indexer, boolean delete) {
+      this.key = key;
+      this.object = object;
+      this.indexer = indexer;
+      this.index = getIndexName(indexer);
+      this.delete = delete;
+    }
+  }
+
+  /**
+   * private constructor
+   */
+  private IndexPipeline() {
+
+  }
+
+  public static IndexPipeline getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Queue the indexing of the objects
+   *
+   * @param objects
+   * @param indexer
+   * @param ack
+   * @return completed once the objects have been sent to the search index
+   */
+  public CompletableFuture<Void> index(List<Object> objects, SearchIndexer indexer, Acknowledgement ack) {
+    return enqueue(objects, indexer, false, ack);
+  }
+
+  /**
+   * Queue the deletion of the objects from the search index
+   *
+   * @param objects
+   * @param indexer
+   * @param ack
+   * @return completed once the objects have been deleted from the search index
+   */
+  public CompletableFuture<Void> delete(List<Object> objects, SearchIndexer indexer, Acknowledgement ack) {
+    return enqueue(objects, indexer, true, ack);
+  }
+
+  /**
+   * Send all pending operations and wait until they have been sent (on shutdown)
+   */
+  public void shutdown() {
+    synchronized (pending) {
+      if (flusher.isShutdown()) {
+        return;
+      }
+      flusher.execute(this::flush);
+      flusher.shutdown();
+    }
+    try {
+      flusher.awaitTermination(1, TimeUnit.MINUTES);
+      workers.shutdown();
+      workers.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private CompletableFuture<Void> enqueue(List<Object> objects, SearchIndexer indexer, boolean delete, Acknowledgement ack) {
+    final List<CompletableFuture<Void>> futures = new ArrayList<>(objects.size());
+    synchronized (pending) {
+      for (final Object o : objects) {
+        final URI id = WriterFacade.extractID(o);
+        final String key = id != null ? id.toString() : "#" + sequence.incrementAndGet();
+        final Operation operation = new Operation(key, o, indexer, delete);
+        final Operation previous = pending.remove(key);
+        if (previous != null) {
+          operation.done = previous.done;
+        }
+        pending.put(key, operation);
+        futures.add(operation.done);
+      }
+      try {
+        if (ack == Acknowledgement.SYNC || pending.size() >= BULK_SIZE) {
+          flusher.execute(this::flush);
+        } else if (!flushScheduled) {
+          flusher.schedule(this::flush, MAX_DELAY, TimeUnit.MILLISECONDS);
+          flushScheduled = true;
+        }
+      } catch (final RejectedExecutionException e) {
+        // the pipeline has been shut down
+        retryPending();
+      }
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]));
+  }
+
+  /**
+   * Take all pending operations whose document isn't being sent, and send them with one bulk
+   * request per index and type of operation
+   */
+  private void flush() {
+    final Map<String, List<Operation>> indexOperations = new LinkedHashMap<>();
+    final Map<String, List<Operation>> deleteOperations = new LinkedHashMap<>();
+    synchronized (pending) {
+      flushScheduled = false;
+      final Iterator<Operation> it = pending.values().iterator();
+      while (it.hasNext()) {
+        final Operation operation = it.next();
+        if (inFlight.add(operation.key)) {
+          it.remove();
+          (operation.delete ? deleteOperations : indexOperations).computeIfAbsent(operation.index, k -> new ArrayList<>())
+              .add(operation);
+        }
+      }
+    }
+    submit(indexOperations);
+    submit(deleteOperations);
+  }
+
+  private void submit(Map<String, List<Operation>> operations) {
+    for (final List<Operation> list : operations.values()) {
+      for (int i = 0; i < list.size(); i += BULK_SIZE) {
+        final List<Operation> bulk = list.subList(i, Math.min(list.size(), i + BULK_SIZE));
+        try {
+          workers.execute(() -> send(bulk));
+        } catch (final RejectedExecutionException e) {
+          // the pipeline has been shut down
+          retry(bulk);
+          synchronized (pending) {
+            bulk.forEach(o -> inFlight.remove(o.key));
+          }
+          bulk.forEach(o -> o.done.complete(null));
+        }
+      }
+    }
+  }
+
+  /**
+   * Send the operations (all of the same index and type) with one bulk request. If it failed, add
+   * the operations to the {@link RetryQueue}
+   *
+   * @param operations
+   */
+  private void send(List<Operation> operations) {
+    final List<Object> objects = operations.stream().map(o -> o.object).collect(Collectors.toList());
+    final boolean delete = operations.get(0).delete;
+    try {
+      if (delete) {
+        operations.get(0).indexer.deleteBatch(objects);
+      } else {
+        operations.get(0).indexer.indexBatch(objects);
+      }
+    } catch (final SearchIndexBulkFailureException e) {
+      // in a bulk request one or more operations failed
+      RetryQueue.getInstance().addRetryIndexRequests(e.getRetryRequests(objects));
+    } catch (final UnprocessableError e) {
+      // there were problems transforming an object to a json representation, development error
+      LOGGER.error("Could not parse data object to json representation", e);
+    } catch (final Exception e) {
+      if (!(e instanceof IOException)) {
+        LOGGER.error("Error sending operations to the search index", e);
+      }
+      // SearchIndex is down, connection timed out: retry all objects
+      retry(operations);
+    } finally {
+      synchronized (pending) {
+        operations.forEach(o -> inFlight.remove(o.key));
+        if (!pending.isEmpty()) {
+          try {
+            flusher.execute(this::flush);
+          } catch (final RejectedExecutionException e) {
+            // the pipeline has been shut down and its last flush is done
+            retryPending();
+          }
+        }
+      }
+      operations.forEach(o -> o.done.complete(null));
+    }
+  }
+
+  /**
+   * Add all pending operations to the {@link RetryQueue}. Must be called while holding the lock on
+   * pending
+   */
+  private void retryPending() {
+    final List<Operation> operations = new ArrayList<>(pending.values());
+    pending.clear();
+    flushScheduled = false;
+    LOGGER.warn(operations.size() + " operations queued after the shutdown of the index pipeline are added to the retry queue");
+    retry(operations);
+    operations.forEach(o -> o.done.complete(null));
+  }
+
+  /**
+   * Add the operations to the {@link RetryQueue}
+   *
+   * @param operations
+   */
+  private static void retry(List<Operation> operations) {
+    final List<Object> indexed = new ArrayList<>();
+    final List<Object> deleted = new ArrayList<>();
+    operations.forEach(o -> (o.delete ? deleted : indexed).add(o.object));
+    final List<RetryBaseRequest> retryRequests = new ArrayList<>(operations.size());
+    if (!indexed.isEmpty()) {
+      retryRequests.addAll(RetryIndexRequest.getRetryIndexRequests(indexed));
+    }
+    if (!deleted.isEmpty()) {
+      retryRequests.addAll(RetryDeleteFromIndexRequest.getRetryDeleteFromIndexRequests(deleted));
+    }
+    RetryQueue.getInstance().addRetryIndexRequests(retryRequests);
+  }
+
+  /**
+   * The name of the index written by the indexer: every {@link WriterFacade} has its own indexer,
+   * the operations are grouped by index
+   *
+   * @param indexer
+   * @return
+   */
+  private static String getIndexName(SearchIndexer indexer) {
+    return indexer instanceof ElasticIndexer ? ((ElasticIndexer) indexer).getIndexName() : indexer.getClass().getName();
+  }
+
+  private static Thread newThread(Runnable r, String name) {
+    final Thread t = new Thread(r, name);
+    t.setDaemon(true);
+    return t;
+  }
+}
@@ -2,8 +2,6 @@ package de.mpg.imeji.logic.db.writer;
 
 import java.net.URI;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.apache.jena.Jena;
 import org.apache.jena.rdf.model.Model;
@@ -11,8 +9,8 @@ import org.apache.jena.rdf.model.Model;
 import de.mpg.imeji.exceptions.ImejiException;
 import de.mpg.imeji.j2j.transaction.CRUDTransaction;
 import de.mpg.imeji.j2j.transaction.ElementsTransaction;
+import de.mpg.imeji.j2j.transaction.GroupCommitWriter;
 import de.mpg.imeji.j2j.transaction.OperationType;
-import de.mpg.imeji.j2j.transaction.ThreadedTransaction;
 import de.mpg.imeji.j2j.transaction.Transaction;
 import de.mpg.imeji.logic.config.Imeji;
 import de.mpg.imeji.logic.db.reader.JenaReader;
@@ -24,8 +22,8 @@ import de.mpg.imeji.logic.search.jenasearch.JenaCustomQueries;
 /**
  * imeji WRITE operations (create/delete/update) in {@link Jena} <br/>
  * - Use {@link Transaction} <br/>
- * - For concurrency purpose, each write {@link Transaction} is made within a single {@link Thread}.
- * Use {@link ThreadedTransaction} <br/>
+ * - For concurrency purpose, all write {@link Transaction} are made by the single
+ * {@link GroupCommitWriter} of imeji <br/>
  * - for READ operations, uses {@link JenaReader}
  *
  * @author saquet (initial creation)
@@ -34,7 +32,6 @@ import de.mpg.imeji.logic.search.jenasearch.JenaCustomQueries;
  */
 public class JenaWriter implements Writer {
   private final String modelURI;
-  private static final ExecutorService WRITE_EXECUTOR = Executors.newSingleThreadExecutor();
 
   /**
    * Construct one {@link JenaWriter} for one {@link Model}
@@ -107,13 +104,13 @@ public class JenaWriter implements Writer {
   @Override
   public List<Object> editElements(List<ChangeMember> changeElements, User issuingUser) throws ImejiException {
     final ElementsTransaction multitypesTransaction = new ElementsTransaction(changeElements, issuingUser);
-    ThreadedTransaction.run(new ThreadedTransaction(multitypesTransaction, Imeji.tdbPath), WRITE_EXECUTOR);
+    Imeji.writer.write(multitypesTransaction);
     return multitypesTransaction.getResults();
   }
 
 
   /**
-   * Run one WRITE operation in {@link Transaction} within a {@link ThreadedTransaction}
+   * Run one WRITE operation in {@link Transaction} with the {@link GroupCommitWriter}
    *
    * @param objects
    * @param type
@@ -122,8 +119,8 @@ public class JenaWriter implements Writer {
    */
   private List<Object> runCRUDTransaction(List<Object> objects, OperationType type, User user, boolean lazy) throws ImejiException {
     final CRUDTransaction crudTransaction = new CRUDTransaction(objects, type, user, modelURI, lazy);
-    // Write Transaction needs to be added in a new Thread
-    ThreadedTransaction.run(new ThreadedTransaction(crudTransaction, Imeji.tdbPath), WRITE_EXECUTOR);
+    // Write Transaction are queued and committed by the writer thread
+    Imeji.writer.write(crudTransaction);
     return crudTransaction.getResults();
   }
 
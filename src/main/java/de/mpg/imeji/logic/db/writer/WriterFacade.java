@@ -1,6 +1,5 @@
 package de.mpg.imeji.logic.db.writer;
 
-import java.io.IOException;
 import java.net.URI;
 import java.security.Security;
 import java.util.ArrayList;
@@ -9,10 +8,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
@@ -21,15 +18,14 @@ import org.apache.logging.log4j.Logger;
 import de.mpg.imeji.exceptions.AuthenticationError;
 import de.mpg.imeji.exceptions.ImejiException;
 import de.mpg.imeji.exceptions.NotAllowedError;
-import de.mpg.imeji.exceptions.SearchIndexBulkFailureException;
-import de.mpg.imeji.exceptions.SearchIndexFailureException;
 import de.mpg.imeji.exceptions.UnprocessableError;
+import de.mpg.imeji.logic.batch.ElasticReIndexJob;
 import de.mpg.imeji.logic.config.Imeji;
 import de.mpg.imeji.logic.db.indexretry.RetryIndex;
 import de.mpg.imeji.logic.db.indexretry.model.RetryBaseRequest;
 import de.mpg.imeji.logic.db.indexretry.model.RetryDeleteFromIndexRequest;
 import de.mpg.imeji.logic.db.indexretry.model.RetryIndexRequest;
-import de.mpg.imeji.logic.db.indexretry.queue.RetryQueue;
+import de.mpg.imeji.logic.db.writer.IndexPipeline.Acknowledgement;
 import de.mpg.imeji.logic.model.CollectionImeji;
 import de.mpg.imeji.logic.model.ContentVO;
 import de.mpg.imeji.logic.model.Item;
@@ -59,7 +55,6 @@ public class WriterFacade {
   private static final Logger LOGGER = LogManager.getLogger(WriterFacade.class);
   private final Writer writer;
   private final SearchIndexer indexer;
-  private final ExecutorService executor = Executors.newCachedThreadPool();
 
   /**
    * Constructor without explicit model. Use when you want to write objects of multiple types within
@@ -107,12 +102,26 @@ public class WriterFacade {
    * de.mpg.imeji.logic.vo.User)
    */
   public List<Object> create(List<Object> objects, User user) throws ImejiException {
+    return create(objects, user, Acknowledgement.SYNC);
+  }
+
+  /**
+   * Create the objects, and return once they have been indexed (SYNC) or queued for indexing
+   * (ASYNC)
+   *
+   * @param objects
+   * @param user
+   * @param ack
+   * @return
+   * @throws ImejiException
+   */
+  public List<Object> create(List<Object> objects, User user, Acknowledgement ack) throws ImejiException {
     if (objects.isEmpty()) {
       return objects;
     }
     checkSecurity(objects, user, true);
     validate(objects, Validator.Method.CREATE);
-    List<Object> createdObjects = writeAndIndex(new CreateTask(objects, user), new IndexTask());
+    List<Object> createdObjects = writeAndIndex(new CreateTask(objects, user), new IndexTask(), ack);
     return createdObjects;
 
   }
@@ -124,12 +133,26 @@ public class WriterFacade {
    * de.mpg.imeji.logic.vo.User)
    */
   public void delete(List<Object> objects, User user) throws ImejiException {
+    delete(objects, user, Acknowledgement.SYNC);
+  }
+
+  /**
+   * Delete the objects, and return once they have been removed from the index (SYNC) or queued for
+   * removal (ASYNC)
+   *
+   * @param objects
+   * @param user
+   * @param ack
+   * @throws ImejiException
+   */
+  public void delete(List<Object> objects, User user, Acknowledgement ack) throws ImejiException {
     if (objects.isEmpty()) {
       return;
     }
     checkSecurity(objects, user, false);
     validate(objects, Validator.Method.DELETE);
-    writeAndIndex(new DeleteTask(objects, user), new DeleteIndexTask());
+    writeAndIndex(new DeleteTask(objects, user), new DeleteIndexTask(), ack);
+    ElasticReIndexJob.recordDeleted(objects);
 
   }
 
@@ -140,6 +163,22 @@ public class WriterFacade {
    * de.mpg.imeji.logic.vo.User), choose to check security
    */
   public List<Object> update(List<Object> objects, final User user, boolean doCheckSecurity) throws ImejiException {
+    return update(objects, user, doCheckSecurity, Acknowledgement.SYNC);
+  }
+
+  /**
+   * Update the objects, and return once they have been indexed (SYNC) or queued for indexing
+   * (ASYNC)
+   *
+   * @param objects
+   * @param user
+   * @param doCheckSecurity
+   * @param ack
+   * @return
+   * @throws ImejiException
+   */
+  public List<Object> update(List<Object> objects, final User user, boolean doCheckSecurity, Acknowledgement ack)
+      throws ImejiException {
     if (objects.isEmpty()) {
       return objects;
     }
@@ -147,7 +186,7 @@ public class WriterFacade {
       checkSecurity(objects, user, false);
     }
     validate(objects, Validator.Method.UPDATE);
-    List<Object> updatedObjects = writeAndIndex(new UpdateTask(objects, user), new IndexTask());
+    List<Object> updatedObjects = writeAndIndex(new UpdateTask(objects, user), new IndexTask(), ack);
     return updatedObjects;
   }
 
@@ -164,7 +203,7 @@ public class WriterFacade {
     }
     throwAuthorizationException(user != null, SecurityUtil.authorization().administrate(user, Imeji.PROPERTIES.getBaseURI()),
         "Only admin can use update wihout validation");
-    List<Object> updatedObjects = writeAndIndex(new UpdateTask(imejiDataObjects, user), new IndexTask());
+    List<Object> updatedObjects = writeAndIndex(new UpdateTask(imejiDataObjects, user), new IndexTask(), Acknowledgement.SYNC);
     return updatedObjects;
   }
 
@@ -189,7 +228,7 @@ public class WriterFacade {
     Object valueToSet = changeMember.getValue();
     validate(valueToSet, Validator.Method.UPDATE);
 
-    List<Object> updatedObjects = writeAndIndex(new EditElementsTask(changeMember, user), new IndexTask());
+    List<Object> updatedObjects = writeAndIndex(new EditElementsTask(changeMember, user), new IndexTask(), Acknowledgement.SYNC);
     return updatedObjects.get(0);
 
   }
@@ -225,7 +264,7 @@ public class WriterFacade {
       SearchIndexer myIndexer = SearchFactory.create(typeToIndex, SEARCH_IMPLEMENTATIONS.ELASTIC).getIndexer();
       IndexTask indexTask = new IndexTask();
       indexTask.setIndexer(myIndexer);
-      indexInSearchIndexWithRetry(objectsToIndex, indexTask);
+      indexInSearchIndexWithRetry(objectsToIndex, indexTask, Acknowledgement.SYNC);
     }
     return dataObjectsChangedInStore;
 
@@ -271,17 +310,19 @@ public class WriterFacade {
    * @param databaseTask a create/delete/update task for objects in database
    * @param indexTask an index or delete task for indexing objects or deleting objects from search
    *        index
+   * @param ack wait until the objects have been indexed (SYNC) or only queued (ASYNC)
    * @return list of written/deleted objects
    * @throws ImejiException
    */
-  private List<Object> writeAndIndex(Callable<List<Object>> databaseTask, SearchIndexTask indexTask) throws ImejiException {
+  private List<Object> writeAndIndex(Callable<List<Object>> databaseTask, SearchIndexTask indexTask, Acknowledgement ack)
+      throws ImejiException {
 
     // 1. Write to database
     List<Object> objectsChangedInDatabase = writeToDatabase(databaseTask);
 
     // 2. If writing to database was successful and we got a result from database
     // (latest version of the written objects), index the objects (copy them) in search index 	  
-    indexInSearchIndexWithRetry(objectsChangedInDatabase, indexTask);
+    indexInSearchIndexWithRetry(objectsChangedInDatabase, indexTask, ack);
 
     // finally return written objects
     return objectsChangedInDatabase;
@@ -296,72 +337,50 @@ public class WriterFacade {
    */
   private List<Object> writeToDatabase(Callable<List<Object>> databaseTask) throws ImejiException {
 
-    List<Object> objectsInDatabase = new ArrayList<>(0);
-
-    // 1. Write to database
+    // 1. Write to database (the writer commits within its own transaction thread)
     try {
-      objectsInDatabase = executor.submit(databaseTask).get();
-    } catch (ExecutionException | InterruptedException | CancellationException execExept) {
-      if (execExept.getCause() instanceof ImejiException) {
-        throw (ImejiException) execExept.getCause();
-      } else {
-        throw new ImejiException(execExept.getMessage());
-      }
+      return databaseTask.call();
+    } catch (ImejiException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ImejiException(e.getMessage());
     }
-    return objectsInDatabase;
   }
 
 
   /**
-   * Access search index and index or delete documents. In case of failure, save documents in a
-   * retry queue in order to retry indexing/deleting later on.
+   * Queue the documents to be indexed or deleted in the {@link IndexPipeline}. In case of failure,
+   * the pipeline saves the documents in a retry queue in order to retry indexing/deleting later on.
    * 
    * @param objectsToIndex
    * @param indexTask either IndexTask oder DeleteIndexTask
+   * @param ack wait until the documents have been sent to the search index (SYNC) or only queued
+   *        (ASYNC)
    */
-  private void indexInSearchIndexWithRetry(List<Object> objectsToIndex, SearchIndexTask indexTask) {
+  private void indexInSearchIndexWithRetry(List<Object> objectsToIndex, SearchIndexTask indexTask, Acknowledgement ack) {
 
     // 2. If writing to database was successful and we got a result from database
     // (latest version of the written objects), index the objects in (copy them to) search index 	  
     if (!objectsToIndex.isEmpty()) {
       indexTask.setObjects(objectsToIndex);
-
-      try {
-        executor.submit(indexTask).get();
-      } catch (ExecutionException executionException) {
-        Throwable taskException = executionException.getCause();
-        if (taskException instanceof IOException) {
-          // SearchIndex is down, connection timed out
-          List<RetryBaseRequest> retryIndexList = indexTask.getRetryRequests();
-          RetryQueue.getInstance().addRetryIndexRequests(retryIndexList);
-        } else if (taskException instanceof SearchIndexFailureException) {
-          // single operation failed
-          SearchIndexFailureException failedException = (SearchIndexFailureException) taskException;
-          RetryBaseRequest retryRequest = failedException.getRetryRequest(objectsToIndex);
-          RetryQueue.getInstance().addRetryIndexRequests(Arrays.asList(retryRequest));
-        } else if (taskException instanceof SearchIndexBulkFailureException) {
-          // in a bulk request one or more operations failed
-          SearchIndexBulkFailureException failedException = (SearchIndexBulkFailureException) taskException;
-          List<RetryBaseRequest> retryRequests = failedException.getRetryRequests(objectsToIndex);
-          RetryQueue.getInstance().addRetryIndexRequests(retryRequests);
-        } else if (taskException instanceof UnprocessableError) {
-          // there were problems transforming an object to a json representation, development error
-          LOGGER.error("Could not parse data object to json representation", taskException);
+      final CompletableFuture<Void> indexed = indexTask.enqueue(ack);
+      if (ack == Acknowledgement.SYNC) {
+        try {
+          indexed.get();
+        } catch (ExecutionException e) {
+          LOGGER.error("Error waiting for the search index", e);
+        } catch (InterruptedException e) {
+          // the documents are still indexed by the pipeline
+          Thread.currentThread().interrupt();
         }
-
-      } catch (InterruptedException | CancellationException interruptedOrCanceled) {
-        // thread was interrupted before executing: retry all objects
-        List<RetryBaseRequest> retryIndexList = indexTask.getRetryRequests();
-        RetryQueue.getInstance().addRetryIndexRequests(retryIndexList);
-
       }
-
     }
   }
 
 
   /**
-   * Index a list of objects in search index. In case of failure exception is thrown.
+   * Index a list of objects in search index, in the current thread. In case of failure exception is
+   * thrown.
    * 
    * @param objectsToIndex
    * @param indexTask
@@ -370,7 +389,11 @@ public class WriterFacade {
   private void indexInSearchIndex(List<Object> objectsToIndex, SearchIndexTask indexTask) throws ExecutionException, InterruptedException {
     if (!objectsToIndex.isEmpty()) {
       indexTask.setObjects(objectsToIndex);
-      executor.submit(indexTask).get();
+      try {
+        indexTask.call();
+      } catch (Exception e) {
+        throw new ExecutionException(e);
+      }
     }
 
   }
@@ -579,6 +602,14 @@ public class WriterFacade {
     public void setIndexer(SearchIndexer myIndexer) {
       this.taskIndexer = myIndexer;
     }
+
+    /**
+     * Queue the task in the {@link IndexPipeline}
+     * 
+     * @param ack
+     * @return
+     */
+    public abstract CompletableFuture<Void> enqueue(Acknowledgement ack);
   }
 
 
@@ -596,6 +627,11 @@ public class WriterFacade {
       return 1;
     }
 
+    @Override
+    public CompletableFuture<Void> enqueue(Acknowledgement ack) {
+      return IndexPipeline.getInstance().index(this.objects, taskIndexer, ack);
+    }
+
     @Override
     public List<RetryBaseRequest> getRetryRequests() {
       return RetryIndexRequest.getRetryIndexRequests(this.objects);
@@ -617,6 +653,11 @@ public class WriterFacade {
       return 1;
     }
 
+    @Override
+    public CompletableFuture<Void> enqueue(Acknowledgement ack) {
+      return IndexPipeline.getInstance().delete(this.objects, taskIndexer, ack);
+    }
+
     @Override
     public List<RetryBaseRequest> getRetryRequests() {
       return RetryDeleteFromIndexRequest.getRetryDeleteFromIndexRequests(this.objects);
@@ -9,20 +9,30 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
 import de.mpg.imeji.exceptions.ImejiException;
+import de.mpg.imeji.exceptions.NotFoundException;
 import de.mpg.imeji.logic.db.keyValue.KeyValueStoreService;
-import de.mpg.imeji.logic.db.keyValue.stores.HTreeMapStore;
+import de.mpg.imeji.logic.db.keyValue.stores.BTreeMapStore;
 import de.mpg.imeji.logic.events.listener.ListenerService;
 import de.mpg.imeji.logic.events.messages.Message;
 import de.mpg.imeji.logic.events.messages.Message.MessageType;
 
 /**
- * SErvice to manage {@link Message}
+ * SErvice to manage {@link Message}. <br/>
+ * Messages are stored in an ordered store with the key objectId:time:id, so that the messages of an
+ * object are read with a prefix scan. A second ordered store indexes the message ids by time, to
+ * read or delete the messages of a time window without reading the whole queue
  * 
  * @author saquet
  *
  */
 public class MessageService {
-  private static final KeyValueStoreService QUEUE = new KeyValueStoreService(new HTreeMapStore("messageQueue"));
+  // Messages are committed by batches of 100 writes, at the latest after 1s
+  private static final int COMMIT_BATCH_SIZE = 100;
+  private static final long COMMIT_BATCH_DELAY = 1000;
+  private static final KeyValueStoreService QUEUE =
+      new KeyValueStoreService(new BTreeMapStore("messageQueue", COMMIT_BATCH_SIZE, COMMIT_BATCH_DELAY));
+  private static final KeyValueStoreService TIME_INDEX =
+      new KeyValueStoreService(new BTreeMapStore("messageTimeIndex", COMMIT_BATCH_SIZE, COMMIT_BATCH_DELAY));
   private static Logger LOGGER = LogManager.getLogger(MessageService.class);
   private final ListenerService subscriptionService = new ListenerService();
 
@@ -34,6 +44,7 @@ public class MessageService {
   public void add(Message message) {
     try {
       QUEUE.put(message.getMessageId(), message);
+      TIME_INDEX.put(getTimeKey(message.getTime(), message.getMessageId()), message.getMessageId());
       subscriptionService.notifySubscribers(message);
     } catch (ImejiException e) {
       LOGGER.error("Error adding a new message", e);
@@ -48,7 +59,7 @@ public class MessageService {
    */
   public List<Message> readForObject(String objectId) {
     try {
-      return QUEUE.getList(objectId + ":*", Message.class);
+      return QUEUE.getListByPrefix(objectId + ":", Message.class);
     } catch (ImejiException e) {
       LOGGER.error("Error reading message queue for object " + objectId, e);
     }
@@ -62,7 +73,7 @@ public class MessageService {
    */
   public List<Message> readAll() {
     try {
-      return QUEUE.getList(".*", Message.class);
+      return QUEUE.getListByPrefix("", Message.class);
     } catch (ImejiException e) {
       LOGGER.error("Error reading message queue ", e);
     }
@@ -77,7 +88,7 @@ public class MessageService {
    */
   public List<Message> readForObject(String objectId, long from, long to) {
     try {
-      return QUEUE.getList(objectId + ":.*", Message.class).stream().filter(m -> m.getTime() > from && m.getTime() < to)
+      return QUEUE.getListByPrefix(objectId + ":", Message.class).stream().filter(m -> m.getTime() > from && m.getTime() < to)
           .collect(Collectors.toList());
     } catch (ImejiException e) {
       LOGGER.error("Error reading message queue for object " + objectId, e);
@@ -94,8 +105,7 @@ public class MessageService {
    * @return
    */
   public List<Message> retrieveByType(long from, long to, MessageType... types) {
-    return readAll().stream().filter(m -> Arrays.asList(types).contains(m.getType()) && m.getTime() > from && m.getTime() < to)
-        .collect(Collectors.toList());
+    return readBetween(from + 1, to).stream().filter(m -> Arrays.asList(types).contains(m.getType())).collect(Collectors.toList());
   }
 
   /**
@@ -104,14 +114,7 @@ public class MessageService {
    * @param time
    */
   public void deleteOldMessages(long timestamp) {
-    try {
-      List<Message> allMessages = QUEUE.getList(".*", Message.class);
-      for (Message message : allMessages.stream().filter(m -> m.getTime() < timestamp).collect(Collectors.toList())) {
-        QUEUE.delete(message.getMessageId());
-      }
-    } catch (ImejiException e) {
-      LOGGER.error("Error deleting message before " + timestamp, e);
-    }
+    deleteMessages(readBetween(0, timestamp));
   }
 
   /**
@@ -120,12 +123,46 @@ public class MessageService {
    * @param messages
    */
   public void deleteMessages(List<Message> messages) {
-    for (Message m : messages) {
-      try {
-        QUEUE.delete(m.getMessageId());
-      } catch (ImejiException e) {
-        LOGGER.error("Error deleting message from queue", e);
+    try {
+      QUEUE.deleteAll(messages.stream().map(m -> m.getMessageId()).collect(Collectors.toList()));
+      TIME_INDEX.deleteAll(messages.stream().map(m -> getTimeKey(m.getTime(), m.getMessageId())).collect(Collectors.toList()));
+    } catch (ImejiException e) {
+      LOGGER.error("Error deleting messages from queue", e);
+    }
+  }
+
+  /**
+   * Read the messages with a time between from (inclusive) and to (exclusive) using the time index
+   * 
+   * @param from
+   * @param to
+   * @return
+   */
+  private List<Message> readBetween(long from, long to) {
+    final List<Message> messages = new ArrayList<>();
+    try {
+      for (String messageId : TIME_INDEX.getListInRange(getTimeKey(from, ""), getTimeKey(to, ""), String.class)) {
+        try {
+          messages.add((Message) QUEUE.get(messageId));
+        } catch (NotFoundException e) {
+          LOGGER.warn("Message " + messageId + " is indexed but not in the queue");
+        }
       }
+    } catch (ImejiException e) {
+      LOGGER.error("Error reading message queue between " + from + " and " + to, e);
     }
+    return messages;
+  }
+
+  /**
+   * The key of a message in the time index. The time is padded, so that the keys are ordered by
+   * time
+   * 
+   * @param time
+   * @param messageId
+   * @return
+   */
+  private String getTimeKey(long time, String messageId) {
+    return String.format("%019d", time) + ":" + messageId;
   }
 }
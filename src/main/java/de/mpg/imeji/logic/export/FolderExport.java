@@ -83,13 +83,15 @@ public class FolderExport extends ExportAbstract {
    * @throws ImejiException
    */
   private void addFiles(ZipOutputStream zip, List<String> itemUris, String parentPath) throws ImejiException {
-    final Map<String, Item> itemMap = ExportUtil.retrieveItems(itemUris, user);
-    final List<ContentVO> contents = ExportUtil.retrieveContents(itemMap.values());
-    for (ContentVO content : contents) {
-      try {
-        ZipUtil.addFile(zip, parentPath + "/" + itemMap.get(content.getItemId()).getFilename(), content.getOriginal(), 0);
-      } catch (Exception e) {
-        LOGGER.error("Error zip export", e);
+    for (List<String> page : ExportUtil.toPages(itemUris)) {
+      final Map<String, Item> itemMap = ExportUtil.retrieveItems(page, user);
+      final List<ContentVO> contents = ExportUtil.retrieveContents(itemMap.values());
+      for (ContentVO content : contents) {
+        try {
+          ZipUtil.addFile(zip, parentPath + "/" + itemMap.get(content.getItemId()).getFilename(), content.getOriginal(), 0);
+        } catch (Exception e) {
+          LOGGER.error("Error zip export", e);
+        }
       }
     }
   }
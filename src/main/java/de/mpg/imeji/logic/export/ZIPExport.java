@@ -1,5 +1,7 @@
 package de.mpg.imeji.logic.export;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URISyntaxException;
 import java.util.Date;
@@ -26,6 +28,7 @@ import de.mpg.imeji.logic.model.User;
  */
 public class ZIPExport extends ExportAbstract {
   private static final Logger LOGGER = LogManager.getLogger(ZIPExport.class);
+  private static final int BUFFER_SIZE = 64 * 1024;
   private final List<String> itemIds;
 
   public ZIPExport(List<String> itemIds, User user) {
@@ -45,7 +48,8 @@ public class ZIPExport extends ExportAbstract {
   }
 
   /**
-   * This method exports all images of the current browse page as a zip file
+   * This method exports all images of the current browse page as a zip file. The items are
+   * retrieved and written page by page, so that the download starts with the first page
    *
    * @throws ImejiException
    *
@@ -53,16 +57,23 @@ public class ZIPExport extends ExportAbstract {
    * @throws URISyntaxException
    */
   private void exportAllImages(List<String> ids, OutputStream out, User user) throws ImejiException {
-    final ZipOutputStream zip = new ZipOutputStream(out);
-    final Map<String, Item> itemMap = ExportUtil.retrieveItems(ids, user);
-    final List<ContentVO> contents = ExportUtil.retrieveContents(itemMap.values());
-    createItemsPerCollection(itemMap.values());
-    // Create the ZIP file
-    for (ContentVO content : contents) {
+    final ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+    for (List<String> page : ExportUtil.toPages(ids)) {
+      final Map<String, Item> itemMap = ExportUtil.retrieveItems(page, user);
+      final List<ContentVO> contents = ExportUtil.retrieveContents(itemMap.values());
+      createItemsPerCollection(itemMap.values());
+      // Add the files of the page to the ZIP file
+      for (ContentVO content : contents) {
+        try {
+          ZipUtil.addFile(zip, itemMap.get(content.getItemId()).getFilename(), content.getOriginal(), 0);
+        } catch (Exception e) {
+          LOGGER.error("Error zip export", e);
+        }
+      }
       try {
-        ZipUtil.addFile(zip, itemMap.get(content.getItemId()).getFilename(), content.getOriginal(), 0);
-      } catch (Exception e) {
-        LOGGER.error("Error zip export", e);
+        zip.flush();
+      } catch (IOException e) {
+        throw new ImejiException("Error writing zip export", e);
       }
     }
     ZipUtil.closeZip(zip);
@@ -5,6 +5,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import de.mpg.imeji.exceptions.ImejiException;
 import de.mpg.imeji.logic.core.collection.CollectionService;
@@ -24,6 +25,10 @@ import de.mpg.imeji.logic.search.Search;
  *
  */
 public class ExportUtil {
+  /**
+   * The number of items exported at once
+   */
+  public static final int PAGE_SIZE = 500;
 
   /**
    * Retrieve the items as a Map [itemId,Item]
@@ -43,20 +48,31 @@ public class ExportUtil {
   }
 
   /**
-   * Retrieve the contents as a map [ContentId, ContentVO]
+   * Retrieve the contents of the items, with one read for all contents
    * 
    * @param items
    * @return
    * @throws ImejiException
    */
   public static List<ContentVO> retrieveContents(Collection<Item> items) throws ImejiException {
-    List<ContentVO> l = new ArrayList<>();
     ContentService service = new ContentService();
-    for (Item item : items) {
-      ContentVO content = service.retrieveLazy(service.findContentId(item.getId().toString()));
-      l.add(content);
+    List<String> contentIds = new ArrayList<>(
+        service.findContentIds(items.stream().map(item -> item.getId().toString()).collect(Collectors.toList())).values());
+    return contentIds.isEmpty() ? new ArrayList<>() : service.retrieveBatchLazy(contentIds);
+  }
+
+  /**
+   * Split the ids in pages of {@link #PAGE_SIZE}
+   * 
+   * @param ids
+   * @return
+   */
+  public static List<List<String>> toPages(List<String> ids) {
+    List<List<String>> pages = new ArrayList<>();
+    for (int i = 0; i < ids.size(); i += PAGE_SIZE) {
+      pages.add(ids.subList(i, Math.min(ids.size(), i + PAGE_SIZE)));
     }
-    return l;
+    return pages;
   }
 
   /**
@@ -1,6 +1,10 @@
 package de.mpg.imeji.logic.export.util;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipOutputStream;
@@ -13,7 +17,11 @@ import de.mpg.imeji.exceptions.ImejiException;
 import de.mpg.imeji.logic.storage.StorageController;
 
 /**
- * Utility class for ZIP operations
+ * Utility class for ZIP operations. <br/>
+ * - Files which are already compressed (images, videos, archives...) are written without
+ * compression, so that exporting them doesn't burn cpu for nothing <br/>
+ * - {@link ZipOutputStream} switches to ZIP64 by itself when the archive has more than 65535
+ * entries or is bigger than 4GB
  * 
  * @author saquet
  *
@@ -21,6 +29,9 @@ import de.mpg.imeji.logic.storage.StorageController;
 public class ZipUtil {
 
   private static final Logger LOGGER = LogManager.getLogger(ZipUtil.class);
+  private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList("jpg", "jpeg", "png", "gif", "webp", "jp2",
+      "heic", "mp4", "m4v", "mov", "avi", "mkv", "webm", "mpg", "mpeg", "mp3", "m4a", "aac", "ogg", "oga", "ogv", "flac", "zip",
+      "gz", "tgz", "bz2", "xz", "7z", "rar", "jar", "docx", "xlsx", "pptx", "odt", "ods", "odp", "epub"));
 
   /**
    * Add a File to the ZipOutputStream
@@ -38,6 +49,7 @@ public class ZipUtil {
         filename = FilenameUtils.removeExtension(filename).replace("_" + (position - 1), "") + "_" + position + "."
             + FilenameUtils.getExtension(filename);
       }
+      zip.setLevel(isCompressed(filename) ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
       zip.putNextEntry(new ZipEntry(filename));
       new StorageController().read(fileUrl, zip, false);
       zip.closeEntry();
@@ -73,6 +85,16 @@ public class ZipUtil {
     }
   }
 
+  /**
+   * True if the file is of a type which is already compressed
+   * 
+   * @param filename
+   * @return
+   */
+  public static boolean isCompressed(String filename) {
+    return filename != null && COMPRESSED_EXTENSIONS.contains(FilenameUtils.getExtension(filename).toLowerCase());
+  }
+
   public static void closeZip(ZipOutputStream zip) {
     try {
       zip.close();
@@ -1,6 +1,7 @@
 package de.mpg.imeji.logic.generic;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -8,7 +9,11 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import de.mpg.imeji.exceptions.ImejiException;
+import de.mpg.imeji.exceptions.NotFoundException;
 import de.mpg.imeji.logic.config.Imeji;
 import de.mpg.imeji.logic.model.User;
 import de.mpg.imeji.logic.search.Search;
@@ -26,6 +31,7 @@ import de.mpg.imeji.logic.search.model.SortCriterion;
  *
  */
 public abstract class SearchServiceAbstract<T> extends ImejiServiceAbstract {
+  private static final Logger LOGGER = LogManager.getLogger(SearchServiceAbstract.class);
   protected final Search search;
   private final ExecutorService executor = Executors.newCachedThreadPool();
 
@@ -55,6 +61,31 @@ public abstract class SearchServiceAbstract<T> extends ImejiServiceAbstract {
    */
   public abstract List<T> retrieve(List<String> ids, User user) throws ImejiException;
 
+  /**
+   * Retrieve the objects which still exist: objects deleted since their id has been read are
+   * ignored, instead of failing the whole list
+   *
+   * @param ids
+   * @param user
+   * @return
+   * @throws ImejiException
+   */
+  public List<T> retrieveExisting(List<String> ids, User user) throws ImejiException {
+    try {
+      return retrieve(ids, user);
+    } catch (final NotFoundException e) {
+      final List<T> objects = new ArrayList<>(ids.size());
+      for (final String id : ids) {
+        try {
+          objects.addAll(retrieve(Collections.singletonList(id), user));
+        } catch (final NotFoundException e1) {
+          LOGGER.info(id + " not found, ignored");
+        }
+      }
+      return objects;
+    }
+  }
+
   /**
    * Search and retrieve the search Result
    *
@@ -14,6 +14,7 @@ import de.mpg.imeji.logic.model.CollectionImeji;
 import de.mpg.imeji.logic.model.Item;
 import de.mpg.imeji.logic.search.jenasearch.ImejiSPARQL;
 import de.mpg.imeji.logic.search.jenasearch.JenaCustomQueries;
+import de.mpg.imeji.logic.security.authorization.VisibilityService;
 import de.mpg.imeji.logic.util.StringHelper;
 
 /**
@@ -40,6 +41,7 @@ public class HierarchyService implements Serializable {
    */
   public static void reloadHierarchy() {
     hierarchy.init();
+    VisibilityService.invalidateAll();
   }
 
   /**
@@ -104,6 +106,22 @@ public class HierarchyService implements Serializable {
     return l;
   }
 
+  /**
+   * Return the folder and all its parents, i.e. all collections containing an object of this
+   * folder. Return an empty list if the folder is null
+   * 
+   * @param folderUri
+   * @return
+   */
+  public static List<String> findAncestors(String folderUri) {
+    final List<String> l = new ArrayList<>();
+    if (folderUri != null) {
+      l.addAll(new HierarchyService().findAllParents(folderUri));
+      l.add(folderUri);
+    }
+    return l;
+  }
+
   /**
    * Return the list of all parents of the object with this uri
    * 
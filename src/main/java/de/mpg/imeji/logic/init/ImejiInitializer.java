@@ -25,7 +25,9 @@ import org.apache.jena.tdb.sys.TDBMaker;
 import de.mpg.imeji.exceptions.AlreadyExistsException;
 import de.mpg.imeji.exceptions.ImejiException;
 import de.mpg.imeji.j2j.annotations.j2jModel;
+import de.mpg.imeji.j2j.transaction.GroupCommitWriter;
 import de.mpg.imeji.logic.batch.executors.NightlyExecutor;
+import de.mpg.imeji.logic.concurrency.Locks;
 import de.mpg.imeji.logic.config.Imeji;
 import de.mpg.imeji.logic.config.ImejiConfiguration;
 import de.mpg.imeji.logic.config.emailcontent.ImejiEmailContentConfiguration;
@@ -33,6 +35,7 @@ import de.mpg.imeji.logic.config.util.PropertyReader;
 import de.mpg.imeji.logic.core.statement.StatementService;
 import de.mpg.imeji.logic.db.indexretry.queue.RetryQueue;
 import de.mpg.imeji.logic.db.keyValue.KeyValueStoreService;
+import de.mpg.imeji.logic.db.writer.IndexPipeline;
 import de.mpg.imeji.logic.events.listener.ListenerService;
 import de.mpg.imeji.logic.hierarchy.HierarchyService;
 import de.mpg.imeji.logic.model.CollectionImeji;
@@ -105,6 +108,7 @@ public class ImejiInitializer {
     }
     LOGGER.info("Initializing Jena dataset (" + Imeji.tdbPath + ")...");
     Imeji.dataset = Imeji.tdbPath != null ? TDBFactory.createDataset(Imeji.tdbPath) : TDBFactory.createDataset();
+    initWriter();
     LOGGER.info("... dataset done!");
     LOGGER.info("Initializing Jena models...");
     Imeji.collectionModel = ImejiInitializer.getModelName(CollectionImeji.class);
@@ -131,6 +135,27 @@ public class ImejiInitializer {
     initRetryQueue();
   }
 
+  /**
+   * Initialize the {@link GroupCommitWriter} for the current dataset, according to
+   * imeji.properties
+   */
+  private static void initWriter() {
+    if (Imeji.writer != null) {
+      Imeji.writer.shutdown();
+    }
+    int maxBatchSize = GroupCommitWriter.DEFAULT_MAX_BATCH_SIZE;
+    long maxLatency = GroupCommitWriter.DEFAULT_MAX_LATENCY;
+    try {
+      final String size = PropertyReader.getProperty("imeji.tdb.groupcommit.size");
+      final String latency = PropertyReader.getProperty("imeji.tdb.groupcommit.latency");
+      maxBatchSize = size != null ? Integer.parseInt(size.trim()) : maxBatchSize;
+      maxLatency = latency != null ? Long.parseLong(latency.trim()) : maxLatency;
+    } catch (final Exception e) {
+      LOGGER.error("Error reading group commit properties, using default values", e);
+    }
+    Imeji.writer = new GroupCommitWriter(Imeji.dataset, maxBatchSize, maxLatency);
+  }
+
   /**
    * Initialize (Create when not existing) a {@link Model} with a given name
    *
@@ -293,12 +318,15 @@ public class ImejiInitializer {
     LOGGER.info("content extraction executor shutdown? " + Imeji.getCONTENT_EXTRACTION_EXECUTOR().isShutdown());
     LOGGER.info("internal executor shutdown shutdown? " + Imeji.getINTERNAL_STORAGE_EXECUTOR().isShutdown());
     LOGGER.info("nightly executor shutdown shutdown? " + NIGHTLY_EXECUTOR.isShutdown());
+    LOGGER.info("Flushing index pipeline...");
+    IndexPipeline.getInstance().shutdown();
     ElasticInitializer.shutdown();
     KeyValueStoreService.stopAllStores();
-    LOGGER.info("Ending LockSurveyor...");
-    Imeji.locksSurveyor.terminate();
+    LOGGER.info("Stopping locks sweeper...");
+    Locks.getManager().stopSweeper();
     LOGGER.info("...done");
     LOGGER.info("Closing Jena! TDB...");
+    Imeji.writer.shutdown();
     TDB.sync(Imeji.dataset);
     LOGGER.info("sync done");
     Imeji.dataset.close();
@@ -20,6 +20,7 @@ import org.apache.logging.log4j.Logger;
 import de.mpg.imeji.exceptions.ImejiException;
 import de.mpg.imeji.logic.batch.ElasticReIndexJob;
 import de.mpg.imeji.logic.batch.ReadMaxPlanckIPMappingJob;
+import de.mpg.imeji.logic.concurrency.Locks;
 import de.mpg.imeji.logic.config.Imeji;
 import de.mpg.imeji.logic.search.jenasearch.ImejiSPARQL;
 import de.mpg.imeji.logic.util.IdentifierUtil;
@@ -39,7 +40,7 @@ public class InitializerServlet extends HttpServlet {
   public void init() throws ServletException {
     try {
       super.init();
-      Imeji.locksSurveyor.start();
+      Locks.getManager().startSweeper();
       initModel();
       reindex();
       Imeji.getEXECUTOR().submit(new ReadMaxPlanckIPMappingJob());
@@ -67,6 +68,9 @@ public class InitializerServlet extends HttpServlet {
     if (Imeji.STARTUP.doReIndex()) {
       LOGGER.info("Doing reindex...");
       Imeji.getEXECUTOR().submit(new ElasticReIndexJob());
+    } else if (ElasticReIndexJob.hasCheckpoint()) {
+      LOGGER.info("Resuming interrupted reindex...");
+      Imeji.getEXECUTOR().submit(new ElasticReIndexJob());
     }
   }
 
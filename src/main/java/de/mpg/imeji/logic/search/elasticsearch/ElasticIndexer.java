@@ -3,8 +3,13 @@ package de.mpg.imeji.logic.search.elasticsearch;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -41,6 +46,7 @@ import de.mpg.imeji.logic.model.User;
 import de.mpg.imeji.logic.model.UserGroup;
 import de.mpg.imeji.logic.model.aspects.ResourceLastModified;
 import de.mpg.imeji.logic.search.SearchIndexer;
+import de.mpg.imeji.logic.search.elasticsearch.ElasticService.ElasticIndices;
 import de.mpg.imeji.logic.search.elasticsearch.model.ElasticContent;
 import de.mpg.imeji.logic.search.elasticsearch.model.ElasticFolder;
 import de.mpg.imeji.logic.search.elasticsearch.model.ElasticItem;
@@ -49,7 +55,8 @@ import de.mpg.imeji.logic.search.elasticsearch.model.ElasticJoinableContent;
 import de.mpg.imeji.logic.search.elasticsearch.model.ElasticUser;
 import de.mpg.imeji.logic.search.elasticsearch.model.ElasticUserGroup;
 import de.mpg.imeji.logic.search.elasticsearch.script.CollectionPostIndexScript;
-import de.mpg.imeji.logic.search.elasticsearch.script.ItemPostIndexScript;
+import de.mpg.imeji.logic.search.elasticsearch.script.misc.CollectionFields;
+import de.mpg.imeji.logic.search.elasticsearch.script.misc.CollectionFieldsCache;
 import de.mpg.imeji.logic.util.StringHelper;
 
 /**
@@ -66,6 +73,10 @@ public class ElasticIndexer implements SearchIndexer {
   private final String dataType = "_doc";
   // private final ElasticAnalysers analyser;
   private String mappingFile = "elasticsearch/Elastic_TYPE_Mapping.json";
+  // false when writing directly into an index which is not yet behind its alias (reindex)
+  private final boolean alias;
+  // the index from which the fields of the collections of the items are read
+  private final String foldersIndex;
 
   /**
    * Create an instance for writing data to the ElasticSearch server
@@ -82,6 +93,45 @@ public class ElasticIndexer implements SearchIndexer {
     // this.dataType = dataType.name();
     // this.analyser = analyser;
     this.mappingFile = mappingFile.replace("_TYPE_", StringUtils.capitalize(this.indexName));
+    this.alias = true;
+    this.foldersIndex = ElasticIndices.folders.name();
+  }
+
+  /**
+   * Create an instance writing into an index with the mapping of the type. If the index isn't the
+   * alias of the type (i.e. a new index filled by a reindex), the index isn't refreshed after each
+   * batch and the already indexed items aren't updated when a collection is indexed
+   *
+   * @param indexName
+   * @param type
+   */
+  public ElasticIndexer(String indexName, ElasticIndices type) {
+    this(indexName, type, ElasticIndices.folders.name());
+  }
+
+  /**
+   * Create an instance writing into an index with the mapping of the type, and reading the fields
+   * of the collections of the items from the folders index (i.e. the new folders index filled by a
+   * reindex)
+   *
+   * @param indexName
+   * @param type
+   * @param foldersIndex
+   */
+  public ElasticIndexer(String indexName, ElasticIndices type, String foldersIndex) {
+    this.indexName = indexName;
+    this.mappingFile = mappingFile.replace("_TYPE_", StringUtils.capitalize(type.name()));
+    this.alias = indexName.equals(type.name());
+    this.foldersIndex = foldersIndex;
+  }
+
+  /**
+   * The name of the index written by this indexer
+   *
+   * @return
+   */
+  public String getIndexName() {
+    return indexName;
   }
 
   /**
@@ -97,11 +147,12 @@ public class ElasticIndexer implements SearchIndexer {
   @Override
   public void index(Object obj) throws UnprocessableError, IOException, SearchIndexFailureException {
 
+    final Map<String, CollectionFields> collectionFields = resolveCollectionFields(Arrays.asList(obj));
     if (obj instanceof ResourceLastModified) {
       long timestamp = ((ResourceLastModified) obj).getModified().getTimeInMillis();
-      indexJSON(getId(obj), toJson(obj, dataType, indexName), getParent(obj), timestamp);
+      indexJSON(getId(obj), toJson(obj, collectionFields), getParent(obj), timestamp);
     } else {
-      indexJSON(getId(obj), toJson(obj, dataType, indexName), getParent(obj));
+      indexJSON(getId(obj), toJson(obj, collectionFields), getParent(obj));
     }
     commit();
 
@@ -121,6 +172,7 @@ public class ElasticIndexer implements SearchIndexer {
     }
 
     final BulkRequest bulkRequest = new BulkRequest();
+    final Map<String, CollectionFields> collectionFields = resolveCollectionFields(objectList);
 
     for (final Object obj : objectList) {
 
@@ -129,9 +181,9 @@ public class ElasticIndexer implements SearchIndexer {
         final IndexRequest indexRequest;
         if (obj instanceof ResourceLastModified) {
           long timestamp = ((ResourceLastModified) obj).getModified().getTimeInMillis();
-          indexRequest = getIndexRequest(getId(obj), toJson(obj, dataType, indexName), getParent(obj), dataType, timestamp);
+          indexRequest = getIndexRequest(getId(obj), toJson(obj, collectionFields), getParent(obj), dataType, timestamp);
         } else {
-          indexRequest = getIndexRequest(getId(obj), toJson(obj, dataType, indexName), getParent(obj), dataType);
+          indexRequest = getIndexRequest(getId(obj), toJson(obj, collectionFields), getParent(obj), dataType);
         }
         bulkRequest.add(indexRequest);
       } catch (Exception e) {
@@ -146,7 +198,7 @@ public class ElasticIndexer implements SearchIndexer {
       }
     }
 
-    if (!(objectList.get(0) instanceof ContentVO)) {
+    if (alias && !(objectList.get(0) instanceof ContentVO)) {
       commit();
     }
     updateIndexBatchPostProcessing(objectList);
@@ -166,10 +218,12 @@ public class ElasticIndexer implements SearchIndexer {
     if (objectList.isEmpty()) {
       return;
     }
-    ItemPostIndexScript.run(objectList, indexName);
     for (Object o : objectList) {
       if (o instanceof CollectionImeji) {
-        CollectionPostIndexScript.run((CollectionImeji) o, "items");
+        CollectionFieldsCache.update((CollectionImeji) o);
+        if (alias) {
+          CollectionPostIndexScript.run((CollectionImeji) o, "items");
+        }
       }
     }
   }
@@ -284,6 +338,39 @@ public class ElasticIndexer implements SearchIndexer {
     return deleteRequest;
   }
 
+  /**
+   * Read once the fields of the collections of all {@link Item} of the list
+   *
+   * @param objectList
+   * @return
+   */
+  private Map<String, CollectionFields> resolveCollectionFields(List<?> objectList) {
+    final Set<String> collectionIds = objectList.stream().filter(o -> o instanceof Item && ((Item) o).getCollection() != null)
+        .map(o -> ((Item) o).getCollection().toString()).collect(Collectors.toSet());
+    return collectionIds.isEmpty() ? new HashMap<>() : CollectionFieldsCache.resolve(collectionIds, foldersIndex);
+  }
+
+  /**
+   * Transform an object to a json. {@link Item} are written with the fields of their collection
+   *
+   * @param obj
+   * @param collectionFields
+   * @return
+   * @throws UnprocessableError
+   */
+  private String toJson(Object obj, Map<String, CollectionFields> collectionFields) throws UnprocessableError {
+    if (obj instanceof Item && ((Item) obj).getCollection() != null) {
+      final ElasticItem elasticItem = new ElasticItem((Item) obj);
+      elasticItem.setCollectionFields(collectionFields.get(((Item) obj).getCollection().toString()));
+      try {
+        return mapper.setSerializationInclusion(Include.NON_NULL).writeValueAsString(elasticItem);
+      } catch (final JsonProcessingException e) {
+        throw new UnprocessableError("Error serializing object to json", e);
+      }
+    }
+    return toJson(obj, dataType, indexName);
+  }
+
   /**
    * Transform an object to a json
    *
@@ -5,6 +5,7 @@ import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Set;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
@@ -14,14 +15,22 @@ import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.util.EntityUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
 import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.Response;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.settings.Settings;
 
 import de.mpg.imeji.logic.config.util.PropertyReader;
 import de.mpg.imeji.logic.search.elasticsearch.ElasticService.ElasticIndices;
+import de.mpg.imeji.logic.search.elasticsearch.factory.SecurityQueryFactory;
 
 /**
  * Start/Stop elasticsearch
@@ -186,6 +195,94 @@ public class ElasticInitializer {
     return null;
   }
 
+  /**
+   * Create a new index (without alias) with the mapping of the type, ready to be filled by a
+   * reindex: the index isn't refreshed until {@link #switchAlias(ElasticIndices, String)}
+   *
+   * @param index
+   * @return the name of the new index
+   */
+  public static String createReindexIndex(ElasticIndices index) {
+    final String indexName = createIndex(index.name());
+    if (indexName != null) {
+      new ElasticIndexer(indexName, index).addMapping();
+      setRefreshInterval(indexName, "-1");
+    }
+    return indexName;
+  }
+
+  /**
+   * True if the index (or alias) exists
+   *
+   * @param indexName
+   * @return
+   */
+  public static boolean exists(String indexName) {
+    try {
+      final Response resp = ElasticService.getClient().getLowLevelClient().performRequest(new Request("HEAD", "/" + indexName));
+      return resp.getStatusLine().getStatusCode() == HttpStatus.SC_OK;
+    } catch (final Exception e) {
+      LOGGER.error("Error getting index status", e);
+    }
+    return false;
+  }
+
+  /**
+   * Atomically move the alias of the type to the new index, and delete the indexes previously
+   * pointed by the alias. If an index exists with the name of the alias, it is replaced by the alias
+   *
+   * @param index
+   * @param newIndex
+   * @throws IOException
+   */
+  public static void switchAlias(ElasticIndices index, String newIndex) throws IOException {
+    setRefreshInterval(newIndex, null);
+    ElasticService.getClient().indices().refresh(new RefreshRequest(newIndex), RequestOptions.DEFAULT);
+    final IndicesAliasesRequest request = new IndicesAliasesRequest();
+    final Set<String> oldIndexes =
+        ElasticService.getClient().indices().getAlias(new GetAliasesRequest(index.name()), RequestOptions.DEFAULT).getAliases().keySet();
+    if (oldIndexes.isEmpty() && exists(index.name())) {
+      request.addAliasAction(AliasActions.removeIndex().index(index.name()));
+    }
+    for (final String oldIndex : oldIndexes) {
+      if (!oldIndex.equals(newIndex)) {
+        request.addAliasAction(AliasActions.removeIndex().index(oldIndex));
+      }
+    }
+    request.addAliasAction(AliasActions.add().index(newIndex).alias(index.name()));
+    ElasticService.getClient().indices().updateAliases(request, RequestOptions.DEFAULT);
+    LOGGER.info("Alias " + index.name() + " now points to " + newIndex + ", removed indexes: " + oldIndexes);
+  }
+
+  /**
+   * Delete an index
+   *
+   * @param indexName
+   */
+  public static void deleteIndex(String indexName) {
+    try {
+      ElasticService.getClient().getLowLevelClient().performRequest(new Request("DELETE", "/" + indexName));
+    } catch (final Exception e) {
+      LOGGER.error("Error deleting index " + indexName, e);
+    }
+  }
+
+  /**
+   * Set the refresh interval of the index. null resets the default interval
+   *
+   * @param indexName
+   * @param interval
+   */
+  private static void setRefreshInterval(String indexName, String interval) {
+    try {
+      final UpdateSettingsRequest request = new UpdateSettingsRequest(indexName);
+      request.settings(Settings.builder().put("index.refresh_interval", interval));
+      ElasticService.getClient().indices().putSettings(request, RequestOptions.DEFAULT);
+    } catch (final Exception e) {
+      LOGGER.error("Error setting refresh interval of " + indexName, e);
+    }
+  }
+
   /**
    * DANGER: delete all data from elasticsearch. A new reindex will be necessary
    */
@@ -197,6 +294,7 @@ public class ElasticInitializer {
       // new ElasticIndexer(ElasticService.DATA_ALIAS, index,
       // ElasticService.ANALYSER).addMapping();
     }
+    SecurityQueryFactory.clearStoredVersions();
   }
 
   /**
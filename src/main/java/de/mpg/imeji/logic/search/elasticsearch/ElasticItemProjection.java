@@ -0,0 +1,215 @@
+package de.mpg.imeji.logic.search.elasticsearch;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.mpg.imeji.exceptions.ImejiException;
+import de.mpg.imeji.logic.config.Imeji;
+import de.mpg.imeji.logic.core.statement.StatementService;
+import de.mpg.imeji.logic.model.Item;
+import de.mpg.imeji.logic.model.Metadata;
+import de.mpg.imeji.logic.model.Organization;
+import de.mpg.imeji.logic.model.Person;
+import de.mpg.imeji.logic.model.Properties.Status;
+import de.mpg.imeji.logic.model.Statement;
+import de.mpg.imeji.logic.model.StatementType;
+import de.mpg.imeji.logic.model.factory.ImejiFactory;
+import de.mpg.imeji.logic.model.util.StatementUtil;
+import de.mpg.imeji.logic.search.elasticsearch.model.ElasticFolder;
+import de.mpg.imeji.logic.search.elasticsearch.model.ElasticItem;
+import de.mpg.imeji.logic.search.model.SearchResult;
+import de.mpg.imeji.logic.util.StringHelper;
+import de.mpg.imeji.util.DateHelper;
+
+/**
+ * Build lightweight {@link Item} from the _source of the {@link ElasticItem} and
+ * {@link ElasticFolder} documents found by a search. The projected {@link Item} contain only what
+ * is needed to display a list of items (thumbnail, filename, metadata tooltip), and don't need any
+ * read in Jena. <br/>
+ * The hits are already filtered by the security query, so no further authorization is needed
+ */
+public class ElasticItemProjection {
+  private static final Logger LOGGER = LogManager.getLogger(ElasticItemProjection.class);
+  /**
+   * The fields of the _source returned by a search
+   */
+  public static final String[] FIELDS = {"id", "folder", "name", "filetype", "size", "modified", "status", "metadata.*"};
+
+  /**
+   * private constructor
+   */
+  private ElasticItemProjection() {
+
+  }
+
+  /**
+   * Build the {@link Item} of the {@link SearchResult} from the _source of its hits, in the order of
+   * the results. Return null if the {@link SearchResult} doesn't have a source for all its results
+   *
+   * @param result
+   * @return
+   */
+  public static List<Item> toItems(SearchResult result) {
+    if (result == null || !result.hasSources()) {
+      return null;
+    }
+    final List<Item> items = new ArrayList<>(result.getResults().size());
+    for (final String id : result.getResults()) {
+      items.add(toItem(id, result.getSource(id)));
+    }
+    resolveStatements(items);
+    return items;
+  }
+
+  /**
+   * Build an {@link Item} from the _source of a document. Folders are returned as pseudo items, like
+   * for the items of a collection read from Jena. <br/>
+   * The index of the metadata is still formatted, and a metadata with only a text has also its
+   * number: both are resolved with the statements by {@link #toItems(SearchResult)}
+   *
+   * @param id
+   * @param source
+   * @return
+   */
+  public static Item toItem(String id, Map<String, Object> source) {
+    final Item item = ImejiFactory.newItem().setUri(id).build();
+    final String folder = getString(source, "folder");
+    if (folder != null) {
+      item.setCollection(URI.create(folder));
+    }
+    item.setFilename(getString(source, "name"));
+    if (id.contains("/collection/")) {
+      return item;
+    }
+    item.setFiletype(getString(source, "filetype"));
+    item.setFileSize(getNumber(source, "size").longValue());
+    final Number modified = getNumber(source, "modified");
+    if (modified.longValue() > 0) {
+      item.setModified(DateHelper.getDate(modified.longValue()));
+    }
+    final String status = getString(source, "status");
+    if (status != null) {
+      item.setStatus(Status.valueOf(status));
+    }
+    final Object metadata = source.get("metadata");
+    if (metadata instanceof Collection) {
+      item.setMetadata(((Collection<?>) metadata).stream().filter(md -> md instanceof Map)
+          .map(md -> toMetadata((Map<?, ?>) md)).collect(Collectors.toList()));
+    }
+    return item;
+  }
+
+  /**
+   * Build a {@link Metadata} from an indexed ElasticMetadata. The text of the ElasticMetadata is
+   * the main value of the metadata: if no other value is set, it is either a text or a number,
+   * according to the type of its statement
+   *
+   * @param source
+   * @return
+   */
+  private static Metadata toMetadata(Map<?, ?> source) {
+    final Metadata md = new Metadata();
+    md.setIndex(getString(source, "index"));
+    md.setName(getString(source, "name"));
+    md.setTitle(getString(source, "title"));
+    md.setUrl(getString(source, "uri"));
+    md.setDate(getString(source, "date"));
+    final String familyName = getString(source, "familyname");
+    final String givenName = getString(source, "givenname");
+    if (familyName != null || givenName != null) {
+      final Person person = new Person();
+      person.setFamilyName(familyName);
+      person.setGivenName(givenName);
+      person.setIdentifier(getString(source, "identifier"));
+      final Object organizations = source.get("organization");
+      if (organizations instanceof Collection) {
+        for (final Object org : (Collection<?>) organizations) {
+          person.getOrganizations().add(new Organization(org.toString()));
+        }
+      }
+      md.setPerson(person);
+    }
+    final String location = getString(source, "location");
+    if (location != null && location.contains(",")) {
+      md.setLatitude(Double.parseDouble(location.substring(0, location.indexOf(','))));
+      md.setLongitude(Double.parseDouble(location.substring(location.indexOf(',') + 1)));
+    }
+    if (md.getPerson() == null && isNullOrEmpty(md.getDate(), md.getName(), md.getTitle(), md.getUrl())) {
+      md.setText(getString(source, "text"));
+      if (source.get("number") instanceof Number) {
+        md.setNumber(getNumber(source, "number").doubleValue());
+      }
+    }
+    return md;
+  }
+
+  /**
+   * Complete the metadata with their {@link Statement}, read once for all the items: <br/>
+   * - The index of the metadata are indexed formatted: replace them with the index of their
+   * {@link Statement} <br/>
+   * - Metadata of a {@link StatementType#NUMBER} statement are numbers, the others texts
+   *
+   * @param items
+   */
+  private static void resolveStatements(List<Item> items) {
+    final List<String> uris = items.stream().flatMap(item -> item.getMetadata().stream()).map(md -> md.getIndex())
+        .filter(index -> index != null).distinct().map(index -> StatementUtil.toUri(index)).collect(Collectors.toList());
+    if (uris.isEmpty()) {
+      return;
+    }
+    final Map<String, Statement> statements = new HashMap<>();
+    try {
+      for (final Statement s : new StatementService().retrieveBatchOnlyExistingStatemment(uris, Imeji.adminUser)) {
+        statements.put(StatementUtil.formatIndex(s.getIndex()), s);
+      }
+    } catch (final ImejiException e) {
+      LOGGER.error("Error reading the statements of the projected items", e);
+    }
+    items.stream().flatMap(item -> item.getMetadata().stream()).forEach(md -> resolveStatement(md, statements.get(md.getIndex())));
+  }
+
+  /**
+   * Complete the metadata with its {@link Statement}. If the {@link Statement} isn't found, the
+   * metadata stays a text
+   *
+   * @param md
+   * @param statement
+   */
+  private static void resolveStatement(Metadata md, Statement statement) {
+    if (statement != null) {
+      md.setIndex(statement.getIndex());
+    }
+    if (statement != null && statement.getType() == StatementType.NUMBER && !Double.isNaN(md.getNumber())) {
+      md.setText(null);
+    } else {
+      md.setNumber(Double.NaN);
+    }
+  }
+
+  private static boolean isNullOrEmpty(String... values) {
+    for (final String value : values) {
+      if (!StringHelper.isNullOrEmptyTrim(value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String getString(Map<?, ?> source, String field) {
+    final Object value = source.get(field);
+    return value != null ? value.toString() : null;
+  }
+
+  private static Number getNumber(Map<?, ?> source, String field) {
+    final Object value = source.get(field);
+    return value instanceof Number ? (Number) value : Double.valueOf(0);
+  }
+}
@@ -2,6 +2,7 @@ package de.mpg.imeji.logic.search.elasticsearch;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -139,6 +140,10 @@ public class ElasticSearch implements Search {
     // single page or scroll search
     if (size != GET_ALL_RESULTS && size < SEARCH_INTERVALL_MAX_SIZE && from + size < SEARCH_TO_INDEX_LIMIT) {
       searchSourceBuilder.from(from).size(size);
+      if (isItemSearch()) {
+        // return only the fields needed to display the items without reading them in Jena
+        searchSourceBuilder.fetchSource(ElasticItemProjection.FIELDS, null);
+      }
       for (SortBuilder sb : ElasticSortFactory.build(sortCriteria)) {
         if (sb != null) {
           searchSourceBuilder.sort(sb);
@@ -148,7 +153,7 @@ public class ElasticSearch implements Search {
       //LOGGER.info(searchSourceBuilder.toString());
       return searchSinglePage(searchRequest, query);
     } else {
-      searchSourceBuilder.size(SEARCH_SCROLL_INTERVALL);
+      searchSourceBuilder.size(SEARCH_SCROLL_INTERVALL).fetchSource(false);
       for (SortBuilder sb : ElasticSortFactory.build(sortCriteria)) {
         if (sb != null) {
           searchSourceBuilder.sort(sb);
@@ -512,9 +517,26 @@ public class ElasticSearch implements Search {
     SearchResult searchResult = new SearchResult(ids, getTotalNumberOfRecords(searchResponse, facets),
         getNumberOfItems(searchResponse, facets), getNumberOfItemsOfCollection(searchResponse, facets),
         getNumberOfRootItemsOfCollection(searchResponse, facets), getNumberOfSubcollections(searchResponse, facets), facets);
+    if (isItemSearch()) {
+      for (final SearchHit hit : searchResponse.getHits()) {
+        if (hit.hasSource()) {
+          searchResult.addSource(hit.getId(), hit.getSourceAsMap());
+        }
+      }
+    }
     return searchResult;
   }
 
+  /**
+   * True if the search returns items: only their hits are projected by
+   * {@link ElasticItemProjection}
+   *
+   * @return
+   */
+  private boolean isItemSearch() {
+    return Arrays.asList(types).contains(SearchObjectTypes.ITEM);
+  }
+
   private long getTotalNumberOfRecords(SearchResponse resp, List<FacetResult> facets) {
     return facets.stream().filter(f -> f.getName().equals("all")).findAny().map(f -> f.getValues().get(0).getCount())
         .orElse(resp.getHits().getTotalHits().value);
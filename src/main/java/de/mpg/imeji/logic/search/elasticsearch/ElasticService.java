@@ -36,7 +36,8 @@ public class ElasticService {
     items,
     folders,
     users,
-    usergroups;
+    usergroups,
+    visibility;
 
     /**
      * Map a {@link SearchObjectTypes} to an ElasticIndex
@@ -15,7 +15,6 @@ import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.join.query.JoinQueryBuilders;
 
 import de.mpg.imeji.logic.config.Imeji;
-import de.mpg.imeji.logic.hierarchy.HierarchyService;
 import de.mpg.imeji.logic.model.CollectionImeji;
 import de.mpg.imeji.logic.model.Grant.GrantType;
 import de.mpg.imeji.logic.model.ImejiLicenses;
@@ -251,18 +250,11 @@ public class ElasticQueryFactory {
     if (containerUri == null) {
       return QueryBuilders.matchAllQuery();
     }
-    BoolQueryBuilder bq = QueryBuilders.boolQuery();
-    bq.should(fieldQuery(ElasticFields.FOLDER, containerUri, SearchOperators.EQUALS, false));
     if (addChildren) {
-      List<String> subCollections = new HierarchyService().findAllSubcollections(containerUri);
-      bq.should(QueryBuilders.termsQuery(ElasticFields.FOLDER.field(), subCollections));
-      /*
-       * for (String uri : new HierarchyService().findAllSubcollections(containerUri))
-       * { bq.should(fieldQuery(ElasticFields.FOLDER, uri, SearchOperators.EQUALS,
-       * false)); }
-       */
-    }
-    return bq;
+      // All objects below the container have it in their ancestors
+      return QueryBuilders.termQuery(ElasticFields.ANCESTORS.field(), containerUri);
+    }
+    return fieldQuery(ElasticFields.FOLDER, containerUri, SearchOperators.EQUALS, false);
   }
 
   /**
@@ -1,23 +1,30 @@
 package de.mpg.imeji.logic.search.elasticsearch.factory;
 
-import java.net.URI;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.indices.TermsLookup;
+import org.elasticsearch.rest.RestStatus;
 
-import de.mpg.imeji.logic.hierarchy.HierarchyService;
-import de.mpg.imeji.logic.model.Grant;
 import de.mpg.imeji.logic.model.Grant.GrantType;
 import de.mpg.imeji.logic.model.Properties.Status;
 import de.mpg.imeji.logic.model.User;
-import de.mpg.imeji.logic.search.elasticsearch.factory.util.ElasticSearchFactoryUtil;
+import de.mpg.imeji.logic.search.elasticsearch.ElasticService;
+import de.mpg.imeji.logic.search.elasticsearch.ElasticService.ElasticIndices;
 import de.mpg.imeji.logic.search.elasticsearch.model.ElasticFields;
+import de.mpg.imeji.logic.security.authorization.VisibilityService;
+import de.mpg.imeji.logic.security.authorization.VisibilityService.VisibleCollections;
 import de.mpg.imeji.logic.security.authorization.util.SecurityUtil;
-import de.mpg.imeji.logic.util.ObjectHelper;
-import de.mpg.imeji.logic.util.ObjectHelper.ObjectType;
 
 /**
  * Build a Boolean query with a list of all allowed collection and subcollections for one user.
@@ -30,12 +37,31 @@ import de.mpg.imeji.logic.util.ObjectHelper.ObjectType;
  * <li>Set the query for a specific role (the user should be then set)
  * <li>Set the type of user which are search (default is collection)
  * <li>Set if the search query is empty or not
+ * <br/>
+ * The allowed collections are read from the {@link VisibilityService}. Large sets are stored once
+ * per version in the visibility index, and the query only references them with a terms lookup
  * 
  * 
  * @author saquet
  *
  */
 public class SecurityQueryFactory {
+  private static final Logger LOGGER = LogManager.getLogger(SecurityQueryFactory.class);
+  // Sets with less collections are sent inline with the query
+  private static final int TERMS_LOOKUP_THRESHOLD = 100;
+  private static final String TERMS_LOOKUP_PATH = "collections";
+  // The version of the set stored in the visibility index for each key. Bounded like the cache of
+  // the VisibilityService: a forgotten key is only stored again
+  private static final int MAX_STORED_VERSIONS = 4000;
+  private static final Map<String, Long> STORED_VERSIONS = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+    private static final long serialVersionUID = -2816530374614924870L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+      return size() > MAX_STORED_VERSIONS;
+    }
+  };
+  private static final VisibilityService VISIBILITY_SERVICE = new VisibilityService();
   private boolean searchForCollections = true;
   private GrantType role = null;
   private User user;
@@ -61,12 +87,11 @@ public class SecurityQueryFactory {
    * @return
    */
   private QueryBuilder buildLoggedInUserSecurityQuery() {
-    List<String> collectionUris = getCollectionUris();
-    collectionUris = addChildren(collectionUris);
-    BoolQueryBuilder q = toQuery(collectionUris);
+    final VisibleCollections visible = VISIBILITY_SERVICE.getVisibleCollections(user, role);
+    BoolQueryBuilder q = toQuery(visible);
     if (role == null) {
       q.should(getStatusQuery());
-    } else if (role != null && collectionUris.isEmpty()) {
+    } else if (role != null && visible.getCollectionIds().isEmpty()) {
       return QueryBuilders.boolQuery().mustNot(QueryBuilders.matchAllQuery());
     }
     return q;
@@ -82,28 +107,67 @@ public class SecurityQueryFactory {
   }
 
   /**
-   * Return a list of collection uris as a BoolQueryBuilder
+   * Return the visible collections as a BoolQueryBuilder
    * 
-   * @param collectionUris
+   * @param visible
    * @return
    */
-  private BoolQueryBuilder toQuery(List<String> collectionUris) {
+  private BoolQueryBuilder toQuery(VisibleCollections visible) {
     final BoolQueryBuilder q = QueryBuilders.boolQuery();
-    q.should(QueryBuilders.termsQuery(searchForCollections ? ElasticFields.ID.field() : ElasticFields.FOLDER.field(), collectionUris));
-
-    //collectionUris.stream().forEach(
-    //    uri -> q.should(QueryBuilders.termQuery(searchForCollections ? ElasticFields.ID.field() : ElasticFields.FOLDER.field(), uri)));
+    final String field = searchForCollections ? ElasticFields.ID.field() : ElasticFields.FOLDER.field();
+    if (visible.getCollectionIds().size() >= TERMS_LOOKUP_THRESHOLD && storeForLookup(visible)) {
+      q.should(QueryBuilders.termsLookupQuery(field, new TermsLookup(ElasticIndices.visibility.name(), visible.getKey(), TERMS_LOOKUP_PATH)));
+    } else {
+      q.should(QueryBuilders.termsQuery(field, visible.getCollectionIds()));
+    }
     return q;
   }
 
   /**
-   * Return the list of all collections allowed for the user and, if defined, for for the grant
+   * Store the visible collections in the visibility index, if this version isn't already stored.
+   * The document is indexed with the version of the set as external version, so that an older set
+   * never overwrites a newer one. Return false if the collections couldn't be stored
    * 
+   * @param visible
    * @return
    */
-  private List<String> getCollectionUris() {
-    List<Grant> grants = ElasticSearchFactoryUtil.getAllGrants(user);
-    return filterByRoleAndGetCollectionUri(grants, role);
+  private static boolean storeForLookup(VisibleCollections visible) {
+    synchronized (STORED_VERSIONS) {
+      final Long stored = STORED_VERSIONS.get(visible.getKey());
+      if (stored != null && stored >= visible.getVersion()) {
+        return true;
+      }
+    }
+    try {
+      final IndexRequest req = new IndexRequest(ElasticIndices.visibility.name()).id(visible.getKey())
+          .source(Collections.singletonMap(TERMS_LOOKUP_PATH, visible.getCollectionIds()))
+          .versionType(VersionType.EXTERNAL).version(visible.getVersion());
+      try {
+        ElasticService.getClient().index(req, RequestOptions.DEFAULT);
+      } catch (final ElasticsearchStatusException e) {
+        if (e.status() != RestStatus.CONFLICT) {
+          throw e;
+        }
+        // A newer (or the same) version is already stored
+      }
+      synchronized (STORED_VERSIONS) {
+        STORED_VERSIONS.merge(visible.getKey(), visible.getVersion(), Math::max);
+      }
+      return true;
+    } catch (final Exception e) {
+      LOGGER.error("Error storing the visible collections of " + visible.getKey(), e);
+      return false;
+    }
+  }
+
+  /**
+   * Forget the versions stored in the visibility index. Must be called when the index is deleted,
+   * so that the sets are stored again before they are looked up
+   */
+  public static void clearStoredVersions() {
+    synchronized (STORED_VERSIONS) {
+      STORED_VERSIONS.clear();
+    }
   }
 
   /**
@@ -137,26 +201,4 @@ public class SecurityQueryFactory {
     searchForCollections = b;
     return this;
   }
-
-  /**
-   * Get all children of a collection of a Collection
-   * 
-   * @param collectionsUris
-   * @return
-   */
-  private List<String> addChildren(List<String> collectionsUris) {
-    return collectionsUris.stream().flatMap(uri -> new HierarchyService().addAllSubcollections(uri).stream()).collect(Collectors.toList());
-  }
-
-  /**
-   * Filter the Grants by role and return the collection uris for these grants
-   * 
-   * @param user
-   * @param role
-   * @return
-   */
-  private static List<String> filterByRoleAndGetCollectionUri(List<Grant> grants, GrantType role) {
-    return grants.stream().filter(g -> ObjectHelper.getObjectType(URI.create(g.getGrantFor())) == ObjectType.COLLECTION
-        && (role == null || role.isSameOrBigger(g.getGrantType()))).map(g -> g.getGrantFor()).collect(Collectors.toList());
-  }
 }
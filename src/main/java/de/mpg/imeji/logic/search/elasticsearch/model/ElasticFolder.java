@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import de.mpg.imeji.logic.hierarchy.HierarchyService;
 import de.mpg.imeji.logic.model.CollectionImeji;
 import de.mpg.imeji.logic.model.ContainerAdditionalInfo;
 import de.mpg.imeji.logic.model.Person;
@@ -18,6 +19,7 @@ import de.mpg.imeji.logic.model.Person;
 public final class ElasticFolder extends ElasticProperties {
   private final String name;
   private final String folder;
+  private final List<String> ancestors;
   private final String description;
   private final String creators;
   private final List<String> pid;
@@ -34,6 +36,7 @@ public final class ElasticFolder extends ElasticProperties {
     this.description = c.getDescription();
     this.pid = c.getDoi() != null ? Arrays.asList(c.getDoi()) : new ArrayList<String>();
     this.folder = c.getCollection() != null ? c.getCollection().toString() : null;
+    this.ancestors = HierarchyService.findAncestors(folder);
     this.creators = c.getPersons().stream().map(p -> p.getCompleteName()).collect(Collectors.joining(";"));
     for (final Person p : c.getPersons()) {
       author.add(new ElasticPerson(p));
@@ -85,6 +88,13 @@ public final class ElasticFolder extends ElasticProperties {
     return folder;
   }
 
+  /**
+   * @return the parent folder and all its parents
+   */
+  public List<String> getAncestors() {
+    return ancestors;
+  }
+
   /**
    * @return the joinField
    */
@@ -3,11 +3,13 @@ package de.mpg.imeji.logic.search.elasticsearch.model;
 import java.util.ArrayList;
 import java.util.List;
 
+import de.mpg.imeji.logic.hierarchy.HierarchyService;
 import de.mpg.imeji.logic.model.ImejiLicenses;
 import de.mpg.imeji.logic.model.Item;
 import de.mpg.imeji.logic.model.License;
 import de.mpg.imeji.logic.model.Metadata;
 import de.mpg.imeji.logic.model.util.LicenseUtil;
+import de.mpg.imeji.logic.search.elasticsearch.script.misc.CollectionFields;
 import de.mpg.imeji.logic.util.StorageUtils;
 import de.mpg.imeji.logic.util.StringHelper;
 
@@ -21,6 +23,7 @@ import de.mpg.imeji.logic.util.StringHelper;
  */
 public final class ElasticItem extends ElasticProperties {
   private final String folder;
+  private final List<String> ancestors;
   private final String name;
   private final String license;
   private final String filetype;
@@ -28,6 +31,9 @@ public final class ElasticItem extends ElasticProperties {
   private final long size;
   private final List<ElasticMetadata> metadata = new ArrayList<>();
   private final ElasticJoinField joinField = new ElasticJoinField();
+  private List<String> authorsOfCollection;
+  private List<String> organizationsOfCollection;
+  private String titleWithIdOfCollection;
 
   /**
    * Constructor with an {@link Item}
@@ -37,6 +43,7 @@ public final class ElasticItem extends ElasticProperties {
   public ElasticItem(Item item) {
     super(item);
     this.folder = item.getCollection() != null ? item.getCollection().toString() : null;
+    this.ancestors = HierarchyService.findAncestors(folder);
     this.name = item.getFilename();
     this.license = getLicenseName(item);
     this.size = item.getFileSize();
@@ -87,6 +94,13 @@ public final class ElasticItem extends ElasticProperties {
     return folder;
   }
 
+  /**
+   * @return the folder and all its parents
+   */
+  public List<String> getAncestors() {
+    return ancestors;
+  }
+
   public long getSize() {
     return size;
   }
@@ -105,4 +119,29 @@ public final class ElasticItem extends ElasticProperties {
   public ElasticJoinField getJoinField() {
     return joinField;
   }
+
+  /**
+   * Index the item with the fields of its collection
+   *
+   * @param fields
+   */
+  public void setCollectionFields(CollectionFields fields) {
+    if (fields != null) {
+      this.authorsOfCollection = fields.getAuthors();
+      this.organizationsOfCollection = fields.getOrganizations();
+      this.titleWithIdOfCollection = fields.getTitleWithId();
+    }
+  }
+
+  public List<String> getAuthorsOfCollection() {
+    return authorsOfCollection;
+  }
+
+  public List<String> getOrganizationsOfCollection() {
+    return organizationsOfCollection;
+  }
+
+  public String getTitleWithIdOfCollection() {
+    return titleWithIdOfCollection;
+  }
 }
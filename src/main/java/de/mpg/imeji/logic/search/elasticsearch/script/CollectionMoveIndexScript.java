@@ -0,0 +1,60 @@
+package de.mpg.imeji.logic.search.elasticsearch.script;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.reindex.BulkByScrollResponse;
+import org.elasticsearch.index.reindex.UpdateByQueryRequest;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
+
+import de.mpg.imeji.logic.search.elasticsearch.ElasticService;
+import de.mpg.imeji.logic.search.elasticsearch.ElasticService.ElasticIndices;
+import de.mpg.imeji.logic.search.elasticsearch.model.ElasticFields;
+
+/**
+ * Script runned after a collection has been moved: update the ancestors of all items and
+ * subcollections below the moved collection with one update by query
+ */
+public class CollectionMoveIndexScript {
+  private static final Logger LOGGER = LogManager.getLogger(CollectionMoveIndexScript.class);
+  private static final String SCRIPT = "if (ctx._source.ancestors == null) { ctx._source.ancestors = new ArrayList(); } "
+      + "ctx._source.ancestors.removeAll(params.oldAncestors); ctx._source.ancestors.addAll(params.newAncestors);";
+
+  /**
+   * private constructor
+   */
+  private CollectionMoveIndexScript() {
+
+  }
+
+  /**
+   * Run the script
+   * 
+   * @param collectionId the moved collection
+   * @param oldAncestors the ancestors of the collection before the move
+   * @param newAncestors the ancestors of the collection after the move
+   * @throws IOException
+   */
+  public static void run(String collectionId, List<String> oldAncestors, List<String> newAncestors) throws IOException {
+    final Map<String, Object> params = new HashMap<>();
+    params.put("oldAncestors", oldAncestors);
+    params.put("newAncestors", newAncestors);
+    final UpdateByQueryRequest request = new UpdateByQueryRequest(ElasticIndices.items.name(), ElasticIndices.folders.name());
+    request.setQuery(QueryBuilders.termQuery(ElasticFields.ANCESTORS.field(), collectionId));
+    request.setScript(new Script(ScriptType.INLINE, "painless", SCRIPT, params));
+    request.setConflicts("proceed");
+    request.setRefresh(true);
+    final BulkByScrollResponse response = ElasticService.getClient().updateByQuery(request, RequestOptions.DEFAULT);
+    if (!response.getBulkFailures().isEmpty() || !response.getSearchFailures().isEmpty()) {
+      LOGGER.error("Ancestors of " + collectionId + " partially updated: " + response.getBulkFailures().size() + " failures");
+    }
+    LOGGER.info(response.getUpdated() + " documents moved with collection " + collectionId);
+  }
+}
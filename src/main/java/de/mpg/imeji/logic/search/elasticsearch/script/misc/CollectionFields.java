@@ -55,11 +55,11 @@ public class CollectionFields {
     ArrayList<String> authorOrganizations = new ArrayList<>();
     JsonNode authorNode = sourceNode.get("author");
 
-    if (authorNode.isArray()) {
+    if (authorNode != null && authorNode.isArray()) {
       for (JsonNode node : authorNode) {
         authorNames.add(node.get("completename").asText());
         JsonNode orgsNode = node.get("organization");
-        if (orgsNode.isArray()) {
+        if (orgsNode != null && orgsNode.isArray()) {
           for (JsonNode on : orgsNode) {
             authorOrganizations.add(on.asText());
           }
@@ -0,0 +1,156 @@
+package de.mpg.imeji.logic.search.elasticsearch.script.misc;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+
+import de.mpg.imeji.logic.model.CollectionImeji;
+import de.mpg.imeji.logic.search.elasticsearch.ElasticService;
+import de.mpg.imeji.logic.search.elasticsearch.ElasticService.ElasticIndices;
+import de.mpg.imeji.logic.search.elasticsearch.model.ElasticFields;
+
+/**
+ * Small LRU cache of the {@link CollectionFields} indexed with the items. <br/>
+ * - The fields of the collections which are not cached are read with one multi get <br/>
+ * - Every entry is stored with the last modification date of its collection: an entry is replaced
+ * when a newer version of the collection is indexed <br/>
+ * - Collections read from another index than the folders alias (i.e. during a reindex) are neither
+ * read from nor written to the cache
+ */
+public class CollectionFieldsCache {
+  private static final Logger LOGGER = LogManager.getLogger(CollectionFieldsCache.class);
+  private static final int MAX_SIZE = 1000;
+  private static final String[] INCLUDES = new String[] {ElasticFields.AUTHOR_COMPLETENAME.field(),
+      ElasticFields.AUTHOR_ORGANIZATION.field(), ElasticFields.ID.field(), ElasticFields.NAME.field(), ElasticFields.MODIFIED.field()};
+  private static final Map<String, Entry> CACHE = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+    private static final long serialVersionUID = -2049185727946185337L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+      return size() > MAX_SIZE;
+    }
+  };
+
+  /**
+   * A cached {@link CollectionFields} with the modification date of its collection
+   */
+  private static class Entry {
+    private final long modified;
+    private final CollectionFields fields;
+
+    private Entry(long modified, CollectionFields fields) {
+      this.modified = modified;
+      this.fields = fields;
+    }
+  }
+
+  /**
+   * private constructor
+   */
+  private CollectionFieldsCache() {
+
+  }
+
+  /**
+   * Return the {@link CollectionFields} of the collections. Collections which are not found are not
+   * in the returned map
+   *
+   * @param collectionIds
+   * @return
+   */
+  public static Map<String, CollectionFields> resolve(Collection<String> collectionIds) {
+    return resolve(collectionIds, ElasticIndices.folders.name());
+  }
+
+  /**
+   * Return the {@link CollectionFields} of the collections read from the folders index. Collections
+   * which are not found are not in the returned map
+   *
+   * @param collectionIds
+   * @param foldersIndex
+   * @return
+   */
+  public static Map<String, CollectionFields> resolve(Collection<String> collectionIds, String foldersIndex) {
+    final boolean cached = ElasticIndices.folders.name().equals(foldersIndex);
+    final Map<String, CollectionFields> fields = new HashMap<>();
+    final MultiGetRequest request = new MultiGetRequest();
+    synchronized (CACHE) {
+      for (final String id : new HashSet<>(collectionIds)) {
+        final Entry entry = cached ? CACHE.get(id) : null;
+        if (entry != null) {
+          fields.put(id, entry.fields);
+        } else {
+          request.add(new MultiGetRequest.Item(foldersIndex, id).fetchSourceContext(new FetchSourceContext(true, INCLUDES, null)));
+        }
+      }
+    }
+    if (!request.getItems().isEmpty()) {
+      fields.putAll(read(request, cached));
+    }
+    return fields;
+  }
+
+  /**
+   * Update the cache with a newly indexed collection
+   *
+   * @param c
+   */
+  public static void update(CollectionImeji c) {
+    final long modified = c.getModified() != null ? c.getModified().getTimeInMillis() : 0;
+    put(c.getId().toString(), new Entry(modified, new CollectionFields(c)));
+  }
+
+  /**
+   * Read the collections of the {@link MultiGetRequest}
+   *
+   * @param request
+   * @param cache if true, the collections are cached
+   * @return
+   */
+  private static Map<String, CollectionFields> read(MultiGetRequest request, boolean cache) {
+    final Map<String, CollectionFields> fields = new HashMap<>();
+    try {
+      final MultiGetResponse response = ElasticService.getClient().mget(request, RequestOptions.DEFAULT);
+      for (final MultiGetItemResponse item : response.getResponses()) {
+        if (!item.isFailed() && item.getResponse().isExists()) {
+          final Object modified = item.getResponse().getSourceAsMap().get(ElasticFields.MODIFIED.field());
+          final Entry entry = new Entry(modified instanceof Number ? ((Number) modified).longValue() : 0,
+              new CollectionFields(item.getResponse().getSourceAsBytes()));
+          if (cache) {
+            put(item.getId(), entry);
+          }
+          fields.put(item.getId(), entry.fields);
+        }
+      }
+    } catch (final IOException e) {
+      LOGGER.error("Could not retrieve collection fields", e);
+    }
+    return fields;
+  }
+
+  /**
+   * Cache the entry, if it isn't older than the cached one
+   *
+   * @param id
+   * @param entry
+   */
+  private static void put(String id, Entry entry) {
+    synchronized (CACHE) {
+      final Entry cached = CACHE.get(id);
+      if (cached == null || cached.modified <= entry.modified) {
+        CACHE.put(id, entry);
+      }
+    }
+  }
+}
@@ -8,7 +8,6 @@ import org.apache.logging.log4j.LogManager;
 import de.mpg.imeji.exceptions.ImejiException;
 import de.mpg.imeji.j2j.transaction.SPARQLUpdateTransaction;
 import de.mpg.imeji.j2j.transaction.SearchTransaction;
-import de.mpg.imeji.j2j.transaction.ThreadedTransaction;
 import de.mpg.imeji.logic.config.Imeji;
 
 /**
@@ -74,7 +73,7 @@ public class ImejiSPARQL {
    */
   public static void execUpdate(String query) {
     try {
-      ThreadedTransaction.run(new ThreadedTransaction(new SPARQLUpdateTransaction(null, query), Imeji.tdbPath));
+      Imeji.writer.write(new SPARQLUpdateTransaction(null, query));
     } catch (final Exception e) {
       throw new RuntimeException(e);
     }
@@ -442,6 +442,53 @@ public class JenaCustomQueries {
     return "SELECT ?s WHERE { ?s a <http://imeji.org/terms/item>}";
   }
 
+  /**
+   * Select the page of the results of a query "SELECT ?s WHERE {...}" starting after the uri. The
+   * results are ordered by uri, so that the pages are stable while objects are created or deleted
+   *
+   * @param query
+   * @param after the last uri of the previous page, or null for the first page
+   * @param limit
+   * @return
+   */
+  public static final String selectPageAfter(String query, String after, int limit) {
+    final String filter = after != null ? " FILTER(STR(?s) > \"" + after + "\")" : "";
+    return "SELECT ?s WHERE {" + getWherePattern(query) + filter + "} ORDER BY STR(?s) LIMIT " + limit;
+  }
+
+  /**
+   * The query "SELECT ?s WHERE {...}" with distinct results, as expected by
+   * {@link ImejiSPARQL#execCount(String, String)}
+   *
+   * @param query
+   * @return
+   */
+  public static final String selectDistinct(String query) {
+    return "SELECT DISTINCT ?s WHERE {" + getWherePattern(query) + "}";
+  }
+
+  /**
+   * The graph pattern of a query "SELECT ?s WHERE {...}"
+   *
+   * @param query
+   * @return
+   */
+  private static String getWherePattern(String query) {
+    return query.substring(query.indexOf('{') + 1, query.lastIndexOf('}'));
+  }
+
+  /**
+   * Select all objects of the type (item, collection, etc.) modified since the date
+   *
+   * @param type
+   * @param date
+   * @return
+   */
+  public static final String selectModifiedSince(String type, Calendar date) {
+    return "SELECT ?s WHERE { ?s a <http://imeji.org/terms/" + type + "> . ?s <" + ImejiNamespaces.LAST_MODIFICATION_DATE
+        + "> ?date . FILTER(?date >= \"" + DateHelper.printJenaDate(date) + "\"^^<http://www.w3.org/2001/XMLSchema#dateTime>)}";
+  }
+
   /**
    * Select all {@link Statement} available imeji
    *
@@ -535,6 +582,31 @@ public class JenaCustomQueries {
         + height + "}" + "USING <http://imeji.org/item> " + "WHERE{<" + itemId + "> ?p ?o}";
   }
 
+  /**
+   * Replace the filesize (and the dimension, if not null) of a {@link Item}
+   *
+   * @param itemId
+   * @param fileSize
+   * @param width
+   * @param height
+   * @return
+   */
+  public static final String updateFileSizeAndDimension(String itemId, String fileSize, String width, String height) {
+    final String item = "<" + itemId + ">";
+    String delete = item + " <http://imeji.org/terms/fileSize> ?size";
+    String insert = item + " <http://imeji.org/terms/fileSize> " + fileSize;
+    String where = "OPTIONAL{" + item + " <http://imeji.org/terms/fileSize> ?size}";
+    if (width != null && height != null) {
+      delete += " . " + item + " <http://www.w3.org/2003/12/exif/ns#width> ?w . " + item + " <http://www.w3.org/2003/12/exif/ns#height> ?h";
+      insert += " . " + item + " <http://www.w3.org/2003/12/exif/ns#width> " + width + " . " + item
+          + " <http://www.w3.org/2003/12/exif/ns#height> " + height;
+      where += " OPTIONAL{" + item + " <http://www.w3.org/2003/12/exif/ns#width> ?w} OPTIONAL{" + item
+          + " <http://www.w3.org/2003/12/exif/ns#height> ?h}";
+    }
+    return "WITH <http://imeji.org/item> DELETE {" + delete + "} INSERT {" + insert + "} USING <http://imeji.org/item> WHERE {" + item
+        + " a <http://imeji.org/terms/item> . " + where + "}";
+  }
+
   public static final String getInactiveUsers() {
     return "select ?s where { ?s a <http://imeji.org/terms/user> . ?s <http://imeji.org/terms/userStatus> <http://imeji.org/terms/userStatus#INACTIVE>}";
   }
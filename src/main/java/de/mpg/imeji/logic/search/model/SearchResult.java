@@ -1,6 +1,8 @@
 package de.mpg.imeji.logic.search.model;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.jena.Jena;
 
@@ -29,6 +31,10 @@ public class SearchResult {
   private String query = null;
   private SortCriterion sort;
   private List<FacetResult> facets;
+  /**
+   * The projected source of the results (id -> field -> value), if returned by the search
+   */
+  private Map<String, Map<String, Object>> sources = new HashMap<>();
 
   /**
    * Create a new {@link SearchResult} from a {@link List} of String, and sort it if a
@@ -113,6 +119,35 @@ public class SearchResult {
     this.facets = facets;
   }
 
+  /**
+   * Set the projected source of a result
+   *
+   * @param id
+   * @param source
+   */
+  public void addSource(String id, Map<String, Object> source) {
+    sources.put(id, source);
+  }
+
+  /**
+   * Return the projected source of a result, or null if the search didn't return it
+   *
+   * @param id
+   * @return
+   */
+  public Map<String, Object> getSource(String id) {
+    return sources.get(id);
+  }
+
+  /**
+   * True if the search returned the projected source of all results
+   *
+   * @return
+   */
+  public boolean hasSources() {
+    return results != null && sources.keySet().containsAll(results);
+  }
+
   public int getNumberOfItems() {
     return numberOfItems;
   }
@@ -0,0 +1,182 @@
+package de.mpg.imeji.logic.security.authentication;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.SerializationUtils;
+
+import de.mpg.imeji.logic.model.User;
+
+/**
+ * Bounded cache of the authenticated users (with their groups and grants), so that an authenticated
+ * request doesn't read the user from the database. <br/>
+ * - The users are found by the hash of their credentials (API Key, or login and password) or by
+ * their id <br/>
+ * - Entries expire after a fixed time, and are removed when the user is modified (see
+ * UserService.setRecentlyModified) <br/>
+ * - An entry only accepts the credentials the user has been authenticated with since it has been
+ * cached: credentials changed in the meantime are checked again against the database <br/>
+ * - A copy of the cached user is returned, so that the cached user can't be changed by a request
+ */
+public class PrincipalCache {
+  private static final long TTL = 5 * 60 * 1000;
+  private static final int MAX_SIZE = 1000;
+  private static final Map<String, String> CREDENTIALS = newLruMap();
+  private static final Map<String, Entry> USERS = newLruMap();
+  private static final AtomicLong GENERATION = new AtomicLong();
+
+  /**
+   * A cached {@link User} with its expiration time and the hashes of its valid credentials
+   */
+  private static class Entry {
+    private final User user;
+    private final long expires;
+    private final Set<String> credentials = new HashSet<>();
+
+    private Entry(User user) {
+      this.user = user;
+      this.expires = System.currentTimeMillis() + TTL;
+    }
+  }
+
+  /**
+   * private constructor
+   */
+  private PrincipalCache() {
+
+  }
+
+  /**
+   * The current generation of the cache. Must be read before reading a user from the database, and
+   * passed to {@link #put(User, long, String...)}
+   *
+   * @return
+   */
+  public static long getGeneration() {
+    return GENERATION.get();
+  }
+
+  /**
+   * Return the user authenticated with these credentials, or null if not cached
+   *
+   * @param credentials
+   * @return
+   */
+  public static User getByCredentials(String... credentials) {
+    final String hash = hash(credentials);
+    final String userId;
+    synchronized (CREDENTIALS) {
+      userId = CREDENTIALS.get(hash);
+    }
+    return userId != null ? getUser(URI.create(userId), hash) : null;
+  }
+
+  /**
+   * Return the user with this id, or null if not cached
+   *
+   * @param userId
+   * @return
+   */
+  public static User getUser(URI userId) {
+    return getUser(userId, null);
+  }
+
+  /**
+   * Cache the user read from the database, with the credentials it has been authenticated with (if
+   * any). Nothing is cached if the cache has been invalidated since the user has been read
+   *
+   * @param user
+   * @param generation the generation before the user has been read
+   * @param credentials
+   */
+  public static void put(User user, long generation, String... credentials) {
+    final String hash = credentials.length > 0 ? hash(credentials) : null;
+    synchronized (USERS) {
+      if (generation != GENERATION.get()) {
+        return;
+      }
+      final Entry entry = new Entry(SerializationUtils.clone(user));
+      final Entry previous = USERS.put(user.getId().toString(), entry);
+      if (previous != null) {
+        // Not invalidated since the generation: the credentials are still valid
+        entry.credentials.addAll(previous.credentials);
+      }
+      if (hash != null) {
+        entry.credentials.add(hash);
+      }
+    }
+    if (hash != null) {
+      synchronized (CREDENTIALS) {
+        CREDENTIALS.put(hash, user.getId().toString());
+      }
+    }
+  }
+
+  /**
+   * Remove the user from the cache
+   *
+   * @param userId
+   */
+  public static void invalidate(URI userId) {
+    if (userId != null) {
+      synchronized (USERS) {
+        GENERATION.incrementAndGet();
+        USERS.remove(userId.toString());
+      }
+    }
+  }
+
+  /**
+   * Remove all users from the cache
+   */
+  public static void invalidateAll() {
+    synchronized (USERS) {
+      GENERATION.incrementAndGet();
+      USERS.clear();
+    }
+    synchronized (CREDENTIALS) {
+      CREDENTIALS.clear();
+    }
+  }
+
+  /**
+   * Return a copy of the cached user, if the entry isn't expired and accepts the credentials
+   *
+   * @param userId
+   * @param credentialsHash null to not check the credentials
+   * @return
+   */
+  private static User getUser(URI userId, String credentialsHash) {
+    synchronized (USERS) {
+      final Entry entry = USERS.get(userId.toString());
+      if (entry == null || entry.expires < System.currentTimeMillis()) {
+        USERS.remove(userId.toString());
+        return null;
+      }
+      if (credentialsHash != null && !entry.credentials.contains(credentialsHash)) {
+        return null;
+      }
+      return SerializationUtils.clone(entry.user);
+    }
+  }
+
+  private static String hash(String... credentials) {
+    return DigestUtils.sha256Hex(String.join("\n", credentials));
+  }
+
+  private static <V> Map<String, V> newLruMap() {
+    return new LinkedHashMap<String, V>(16, 0.75f, true) {
+      private static final long serialVersionUID = 3615420370282436045L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+        return size() > MAX_SIZE;
+      }
+    };
+  }
+}
@@ -19,6 +19,7 @@ import de.mpg.imeji.logic.config.Imeji;
 import de.mpg.imeji.logic.model.User;
 import de.mpg.imeji.logic.security.authentication.Authentication;
 import de.mpg.imeji.logic.security.authentication.ImejiRsaKeys;
+import de.mpg.imeji.logic.security.authentication.PrincipalCache;
 import de.mpg.imeji.logic.security.user.UserService;
 
 /**
@@ -29,6 +30,7 @@ import de.mpg.imeji.logic.security.user.UserService;
  */
 public class APIKeyAuthentication implements Authentication {
   private static final Logger LOGGER = LogManager.getLogger(APIKeyAuthentication.class);
+  private static final String CREDENTIALS_TYPE = "apiKey";
   private final String key;
 
   public APIKeyAuthentication(String key) {
@@ -38,11 +40,18 @@ public class APIKeyAuthentication implements Authentication {
   @Override
   public User doLogin() throws AuthenticationError {
     try {
+      final String userId = consumeJsonWebToken(key);
+      final User cached = PrincipalCache.getByCredentials(CREDENTIALS_TYPE, key);
+      if (cached != null && cached.getId().toString().equals(userId) && cached.isActive()) {
+        return cached;
+      }
+      final long generation = PrincipalCache.getGeneration();
       final UserService controller = new UserService();
-      final User user = controller.retrieve(URI.create(consumeJsonWebToken(key)), Imeji.adminUser);
+      final User user = controller.retrieve(URI.create(userId), Imeji.adminUser);
       if (!user.isActive()) {
         throw new InactiveAuthenticationError("Not active user: please activate your account with the limk sent after your registration");
       } else if (key.equals(user.getApiKey())) {
+        PrincipalCache.put(user, generation, CREDENTIALS_TYPE, key);
         return user;
       }
     } catch (final Exception e) {
@@ -9,6 +9,7 @@ import de.mpg.imeji.exceptions.InactiveAuthenticationError;
 import de.mpg.imeji.logic.config.Imeji;
 import de.mpg.imeji.logic.model.User;
 import de.mpg.imeji.logic.security.authentication.Authentication;
+import de.mpg.imeji.logic.security.authentication.PrincipalCache;
 import de.mpg.imeji.logic.security.user.UserService;
 import de.mpg.imeji.logic.util.StringHelper;
 
@@ -21,6 +22,7 @@ import de.mpg.imeji.logic.util.StringHelper;
  */
 public final class DefaultAuthentication implements Authentication {
   private static final Logger LOGGER = LogManager.getLogger(DefaultAuthentication.class);
+  private static final String CREDENTIALS_TYPE = "login";
   private final String login;
   private final String pwd;
 
@@ -42,6 +44,11 @@ public final class DefaultAuthentication implements Authentication {
     if (StringHelper.isNullOrEmptyTrim(getUserLogin()) && StringHelper.isNullOrEmptyTrim(getUserPassword())) {
       return null;
     }
+    final User cached = PrincipalCache.getByCredentials(CREDENTIALS_TYPE, getUserLogin(), getUserPassword());
+    if (cached != null && cached.isActive()) {
+      return cached;
+    }
+    final long generation = PrincipalCache.getGeneration();
     User user;
     try {
       user = new UserService().retrieve(getUserLogin(), Imeji.adminUser);
@@ -53,6 +60,7 @@ public final class DefaultAuthentication implements Authentication {
     }
     try {
       if (user.getEncryptedPassword().equals(StringHelper.md5(getUserPassword()))) {
+        PrincipalCache.put(user, generation, CREDENTIALS_TYPE, getUserLogin(), getUserPassword());
         return user;
       }
     } catch (final Exception e) {
@@ -90,7 +90,7 @@ public class Authorization implements Serializable {
    * @throws NotAllowedError
    */
   public boolean read(User user, Object obj) {
-    return isPublic(obj, user) || isSysAdmin(user) || hasReadGrant(getAllGrants(user), getId(obj));
+    return isPublic(obj, user) || isSysAdmin(user) || GrantIndex.get(user).hasGrant(getId(obj));
   }
 
   /**
@@ -102,7 +102,7 @@ public class Authorization implements Serializable {
    * @throws NotAllowedError
    */
   public boolean update(User user, Object obj) {
-    return isSysAdmin(user) || hasEditGrant(getAllGrants(user), getId(obj));
+    return isSysAdmin(user) || GrantIndex.get(user).hasGrant(getId(obj), GrantType.EDIT);
   }
 
   /**
@@ -129,7 +129,7 @@ public class Authorization implements Serializable {
    * @throws NotAllowedError
    */
   public boolean administrate(User user, Object obj) {
-    return isSysAdmin(user) || hasAdminGrant(getAllGrants(user), getId(obj));
+    return isSysAdmin(user) || GrantIndex.get(user).hasGrant(getId(obj), GrantType.ADMIN);
   }
 
   /**
@@ -151,8 +151,7 @@ public class Authorization implements Serializable {
    * @return
    */
   public boolean isShared(User user, Object obj) {
-    return hasReadGrant(getAllGrants(user), getId(obj)) || hasEditGrant(getAllGrants(user), getId(obj))
-        || hasAdminGrant(getAllGrants(user), getId(obj));
+    return GrantIndex.get(user).hasGrant(getId(obj));
   }
 
   /**
@@ -166,40 +165,6 @@ public class Authorization implements Serializable {
     return grants != null && grants.contains(grant.toGrantString());
   }
 
-  /**
-   * True if the User has either Read, Edit of Admin Grant for this uri
-   *
-   * @param grants
-   * @param uri
-   * @return
-   */
-  private boolean hasReadGrant(Collection<String> grants, String uri) {
-    return toGrantList(grants).stream().anyMatch(g -> g.getGrantFor().equals(uri));
-  }
-
-  /**
-   * True if the User has either Edit of Admin Grant for this uri
-   *
-   * @param grants
-   * @param uri
-   * @return
-   */
-  private boolean hasEditGrant(Collection<String> grants, String uri) {
-    return toGrantList(grants).stream().anyMatch(g -> g.getGrantFor().equals(uri)
-        && (g.getGrantType().equals(GrantType.EDIT.toString()) || g.getGrantType().equals(GrantType.ADMIN.toString())));
-  }
-
-  /**
-   * True if the User has Admin Grant for this uri
-   *
-   * @param grants
-   * @param uri
-   * @return
-   */
-  private boolean hasAdminGrant(Collection<String> grants, String uri) {
-    return hasGrant(grants, new Grant(GrantType.ADMIN, uri));
-  }
-
   /**
    * Return all {@link Grant} of {@link User} including those from the {@link UserGroup} he is
    * member of.
@@ -0,0 +1,185 @@
+package de.mpg.imeji.logic.security.authorization;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.mpg.imeji.logic.model.Grant;
+import de.mpg.imeji.logic.model.Grant.GrantType;
+import de.mpg.imeji.logic.model.User;
+import de.mpg.imeji.logic.model.UserGroup;
+
+/**
+ * The grants of a {@link User} (inclusive the grants of its {@link UserGroup}) compiled once into a
+ * map from the object uri to the highest {@link GrantType}. <br/>
+ * - The index of every stored user is cached in a bounded cache, and compiled again when the user
+ * or one of its groups has been modified: the index is valid as long as the modified dates of the
+ * user and of its groups, and the groups themselves, are unchanged. The modified date of a user is
+ * updated with every change of its grants, and with every change of the grants of its groups (see
+ * UserService.setRecentlyModified) <br/>
+ * - The index is also removed when the user is modified ({@link #invalidate(URI)}) <br/>
+ * - Users which haven't been stored yet (without modified date) are compiled at every call <br/>
+ * - Grants are defined on the top level collections: the uri of subcollections and items must be
+ * resolved with the HierarchyService before the lookup
+ */
+public class GrantIndex {
+  private static final int MAX_SIZE = 1000;
+  private static final Map<String, GrantIndex> CACHE = new LinkedHashMap<String, GrantIndex>(16, 0.75f, true) {
+    private static final long serialVersionUID = -5329620837431768201L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, GrantIndex> eldest) {
+      return size() > MAX_SIZE;
+    }
+  };
+  private static final GrantIndex EMPTY = new GrantIndex(null);
+  private final long modified;
+  private final List<URI> groupIds = new ArrayList<>();
+  private final List<Long> groupsModified = new ArrayList<>();
+  private final Map<String, GrantType> grants = new HashMap<>();
+
+  /**
+   * Compile the grants of the user and of its groups
+   *
+   * @param user
+   */
+  private GrantIndex(User user) {
+    this.modified = user != null ? getTime(user.getModified()) : -1;
+    if (user != null) {
+      add(user.getGrants());
+      for (final UserGroup group : user.getGroups()) {
+        groupIds.add(group.getId());
+        groupsModified.add(getTime(group.getModified()));
+        add(group.getGrants());
+      }
+    }
+  }
+
+  /**
+   * Return the {@link GrantIndex} of the {@link User}
+   *
+   * @param user
+   * @return
+   */
+  public static GrantIndex get(User user) {
+    if (user == null) {
+      return EMPTY;
+    }
+    if (user.getId() == null || user.getModified() == null) {
+      return new GrantIndex(user);
+    }
+    final String key = user.getId().toString();
+    synchronized (CACHE) {
+      final GrantIndex cached = CACHE.get(key);
+      if (cached != null && cached.isIndexOf(user)) {
+        return cached;
+      }
+    }
+    final GrantIndex index = new GrantIndex(user);
+    synchronized (CACHE) {
+      CACHE.put(key, index);
+    }
+    return index;
+  }
+
+  /**
+   * Remove the index of the user
+   *
+   * @param userId
+   */
+  public static void invalidate(URI userId) {
+    if (userId != null) {
+      synchronized (CACHE) {
+        CACHE.remove(userId.toString());
+      }
+    }
+  }
+
+  /**
+   * The highest {@link GrantType} for the uri, or null if the user doesn't have any grant for it
+   *
+   * @param uri
+   * @return
+   */
+  public GrantType get(String uri) {
+    return uri == null ? null : grants.get(uri);
+  }
+
+  /**
+   * True if the user has a grant for the uri
+   *
+   * @param uri
+   * @return
+   */
+  public boolean hasGrant(String uri) {
+    return get(uri) != null;
+  }
+
+  /**
+   * True if the user has a grant for the uri which is the same or bigger than the role
+   *
+   * @param uri
+   * @param role
+   * @return
+   */
+  public boolean hasGrant(String uri, GrantType role) {
+    final GrantType grantType = get(uri);
+    return grantType != null && role.isSameOrBigger(grantType);
+  }
+
+  /**
+   * True if the index has been compiled from the same version of the user and of its groups. Only
+   * compares the modified dates and the ids of the groups, not the grants
+   *
+   * @param user
+   * @return
+   */
+  private boolean isIndexOf(User user) {
+    if (modified != getTime(user.getModified()) || groupIds.size() != user.getGroups().size()) {
+      return false;
+    }
+    int i = 0;
+    for (final UserGroup group : user.getGroups()) {
+      if (!groupIds.get(i).equals(group.getId()) || groupsModified.get(i) != getTime(group.getModified())) {
+        return false;
+      }
+      i++;
+    }
+    return true;
+  }
+
+  private void add(Collection<String> grantStrings) {
+    if (grantStrings == null) {
+      return;
+    }
+    for (final String grantString : grantStrings) {
+      final Grant grant = new Grant(grantString);
+      if (grant.getGrantFor() != null) {
+        grants.merge(grant.getGrantFor(), toGrantType(grant.getGrantType()), (g1, g2) -> g1.compareTo(g2) >= 0 ? g1 : g2);
+      }
+    }
+  }
+
+  private static long getTime(Calendar date) {
+    return date == null ? -1 : date.getTimeInMillis();
+  }
+
+  /**
+   * Grants with an unknown type only allow to read
+   *
+   * @param grantType
+   * @return
+   */
+  private static GrantType toGrantType(String grantType) {
+    try {
+      return GrantType.valueOf(grantType);
+    } catch (final Exception e) {
+      return GrantType.READ;
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package de.mpg.imeji.logic.security.authorization;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.mpg.imeji.logic.hierarchy.HierarchyService;
+import de.mpg.imeji.logic.model.Grant;
+import de.mpg.imeji.logic.model.Grant.GrantType;
+import de.mpg.imeji.logic.model.User;
+import de.mpg.imeji.logic.search.elasticsearch.factory.util.ElasticSearchFactoryUtil;
+import de.mpg.imeji.logic.util.ObjectHelper;
+import de.mpg.imeji.logic.util.ObjectHelper.ObjectType;
+
+/**
+ * Maintain, for each user and role, the set of all collections (inclusive all subcollections) the
+ * user can see. <br/>
+ * - The set is computed once from the grants of the user and of its groups, and expanded with the
+ * {@link HierarchyService} <br/>
+ * - Every computed set has a new version, so that the consumers can encode it once per version
+ * <br/>
+ * - A set is computed again when the grants of the user changed, when one group of the user changed
+ * ({@link #invalidate(URI)}) or when the hierarchy has been reloaded ({@link #invalidateAll()})
+ * <br/>
+ * - The cache is bounded: the least recently used sets are removed first
+ */
+public class VisibilityService {
+  // One entry per user and role
+  private static final int MAX_SIZE = 4000;
+  private static final Map<String, VisibleCollections> CACHE = new LinkedHashMap<String, VisibleCollections>(16, 0.75f, true) {
+    private static final long serialVersionUID = 5384520969153416349L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, VisibleCollections> eldest) {
+      return size() > MAX_SIZE;
+    }
+  };
+  private static final AtomicLong VERSIONS = new AtomicLong();
+  private static final AtomicLong GENERATION = new AtomicLong();
+
+  /**
+   * The collections visible for a user and a role
+   */
+  public static class VisibleCollections {
+    private final String key;
+    private final long version;
+    private final long generation;
+    private final int grantsHash;
+    private final List<String> collectionIds;
+
+    private VisibleCollections(String key, long generation, int grantsHash, List<String> collectionIds) {
+      this.key = key;
+      this.version = VERSIONS.incrementAndGet();
+      this.generation = generation;
+      this.grantsHash = grantsHash;
+      this.collectionIds = Collections.unmodifiableList(collectionIds);
+    }
+
+    /**
+     * The key of the user and the role
+     *
+     * @return
+     */
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * The version of this set, unique over all users and roles
+     *
+     * @return
+     */
+    public long getVersion() {
+      return version;
+    }
+
+    /**
+     * The ids of the visible collections
+     *
+     * @return
+     */
+    public List<String> getCollectionIds() {
+      return collectionIds;
+    }
+
+    private boolean isValid(int grantsHash) {
+      return generation == GENERATION.get() && this.grantsHash == grantsHash;
+    }
+  }
+
+  /**
+   * Return the collections (inclusive all subcollections) the user can see with this role. If role
+   * is null, all collections the user has a grant for
+   *
+   * @param user
+   * @param role
+   * @return
+   */
+  public VisibleCollections getVisibleCollections(User user, GrantType role) {
+    final String key = getKey(user.getId(), role);
+    final int grantsHash = new HashSet<>(user.getGrants()).hashCode();
+    final VisibleCollections cached;
+    synchronized (CACHE) {
+      cached = CACHE.get(key);
+    }
+    if (cached != null && cached.isValid(grantsHash)) {
+      return cached;
+    }
+    // Read the generation before computing, so that a concurrent invalidation isn't lost
+    final long generation = GENERATION.get();
+    final VisibleCollections computed = new VisibleCollections(key, generation, grantsHash, compute(user, role));
+    synchronized (CACHE) {
+      CACHE.put(key, computed);
+    }
+    return computed;
+  }
+
+  /**
+   * Compute again the sets of the user, for all roles
+   *
+   * @param userId
+   */
+  public static void invalidate(URI userId) {
+    if (userId != null) {
+      final String prefix = userId.toString() + "|";
+      synchronized (CACHE) {
+        CACHE.keySet().removeIf(key -> key.startsWith(prefix));
+      }
+    }
+  }
+
+  /**
+   * Compute again the sets of all users
+   */
+  public static void invalidateAll() {
+    synchronized (CACHE) {
+      GENERATION.incrementAndGet();
+      CACHE.clear();
+    }
+  }
+
+  /**
+   * Compute the visible collections from the grants of the user and of its groups
+   *
+   * @param user
+   * @param role
+   * @return
+   */
+  private List<String> compute(User user, GrantType role) {
+    final HierarchyService hierarchyService = new HierarchyService();
+    final Set<String> ids = new LinkedHashSet<>();
+    for (final Grant g : ElasticSearchFactoryUtil.getAllGrants(user)) {
+      if (ObjectHelper.getObjectType(URI.create(g.getGrantFor())) == ObjectType.COLLECTION
+          && (role == null || role.isSameOrBigger(g.getGrantType()))) {
+        ids.addAll(hierarchyService.addAllSubcollections(g.getGrantFor()));
+      }
+    }
+    return new ArrayList<>(ids);
+  }
+
+  private static String getKey(URI userId, GrantType role) {
+    return userId + "|" + (role == null ? "all" : role.name());
+  }
+}
@@ -27,6 +27,8 @@ import de.mpg.imeji.logic.model.aspects.ChangeMember;
 import de.mpg.imeji.logic.model.aspects.ChangeMember.ActionType;
 import de.mpg.imeji.logic.search.jenasearch.ImejiSPARQL;
 import de.mpg.imeji.logic.search.jenasearch.JenaCustomQueries;
+import de.mpg.imeji.logic.security.authentication.PrincipalCache;
+import de.mpg.imeji.logic.security.authorization.GrantIndex;
 import de.mpg.imeji.logic.security.usergroup.UserGroupService;
 import de.mpg.imeji.util.DateHelper;
 
@@ -74,6 +76,10 @@ class UserController extends ImejiControllerAbstract<User> implements AccessElem
   @Override
   public List<User> updateBatch(List<User> usersToUpdate, User user) throws ImejiException {
     List<User> updatedUsers = this.fromObjectList(WRITER.update(J2JHelper.cast2ObjectList(usersToUpdate), Imeji.adminUser, true));
+    usersToUpdate.forEach(u -> {
+      PrincipalCache.invalidate(u.getId());
+      GrantIndex.invalidate(u.getId());
+    });
     return updatedUsers;
   }
 
@@ -178,6 +184,8 @@ class UserController extends ImejiControllerAbstract<User> implements AccessElem
     ugc.removeUserFromAllGroups(user, Imeji.adminUser);
     // remove user
     WRITER.delete(WriterFacade.toList(user), Imeji.adminUser);
+    PrincipalCache.invalidate(user.getId());
+    GrantIndex.invalidate(user.getId());
   }
 
 
@@ -197,6 +205,8 @@ class UserController extends ImejiControllerAbstract<User> implements AccessElem
 
     ChangeMember changeMember = new ChangeMember(action, imejiDataObject, elementField, element);
     User updatedUser = (User) WRITER.changeElement(changeMember, user);
+    PrincipalCache.invalidate(imejiDataObject.getId());
+    GrantIndex.invalidate(imejiDataObject.getId());
     return updatedUser;
   }
 
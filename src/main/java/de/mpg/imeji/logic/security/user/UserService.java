@@ -44,10 +44,14 @@ import de.mpg.imeji.logic.search.model.SearchQuery;
 import de.mpg.imeji.logic.search.model.SearchResult;
 import de.mpg.imeji.logic.search.model.SortCriterion;
 import de.mpg.imeji.logic.search.model.SortCriterion.SortOrder;
+import de.mpg.imeji.logic.security.authentication.PrincipalCache;
 import de.mpg.imeji.logic.security.authentication.impl.APIKeyAuthentication;
 import de.mpg.imeji.logic.security.authorization.AuthorizationPredefinedRoles;
+import de.mpg.imeji.logic.security.authorization.GrantIndex;
+import de.mpg.imeji.logic.security.authorization.VisibilityService;
 import de.mpg.imeji.logic.security.authorization.util.SecurityUtil;
 import de.mpg.imeji.logic.security.sharing.invitation.InvitationService;
+import de.mpg.imeji.logic.security.user.util.QuotaLedger;
 import de.mpg.imeji.logic.security.user.util.QuotaUtil;
 import de.mpg.imeji.logic.util.IdentifierUtil;
 import de.mpg.imeji.util.DateHelper;
@@ -275,6 +279,9 @@ public class UserService {
   public void setRecentlyModified(URI recentlyModifiedUserId) {
     final String sparqlQuery = JenaCustomQueries.setUserLastModifiedToNow(recentlyModifiedUserId);
     ImejiSPARQL.execUpdate(sparqlQuery);
+    VisibilityService.invalidate(recentlyModifiedUserId);
+    PrincipalCache.invalidate(recentlyModifiedUserId);
+    GrantIndex.invalidate(recentlyModifiedUserId);
   }
 
   /**
@@ -293,16 +300,7 @@ public class UserService {
     }
     final User targetCollectionUser = user.getId().equals(col.getCreatedBy()) ? user : retrieve(col.getCreatedBy(), Imeji.adminUser);
 
-    final Search search = SearchFactory.create();
-    final List<String> results = search.searchString(JenaCustomQueries.selectUserFileSize(col.getCreatedBy().toString()), null, null,
-        Search.SEARCH_FROM_START_INDEX, Search.GET_ALL_RESULTS).getResults();
-    long currentDiskUsage = 0L;
-    try {
-      currentDiskUsage = Long.parseLong(results.get(0).toString());
-    } catch (final NumberFormatException e) {
-      throw new UnprocessableError("Cannot parse currentDiskSpaceUsage " + results.get(0).toString() + "; requested by user: "
-          + user.getEmail() + "; targetCollectionUser: " + targetCollectionUser.getEmail(), e);
-    }
+    final long currentDiskUsage = QuotaLedger.getUsed(col.getCreatedBy());
     final long needed = currentDiskUsage + file.length();
     if (needed > targetCollectionUser.getQuota()) {
       throw new QuotaExceededException("Data quota (" + QuotaUtil.getQuotaHumanReadable(targetCollectionUser.getQuota(), Locale.ENGLISH)
@@ -559,7 +557,7 @@ public class UserService {
 
   public void reindex(String index) throws Exception {
     LOGGER.info("Indexing users...");
-    final ElasticIndexer indexer = new ElasticIndexer(ElasticIndices.users.name());
+    final ElasticIndexer indexer = new ElasticIndexer(index, ElasticIndices.users);
     final List<User> users = retrieveAll();
     LOGGER.info("+++ " + users.size() + " users to index +++");
     indexer.indexBatch(users);
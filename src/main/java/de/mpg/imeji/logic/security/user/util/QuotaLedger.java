@@ -0,0 +1,137 @@
+package de.mpg.imeji.logic.security.user.util;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.mpg.imeji.logic.model.Item;
+import de.mpg.imeji.logic.model.Properties.Status;
+
+/**
+ * Ledger of the storage used by every user (i.e. the size of all not withdrawn files created by the
+ * user). <br/>
+ * - The used storage of a user is computed once with a SPARQL aggregate, at the first access <br/>
+ * - It is then updated incrementally when files are uploaded, updated, deleted or withdrawn <br/>
+ * - Operations touching many items at once (collection withdraw, file size refresh) invalidate the
+ * ledger, so that the storage is computed again at the next access <br/>
+ * - Possible drifts are corrected every night by the QuotaReconciliationJob <br/>
+ * The ledger is kept in memory by this instance of imeji, and only updated by the ItemService, the
+ * collection withdraw and the file size refresh: a change of the files done by another way (for
+ * instance directly in the database) is only seen after the next reconciliation
+ */
+public class QuotaLedger {
+  private static final Map<String, AtomicLong> USED = new ConcurrentHashMap<>();
+
+  /**
+   * private constructor
+   */
+  private QuotaLedger() {
+
+  }
+
+  /**
+   * Return the storage used by the user
+   *
+   * @param userId
+   * @return
+   */
+  public static long getUsed(URI userId) {
+    final String id = userId.toString();
+    final AtomicLong used = USED.get(id);
+    if (used != null) {
+      return used.get();
+    }
+    // The SPARQL query is not run within computeIfAbsent, which would block the other users of the
+    // map while the query is running. If 2 threads compute the storage at the same time, the first
+    // result is kept
+    final AtomicLong computed = new AtomicLong(QuotaUtil.computeUsedQuota(id));
+    final AtomicLong previous = USED.putIfAbsent(id, computed);
+    return previous != null ? previous.get() : computed.get();
+  }
+
+  /**
+   * Add delta bytes to the storage used by the user. Nothing is done if the storage of the user
+   * hasn't been computed yet: it will be computed with the change at the next access
+   *
+   * @param userId
+   * @param delta
+   */
+  public static void add(URI userId, long delta) {
+    if (userId != null && delta != 0) {
+      USED.computeIfPresent(userId.toString(), (id, used) -> {
+        used.addAndGet(delta);
+        return used;
+      });
+    }
+  }
+
+  /**
+   * Add the files of the {@link Item} to the storage of their creators
+   *
+   * @param items
+   */
+  public static void addItems(Collection<Item> items) {
+    for (final Item item : items) {
+      add(item.getCreatedBy(), item.getFileSize());
+    }
+  }
+
+  /**
+   * Remove the files of the {@link Item} from the storage of their creators. Withdrawn {@link Item}
+   * are not counted in the storage, and are therefore ignored
+   *
+   * @param items
+   */
+  public static void removeItems(Collection<Item> items) {
+    for (final Item item : items) {
+      if (item.getCreatedBy() == null) {
+        invalidateAll();
+        return;
+      }
+      if (item.getStatus() != Status.WITHDRAWN) {
+        add(item.getCreatedBy(), -item.getFileSize());
+      }
+    }
+  }
+
+  /**
+   * Compute again the storage used by the user, and return the drift which has been corrected
+   *
+   * @param userId
+   * @return
+   */
+  public static long reconcile(String userId) {
+    final long computed = QuotaUtil.computeUsedQuota(userId);
+    final AtomicLong used = USED.put(userId, new AtomicLong(computed));
+    return used != null ? computed - used.get() : 0;
+  }
+
+  /**
+   * The users whose storage is currently in the ledger
+   *
+   * @return
+   */
+  public static List<String> getUsers() {
+    return new ArrayList<>(USED.keySet());
+  }
+
+  /**
+   * Remove the user from the ledger
+   *
+   * @param userId
+   */
+  public static void invalidate(URI userId) {
+    USED.remove(userId.toString());
+  }
+
+  /**
+   * Remove all users from the ledger
+   */
+  public static void invalidateAll() {
+    USED.clear();
+  }
+}
@@ -118,16 +118,26 @@ public class QuotaUtil {
   }
 
   /**
-   * Return the size of the used storage by the user
+   * Return the size of the used storage by the user, as recorded by the {@link QuotaLedger}
    * 
    * @param user
    * @return
    */
   public static long getUsedQuota(User user) {
+    return QuotaLedger.getUsed(user.getId());
+  }
+
+  /**
+   * Compute the size of the used storage by the user with a SPARQL aggregate over all its files
+   * 
+   * @param userId
+   * @return
+   */
+  static long computeUsedQuota(String userId) {
     final Search search = SearchFactory.create(); // default: Jena
-    final List<String> results = search.searchString(JenaCustomQueries.selectUserFileSize(user.getId().toString()), null, null,
+    final List<String> results = search.searchString(JenaCustomQueries.selectUserFileSize(userId), null, null,
         Search.SEARCH_FROM_START_INDEX, Search.GET_ALL_RESULTS).getResults();
-    return Long.parseLong(results.get(0).toString());
+    return results.isEmpty() || results.get(0) == null ? 0 : Long.parseLong(results.get(0).toString());
   }
 
 }
@@ -18,6 +18,7 @@ import de.mpg.imeji.logic.model.aspects.ChangeMember.ActionType;
 import de.mpg.imeji.logic.search.Search;
 import de.mpg.imeji.logic.search.Search.SearchObjectTypes;
 import de.mpg.imeji.logic.search.elasticsearch.ElasticIndexer;
+import de.mpg.imeji.logic.search.elasticsearch.ElasticService.ElasticIndices;
 import de.mpg.imeji.logic.search.factory.SearchFactory;
 import de.mpg.imeji.logic.search.factory.SearchFactory.SEARCH_IMPLEMENTATIONS;
 import de.mpg.imeji.logic.search.jenasearch.JenaCustomQueries;
@@ -328,7 +329,7 @@ public class UserGroupService {
    */
   public void reindex(String index) throws Exception {
     LOGGER.info("Indexing users...");
-    final ElasticIndexer indexer = new ElasticIndexer(index);
+    final ElasticIndexer indexer = new ElasticIndexer(index, ElasticIndices.usergroups);
     final List<UserGroup> groups = (List<UserGroup>) retrieveAll();
     LOGGER.info("+++ " + groups.size() + " user groups to index +++");
     indexer.indexBatch(groups);
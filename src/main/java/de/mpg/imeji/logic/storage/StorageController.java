@@ -21,7 +21,7 @@ import de.mpg.imeji.logic.config.util.PropertyReader;
 import de.mpg.imeji.logic.model.CollectionImeji;
 import de.mpg.imeji.logic.model.UploadResult;
 import de.mpg.imeji.logic.storage.administrator.StorageAdministrator;
-import de.mpg.imeji.logic.storage.util.ImageUtils;
+import de.mpg.imeji.logic.storage.util.ImageDimensionProbe;
 import de.mpg.imeji.logic.util.StorageUtils;
 
 /**
@@ -77,14 +77,28 @@ public final class StorageController implements Serializable {
    * @throws ImejiException
    */
   public UploadResult upload(String filename, File file) throws ImejiException {
+    return upload(filename, file, null);
+  }
+
+  /**
+   * Call upload method of the controlled {@link Storage}. The checksum of the file, if already
+   * known, is not calculated again
+   *
+   * @param filename
+   * @param file
+   * @param checksum the MD5 checksum of the file, or null if not known
+   * @return
+   * @throws ImejiException
+   */
+  public UploadResult upload(String filename, File file, String checksum) throws ImejiException {
     filename = FilenameUtils.getName(filename);
     final UploadResult result = storage.upload(filename, file);
     final File storageFile = storage.read(result.getOrginal());
-    result.setChecksum(calculateChecksum(storageFile));
+    result.setChecksum(checksum != null ? checksum : calculateChecksum(storageFile));
     result.setFileSize(storageFile.length());
     // If the file is an image, read the dimension of the image
     if (StorageUtils.getMimeType(storageFile).contains("image")) {
-      final Dimension d = ImageUtils.getImageDimension(storageFile);
+      final Dimension d = ImageDimensionProbe.getDimension(storageFile);
       if (d != null) {
         result.setHeight(d.height);
         result.setWidth(d.width);
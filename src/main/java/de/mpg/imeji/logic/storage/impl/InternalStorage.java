@@ -27,6 +27,7 @@ import de.mpg.imeji.logic.storage.internal.InternalStorageItem;
 import de.mpg.imeji.logic.storage.internal.InternalStorageManager;
 import de.mpg.imeji.logic.storage.transform.ImageGeneratorManager;
 import de.mpg.imeji.logic.storage.util.ImageMagickUtils;
+import de.mpg.imeji.logic.storage.util.ImageDimensionProbe;
 import de.mpg.imeji.logic.storage.util.ImageUtils;
 import de.mpg.imeji.logic.util.StorageUtils;
 import de.mpg.imeji.logic.util.StringHelper;
@@ -317,7 +318,7 @@ public class InternalStorage implements Storage {
   @Override
   public Dimension getImageDimension(String url) throws IOException {
     final File file = read(url);
-    return ImageUtils.getImageDimension(file);
+    return ImageDimensionProbe.getDimension(file);
   }
 
   @Override
@@ -27,6 +27,8 @@ import de.mpg.imeji.logic.model.Item;
 import de.mpg.imeji.logic.storage.Storage.FileResolution;
 import de.mpg.imeji.logic.storage.administrator.StorageAdministrator;
 import de.mpg.imeji.logic.storage.administrator.impl.InternalStorageAdministrator;
+import de.mpg.imeji.logic.storage.transform.ImageGenerationStatistics;
+import de.mpg.imeji.logic.storage.transform.ImageGenerationStatistics.Stage;
 import de.mpg.imeji.logic.storage.transform.ImageGeneratorManager;
 import de.mpg.imeji.logic.util.IdentifierUtil;
 import de.mpg.imeji.logic.util.StringHelper;
@@ -353,17 +355,13 @@ public class InternalStorageManager implements Serializable {
    * @param file
    */
   private void generateThumbnailPreviewAndFull(InternalStorageItem item, File file) {
-    File fullResolution = null;
     try {
       final ImageGeneratorManager generatorManager = new ImageGeneratorManager();
-      // write web resolution file in storage
+      // Generate full, web and thumbnail resolution, decoding the original once if possible
       final String calculatedExtension = guessExtension(file);
-      fullResolution = generatorManager.generateFullResolution(file, calculatedExtension);
-      fullResolution = new File(move(fullResolution, transformUrlToPath(item.getFullUrl())));
-      // Generate and write Web resolution
-      move(generatorManager.generateWebResolution(fullResolution, "jpg"), transformUrlToPath(item.getWebUrl()));
-      // Generate and write Thumbnail resolution
-      move(generatorManager.generateThumbnail(fullResolution, "jpg"), transformUrlToPath(item.getThumbnailUrl()));
+      final File[] resolutions = generatorManager.generateAllResolutions(file, calculatedExtension);
+      // Write all resolutions in storage
+      storeResolutions(item, resolutions[0], resolutions[1], resolutions[2]);
     } catch (final Exception e) {
       LOGGER.error("Error transforming and writing file in internal storage ", e);
     }
@@ -404,18 +402,39 @@ public class InternalStorageManager implements Serializable {
       final ImageGeneratorManager generatorManager = new ImageGeneratorManager();
       File fullResolution = new File(transformUrlToPath(item.getFullUrl()));
       if (fullResolution.exists()) {
-        // Generate and write web resolution from full resolution
+        // Generate web and thumbnail resolution from full resolution
+        final File[] webAndThumbnail = generatorManager.generateWebAndThumbnail(fullResolution);
         removeFile(item.getWebUrl());
-        move(generatorManager.generateWebResolution(fullResolution, "jpg"), transformUrlToPath(item.getWebUrl()));
-        // Generate and write thumbnail resolution from full resolution
         removeFile(item.getThumbnailUrl());
-        move(generatorManager.generateThumbnail(fullResolution, "jpg"), transformUrlToPath(item.getThumbnailUrl()));
+        storeResolutions(item, null, webAndThumbnail[0], webAndThumbnail[1]);
       }
     } catch (final Exception e) {
       LOGGER.error("Error transforming and writing file in internal storage ", e);
     }
   }
 
+  /**
+   * Move the generated resolutions in the storage
+   * 
+   * @param item
+   * @param fullResolution the full resolution, or null if not generated
+   * @param webResolution
+   * @param thumbnail
+   * @throws IOException
+   */
+  private void storeResolutions(InternalStorageItem item, File fullResolution, File webResolution, File thumbnail) throws IOException {
+    final long start = System.currentTimeMillis();
+    try {
+      if (fullResolution != null) {
+        move(fullResolution, transformUrlToPath(item.getFullUrl()));
+      }
+      move(webResolution, transformUrlToPath(item.getWebUrl()));
+      move(thumbnail, transformUrlToPath(item.getThumbnailUrl()));
+    } finally {
+      ImageGenerationStatistics.record(Stage.STORE, System.currentTimeMillis() - start);
+    }
+  }
+
   /**
    * Copy the file in the file system
    *
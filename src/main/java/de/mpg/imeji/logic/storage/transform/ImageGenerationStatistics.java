@@ -0,0 +1,81 @@
+package de.mpg.imeji.logic.storage.transform;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timings of the stages of the generation of the full, web and thumbnail resolutions
+ */
+public class ImageGenerationStatistics {
+  /**
+   * The stages of the generation
+   */
+  public enum Stage {
+    /**
+     * Decode the original and write full, web and thumbnail resolutions with one command
+     */
+    ALL,
+    /**
+     * Decode the original and write it as jpeg
+     */
+    FULL,
+    /**
+     * Write web and thumbnail resolution from the full resolution
+     */
+    WEB_AND_THUMBNAIL,
+    /**
+     * Move the generated files in the storage
+     */
+    STORE;
+  }
+
+  private static final Map<Stage, AtomicLong> COUNTS = new EnumMap<>(Stage.class);
+  private static final Map<Stage, AtomicLong> TIMES = new EnumMap<>(Stage.class);
+
+  static {
+    for (final Stage stage : Stage.values()) {
+      COUNTS.put(stage, new AtomicLong());
+      TIMES.put(stage, new AtomicLong());
+    }
+  }
+
+  /**
+   * private constructor
+   */
+  private ImageGenerationStatistics() {
+
+  }
+
+  /**
+   * Record the duration of one stage
+   *
+   * @param stage
+   * @param time in ms
+   */
+  public static void record(Stage stage, long time) {
+    COUNTS.get(stage).incrementAndGet();
+    TIMES.get(stage).addAndGet(time);
+  }
+
+  /**
+   * Number of times the stage was run
+   *
+   * @param stage
+   * @return
+   */
+  public static long getCount(Stage stage) {
+    return COUNTS.get(stage).get();
+  }
+
+  /**
+   * Average duration (in ms) of the stage
+   *
+   * @param stage
+   * @return
+   */
+  public static double getAverageTime(Stage stage) {
+    final long count = COUNTS.get(stage).get();
+    return count == 0 ? 0 : (double) TIMES.get(stage).get() / count;
+  }
+}
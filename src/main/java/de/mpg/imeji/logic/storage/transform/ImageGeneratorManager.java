@@ -11,6 +11,7 @@ import org.apache.logging.log4j.LogManager;
 
 import de.mpg.imeji.exceptions.ImejiException;
 import de.mpg.imeji.logic.storage.Storage.FileResolution;
+import de.mpg.imeji.logic.storage.transform.ImageGenerationStatistics.Stage;
 import de.mpg.imeji.logic.storage.transform.generator.CompressedFilesImageGenerator;
 import de.mpg.imeji.logic.storage.transform.generator.ImageGenerator;
 import de.mpg.imeji.logic.storage.transform.generator.MagickImageGenerator;
@@ -20,6 +21,7 @@ import de.mpg.imeji.logic.storage.transform.generator.RawFileImageGenerator;
 import de.mpg.imeji.logic.storage.transform.generator.SimpleAudioImageGenerator;
 import de.mpg.imeji.logic.storage.transform.generator.SimpleImageGenerator;
 import de.mpg.imeji.logic.storage.util.ImageMagickUtils;
+import de.mpg.imeji.logic.storage.util.ImageUtils;
 import de.mpg.imeji.logic.util.StorageUtils;
 import de.mpg.imeji.logic.util.TempFileUtil;
 
@@ -41,6 +43,8 @@ public final class ImageGeneratorManager {
 
   private final List<ImageGenerator> fullGenerators;
 
+  private final MagickImageGenerator magickGenerator = new MagickImageGenerator();
+
   private static final Logger LOGGER = LogManager.getLogger(ImageGeneratorManager.class);
 
   /**
@@ -99,7 +103,79 @@ public final class ImageGeneratorManager {
    * @throws ImejiException
    */
   public File generateFullResolution(File file, String extension) throws ImejiException {
-    return createJpgPreview(file, extension);
+    final long start = System.currentTimeMillis();
+    try {
+      return createJpgPreview(file, extension);
+    } finally {
+      ImageGenerationStatistics.record(Stage.FULL, System.currentTimeMillis() - start);
+    }
+  }
+
+  /**
+   * Generate the full, web and thumbnail resolutions of a file. The file is decoded only once when
+   * possible: <br/>
+   * - Images are converted with one imagemagick command writing the three resolutions <br/>
+   * - Jpeg are copied as full resolution, and decoded once for the web and thumbnail resolutions
+   * <br/>
+   * Other files (tiff, videos, pdf, etc.) are first converted to a full resolution jpeg, which is
+   * then decoded for the web and thumbnail resolutions
+   *
+   * @param file
+   * @param extension
+   * @return the full, web and thumbnail files, in this order
+   * @throws ImejiException
+   */
+  public File[] generateAllResolutions(File file, String extension) throws ImejiException {
+    final File[] all = generateAllResolutionsInOneCommand(file, extension);
+    if (all != null) {
+      return all;
+    }
+    final File fullResolution = generateFullResolution(file, extension);
+    final File[] webAndThumbnail = generateWebAndThumbnail(fullResolution);
+    return new File[] {fullResolution, webAndThumbnail[0], webAndThumbnail[1]};
+  }
+
+  /**
+   * Generate the full, web and thumbnail resolutions with one imagemagick command. Return null if
+   * not possible for this file
+   *
+   * @param file
+   * @param extension
+   * @return
+   */
+  private File[] generateAllResolutionsInOneCommand(File file, String extension) {
+    final long start = System.currentTimeMillis();
+    try {
+      final File[] all = magickGenerator.generateAllResolutions(file, extension);
+      if (all != null) {
+        ImageGenerationStatistics.record(Stage.ALL, System.currentTimeMillis() - start);
+      }
+      return all;
+    } catch (final Exception e) {
+      LOGGER.warn("Error generating all resolutions with one command, generating them one after the other", e);
+      return null;
+    }
+  }
+
+  /**
+   * Generate the web resolution and the thumbnail of a full resolution jpeg. The jpeg is decoded
+   * only once for both resolutions. Return the web and the thumbnail files, in this order
+   *
+   * @param fullResolution
+   * @return
+   * @throws ImejiException
+   */
+  public File[] generateWebAndThumbnail(File fullResolution) throws ImejiException {
+    final long start = System.currentTimeMillis();
+    try {
+      return ImageMagickUtils.imageMagickEnabled ? ImageMagickUtils.resizeJpgToWebAndThumbnail(fullResolution)
+          : ImageUtils.resizeJPEGToWebAndThumbnail(fullResolution);
+    } catch (final Exception e) {
+      LOGGER.warn("Error generating web and thumbnail in one pass, generating them one by one", e);
+      return new File[] {generateWebResolution(fullResolution, "jpg"), generateThumbnail(fullResolution, "jpg")};
+    } finally {
+      ImageGenerationStatistics.record(Stage.WEB_AND_THUMBNAIL, System.currentTimeMillis() - start);
+    }
   }
 
   /**
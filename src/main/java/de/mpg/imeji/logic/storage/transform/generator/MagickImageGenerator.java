@@ -50,6 +50,22 @@ public class MagickImageGenerator extends ImageGenerator {
     return null;
   }
 
+  /**
+   * Generate the full, web and thumbnail resolutions of an image with one imagemagick command.
+   * Return null if imagemagick is disabled or if the file can't be converted this way
+   *
+   * @param file
+   * @param extension
+   * @return the full, web and thumbnail files, in this order
+   * @throws Exception
+   */
+  public File[] generateAllResolutions(File file, String extension) throws Exception {
+    if (imageMagickEnabled && generatorSupportsMimeType(extension)) {
+      return ImageMagickUtils.convertToJPEGWebAndThumbnail(file, extension);
+    }
+    return null;
+  }
+
   @Override
   protected boolean generatorSupportsMimeType(String fileExtension) {
 
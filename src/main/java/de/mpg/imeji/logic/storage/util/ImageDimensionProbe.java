@@ -0,0 +1,142 @@
+package de.mpg.imeji.logic.storage.util;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.apache.commons.imaging.Imaging;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Read the dimension of the images without decoding them: <br/>
+ * - The dimension is read from the header of the image by the {@link ImageReader}s of the format,
+ * metadata and pixels are never read <br/>
+ * - If no {@link ImageReader} can read the header (e.g. some TIFF and RAW files), the dimension is
+ * read by commons-imaging <br/>
+ * - The dimension is cached per file of the storage, and read again if the file has changed
+ */
+public final class ImageDimensionProbe {
+  private static final Logger LOGGER = LogManager.getLogger(ImageDimensionProbe.class);
+  private static final int MAX_CACHE_SIZE = 10000;
+  private static final Map<String, Probe> CACHE = new LinkedHashMap<String, Probe>(16, 0.75f, true) {
+    private static final long serialVersionUID = 2624520727541374052L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Probe> eldest) {
+      return size() > MAX_CACHE_SIZE;
+    }
+  };
+
+  /**
+   * The dimension of a file, as long as the file isn't changed
+   */
+  private static class Probe {
+    private final long length;
+    private final long lastModified;
+    private final Dimension dimension;
+
+    private Probe(File f, Dimension dimension) {
+      this.length = f.length();
+      this.lastModified = f.lastModified();
+      this.dimension = dimension;
+    }
+
+    private boolean isProbeOf(File f) {
+      return length == f.length() && lastModified == f.lastModified();
+    }
+  }
+
+  private ImageDimensionProbe() {
+    // private constructor
+  }
+
+  /**
+   * Return the dimension of the image
+   *
+   * @param f a file of the storage
+   * @return the dimension, or null if the file isn't an image which can be read
+   */
+  public static Dimension getDimension(File f) {
+    final String id = f.getAbsolutePath();
+    synchronized (CACHE) {
+      final Probe probe = CACHE.get(id);
+      if (probe != null && probe.isProbeOf(f)) {
+        return copy(probe.dimension);
+      }
+    }
+    Dimension d = readHeader(f);
+    if (d == null) {
+      d = readMetadata(f);
+    }
+    synchronized (CACHE) {
+      CACHE.put(id, new Probe(f, d));
+    }
+    return copy(d);
+  }
+
+  /**
+   * Read the dimension from the header of the image with the first {@link ImageReader} able to
+   * read it. Each reader gets its own stream: a stream read forward only can't be read again from
+   * its start by the next reader
+   *
+   * @param f
+   * @return
+   */
+  private static Dimension readHeader(File f) {
+    final List<ImageReader> readers = new ArrayList<>();
+    try (ImageInputStream in = ImageIO.createImageInputStream(f)) {
+      if (in == null) {
+        return null;
+      }
+      ImageIO.getImageReaders(in).forEachRemaining(readers::add);
+    } catch (final Exception e) {
+      LOGGER.debug("Error reading image header of " + f.getName(), e);
+      return null;
+    }
+    for (final ImageReader reader : readers) {
+      try (ImageInputStream in = ImageIO.createImageInputStream(f)) {
+        // seek forward only and ignore metadata: only the header is parsed
+        reader.setInput(in, true, true);
+        return new Dimension(reader.getWidth(0), reader.getHeight(0));
+      } catch (final Exception e) {
+        LOGGER.debug("Error reading image header of " + f.getName() + " with " + reader.getClass().getSimpleName(), e);
+      } finally {
+        reader.dispose();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Read the dimension from the metadata of the image with commons-imaging
+   *
+   * @param f
+   * @return
+   */
+  private static Dimension readMetadata(File f) {
+    try {
+      return Imaging.getImageSize(f);
+    } catch (final Exception e) {
+      LOGGER.debug("Error reading image dimension of " + f.getName(), e);
+      return null;
+    }
+  }
+
+  /**
+   * {@link Dimension} is mutable: the cached dimension isn't returned
+   *
+   * @param d
+   * @return
+   */
+  private static Dimension copy(Dimension d) {
+    return d == null ? null : new Dimension(d);
+  }
+}
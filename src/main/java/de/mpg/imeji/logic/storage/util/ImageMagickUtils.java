@@ -105,6 +105,92 @@ public class ImageMagickUtils {
     return null;
   }
 
+  /**
+   * Resize a jpg to the web and the thumbnail resolution with a single imagemagick command: the jpg
+   * is decoded once, the web resolution is written from a clone of the decoded image, and the
+   * thumbnail is cropped from the same image. Return the web and the thumbnail files, in this order
+   * 
+   * @param jpg
+   * @return
+   * @throws IOException
+   * @throws URISyntaxException
+   * @throws InterruptedException
+   * @throws IM4JavaException
+   */
+  public static File[] resizeJpgToWebAndThumbnail(File jpg) throws IOException, URISyntaxException, InterruptedException, IM4JavaException {
+    final int webResolution = ImageUtils.getResolution(FileResolution.WEB);
+    final int thumbnailResolution = ImageUtils.getResolution(FileResolution.THUMBNAIL);
+    final File web = TempFileUtil.createTempFile("magickResize", ".jpg");
+    final File thumbnail = TempFileUtil.createTempFile("magickCrop", ".jpg");
+    final ConvertCmd cmd = getConvert();
+    final IMOperation op = new IMOperation();
+    op.addImage(jpg.getAbsolutePath());
+    op.quality(80.0);
+    // ( +clone -thumbnail WxW -write web.jpg +delete )
+    op.openOperation();
+    op.addRawArgs("+clone");
+    op.thumbnail(webResolution, webResolution, "");
+    op.addRawArgs("-write", web.getAbsolutePath());
+    op.addRawArgs("+delete");
+    op.closeOperation();
+    op.thumbnail(thumbnailResolution, thumbnailResolution, "^");
+    op.gravity("center");
+    op.extent(thumbnailResolution, thumbnailResolution);
+    op.addImage(thumbnail.getAbsolutePath());
+    cmd.run(op);
+    return new File[] {web, thumbnail};
+  }
+
+  /**
+   * Convert an image into the full, web and thumbnail resolutions with a single imagemagick
+   * command: the image is decoded once, the full resolution is written, the web resolution is
+   * written from a clone of the decoded image, and the thumbnail is cropped from the same image.
+   * Return the full, web and thumbnail files, in this order, or null if the file is not an image
+   * converted this way (jpeg, which are copied as full resolution, tiff, which need to be converted
+   * to bmp first, and not images)
+   *
+   * @param file
+   * @param extension
+   * @return
+   * @throws IOException
+   * @throws URISyntaxException
+   * @throws InterruptedException
+   * @throws IM4JavaException
+   */
+  public static File[] convertToJPEGWebAndThumbnail(File file, String extension)
+      throws IOException, URISyntaxException, InterruptedException, IM4JavaException {
+    if (!isImage(extension) || StorageUtils.compareExtension(extension, "jpg") || extension.equals("tif") || extension.equals("tiff")) {
+      return null;
+    }
+    final int webResolution = ImageUtils.getResolution(FileResolution.WEB);
+    final int thumbnailResolution = ImageUtils.getResolution(FileResolution.THUMBNAIL);
+    final File full = TempFileUtil.createTempFile("uploadMagick", ".jpg");
+    final File web = TempFileUtil.createTempFile("magickResize", ".jpg");
+    final File thumbnail = TempFileUtil.createTempFile("magickCrop", ".jpg");
+    final ConvertCmd cmd = getConvert();
+    final IMOperation op = new IMOperation();
+    // Only the frames from 0 to 24, as in convert
+    op.addImage(file.getAbsolutePath() + "[0-24]");
+    op.flatten();
+    op.strip();
+    op.quality(70.0);
+    op.addRawArgs("-write", full.getAbsolutePath());
+    op.quality(80.0);
+    // ( +clone -thumbnail WxW -write web.jpg +delete )
+    op.openOperation();
+    op.addRawArgs("+clone");
+    op.thumbnail(webResolution, webResolution, "");
+    op.addRawArgs("-write", web.getAbsolutePath());
+    op.addRawArgs("+delete");
+    op.closeOperation();
+    op.thumbnail(thumbnailResolution, thumbnailResolution, "^");
+    op.gravity("center");
+    op.extent(thumbnailResolution, thumbnailResolution);
+    op.addImage(thumbnail.getAbsolutePath());
+    cmd.run(op);
+    return new File[] {full, web, thumbnail};
+  }
+
   /**
    * Resize a file as a jpeg
    * 
@@ -15,11 +15,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
-import java.util.Iterator;
 
 import javax.imageio.ImageIO;
-import javax.imageio.ImageReader;
-import javax.imageio.stream.ImageInputStream;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
@@ -66,6 +63,22 @@ public final class ImageUtils {
     return file;
   }
 
+  /**
+   * Resize a jpeg to the web and the thumbnail resolution. The jpeg is read once, and both
+   * resolutions are scaled from the same raster. Return the web and the thumbnail files, in this
+   * order
+   *
+   * @param file
+   * @return
+   * @throws Exception
+   */
+  public static File[] resizeJPEGToWebAndThumbnail(File file) throws Exception {
+    final BufferedImage image = JpegUtils.readJpeg(file);
+    final String mimeType = StorageUtils.getMimeType("jpg");
+    return new File[] {toFile(scaleImage(image, FileResolution.WEB), mimeType),
+        toFile(scaleImage(image, FileResolution.THUMBNAIL), mimeType)};
+  }
+
   /**
    * Transform an image in jpeg. Useful to reduce size of thumbnail and web resolution images. If
    * the format of the image is not supported, return null
@@ -430,21 +443,14 @@ public final class ImageUtils {
     return PropertyReader.getProperty("xsd.metadata.content-category.original-resolution");
   }
 
+  /**
+   * Return the dimension of the image, read from its header
+   *
+   * @param f
+   * @return
+   * @see ImageDimensionProbe
+   */
   public static Dimension getImageDimension(File f) {
-    try (ImageInputStream in = ImageIO.createImageInputStream(f)) {
-      final Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
-      if (readers.hasNext()) {
-        final ImageReader reader = readers.next();
-        try {
-          reader.setInput(in);
-          return new Dimension(reader.getWidth(0), reader.getHeight(0));
-        } finally {
-          reader.dispose();
-        }
-      }
-    } catch (final Exception e) {
-      LOGGER.error("Error reading image dimension: ", e);
-    }
-    return null;
+    return ImageDimensionProbe.getDimension(f);
   }
 }
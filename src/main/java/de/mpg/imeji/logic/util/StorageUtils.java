@@ -10,8 +10,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.regex.Pattern;
 
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
@@ -118,6 +121,21 @@ public class StorageUtils {
     }
   }
 
+  /**
+   * Write an {@link InputStream} to an {@link OutputStream} and calculate at the same time the MD5
+   * checksum of the written bytes, so that the data don't need to be read again
+   *
+   * @param in
+   * @param out
+   * @param close
+   * @return the checksum displayed in Hexadecimal
+   */
+  public static String writeInOutWithChecksum(InputStream in, OutputStream out, boolean close) {
+    final MessageDigest md5 = DigestUtils.getMd5Digest();
+    writeInOut(new DigestInputStream(in, md5), out, close);
+    return Hex.encodeHexString(md5.digest());
+  }
+
   /**
    * Read only a part of a file
    * 
@@ -13,15 +13,22 @@ import org.apache.logging.log4j.LogManager;
 
 import de.mpg.imeji.exceptions.ImejiException;
 import de.mpg.imeji.exceptions.NotFoundException;
+import de.mpg.imeji.j2j.persistence.UpdateStatistics;
+import de.mpg.imeji.j2j.queries.PreparedQueries;
+import de.mpg.imeji.j2j.queries.PreparedQueries.QueryStatistics;
 import de.mpg.imeji.logic.batch.AggregateMessages;
 import de.mpg.imeji.logic.batch.CleanContentVOsJob;
 import de.mpg.imeji.logic.batch.CleanInternalStorageJob;
 import de.mpg.imeji.logic.batch.CleanTempFilesJob;
 import de.mpg.imeji.logic.batch.ElasticReIndexJob;
 import de.mpg.imeji.logic.batch.FulltextAndTechnicalMetadataJob;
+import de.mpg.imeji.logic.batch.JobProgress;
+import de.mpg.imeji.logic.batch.JobProgress.Job;
 import de.mpg.imeji.logic.batch.ReGenerateFullWebThumbnailJob;
 import de.mpg.imeji.logic.batch.RefreshFileSizeJob;
 import de.mpg.imeji.logic.batch.ResizeWebAndThumbnailJob;
+import de.mpg.imeji.logic.concurrency.LockManager;
+import de.mpg.imeji.logic.concurrency.Locks;
 import de.mpg.imeji.logic.config.Imeji;
 import de.mpg.imeji.logic.config.emailcontent.ImejiExternalEmailContent;
 import de.mpg.imeji.logic.config.util.PropertyReader;
@@ -39,6 +46,8 @@ import de.mpg.imeji.logic.security.user.UserService;
 import de.mpg.imeji.logic.storage.Storage;
 import de.mpg.imeji.logic.storage.StorageController;
 import de.mpg.imeji.logic.storage.administrator.StorageAdministrator;
+import de.mpg.imeji.logic.storage.transform.ImageGenerationStatistics;
+import de.mpg.imeji.logic.storage.transform.ImageGenerationStatistics.Stage;
 import de.mpg.imeji.logic.util.ObjectHelper;
 import de.mpg.imeji.presentation.beans.SuperBean;
 
@@ -86,6 +95,124 @@ public class AdminBean extends SuperBean {
     return PropertyReader.getProperty("imeji.storage.path");
   }
 
+  /**
+   * The {@link LockManager}, to display the locks and their metrics
+   *
+   * @return
+   */
+  public LockManager getLockManager() {
+    return Locks.getManager();
+  }
+
+  /**
+   * The progress of the reindex
+   *
+   * @return
+   */
+  public JobProgress getReindexProgress() {
+    return JobProgress.get(Job.REINDEX);
+  }
+
+  /**
+   * The progress of the regeneration of the images
+   *
+   * @return
+   */
+  public JobProgress getRegenerationProgress() {
+    return JobProgress.get(Job.IMAGES);
+  }
+
+  /**
+   * The progress of the refresh of the file sizes
+   *
+   * @return
+   */
+  public JobProgress getFileSizeProgress() {
+    return JobProgress.get(Job.FILE_SIZES);
+  }
+
+  /**
+   * The statistics of the 20 most time consuming SPARQL query shapes
+   *
+   * @return
+   */
+  public List<QueryStatistics> getQueryStatistics() {
+    final List<QueryStatistics> statistics = PreparedQueries.getStatistics();
+    return statistics.subList(0, Math.min(20, statistics.size()));
+  }
+
+  /**
+   * Reset the statistics of the SPARQL queries
+   */
+  public void resetQueryStatistics() {
+    PreparedQueries.resetStatistics();
+  }
+
+  /**
+   * Number of RDF updates since the start of imeji
+   *
+   * @return
+   */
+  public long getUpdates() {
+    return UpdateStatistics.getUpdates();
+  }
+
+  /**
+   * Number of triples added by the RDF updates
+   *
+   * @return
+   */
+  public long getTriplesAdded() {
+    return UpdateStatistics.getTriplesAdded();
+  }
+
+  /**
+   * Number of triples removed by the RDF updates
+   *
+   * @return
+   */
+  public long getTriplesRemoved() {
+    return UpdateStatistics.getTriplesRemoved();
+  }
+
+  /**
+   * Number of triples left untouched by the RDF updates
+   *
+   * @return
+   */
+  public long getTriplesUnchanged() {
+    return UpdateStatistics.getTriplesUnchanged();
+  }
+
+  /**
+   * Average number of triples written per RDF update
+   *
+   * @return
+   */
+  public String getTriplesPerUpdate() {
+    return String.format("%.1f", UpdateStatistics.getTriplesTouchedPerUpdate());
+  }
+
+  /**
+   * Number of times the stage of the image generation was run
+   *
+   * @param stage
+   * @return
+   */
+  public long getImageGenerationCount(Stage stage) {
+    return ImageGenerationStatistics.getCount(stage);
+  }
+
+  /**
+   * Average duration (in ms) of the stage of the image generation
+   *
+   * @param stage
+   * @return
+   */
+  public long getImageGenerationTime(Stage stage) {
+    return Math.round(ImageGenerationStatistics.getAverageTime(stage));
+  }
+
   /**
    * Here are called all methods related to data cleaning
    *
@@ -167,7 +294,8 @@ public class AdminBean extends SuperBean {
   }
 
   public void reGenerateFullWebThumbnailImages() {
-    ReGenerateFullWebThumbnailJob job = new ReGenerateFullWebThumbnailJob();
+    // all images are generated again, since the file icons might have changed
+    ReGenerateFullWebThumbnailJob job = new ReGenerateFullWebThumbnailJob(true);
     Imeji.getEXECUTOR().submit(job);
   }
 
@@ -31,6 +31,7 @@ import de.mpg.imeji.logic.model.Properties.Status;
 import de.mpg.imeji.logic.model.SearchFields;
 import de.mpg.imeji.logic.search.Search;
 import de.mpg.imeji.logic.search.SearchQueryParser;
+import de.mpg.imeji.logic.search.elasticsearch.ElasticItemProjection;
 import de.mpg.imeji.logic.search.factory.SearchFactory;
 import de.mpg.imeji.logic.search.model.SearchGroup;
 import de.mpg.imeji.logic.search.model.SearchQuery;
@@ -143,11 +144,11 @@ public class ItemsBean extends SuperPaginatorBean<ThumbnailBean> {
       searchResult = search(getSearchQuery(), getSortCriteriaForItems(), offset, size);
       totalNumberOfRecords = searchResult.getNumberOfRecords();
 
-      // (b) Build Item objects and read Item content from Jena
-      // Access Jena, create empty Item objects, stock them with their UIDs,
-      // fill objects with content stored in Jena
+      // (b) Build Item objects from the fields returned by ElasticSearch
+      // If ElasticSearch didn't return them, access Jena, create empty Item objects,
+      // stock them with their UIDs, fill objects with content stored in Jena
       // result: Collection of Item objects
-      final Collection<Item> items = loadItems(searchResult.getResults());
+      final Collection<Item> items = loadItems(searchResult);
 
       // (c) create "Thumbnails" for Items and return them
       HierarchyService hierarchyService = new HierarchyService();
@@ -194,6 +195,19 @@ public class ItemsBean extends SuperPaginatorBean<ThumbnailBean> {
     update();
   }
 
+  /**
+   * Load the items of a {@link SearchResult}: use the items projected from the search index if
+   * available, otherwise read them
+   *
+   * @param result
+   * @return
+   * @throws ImejiException
+   */
+  public Collection<Item> loadItems(SearchResult result) throws ImejiException {
+    final List<Item> items = ElasticItemProjection.toItems(result);
+    return items != null ? items : loadItems(result.getResults());
+  }
+
   /**
    * load all items (defined by their uri)
    *
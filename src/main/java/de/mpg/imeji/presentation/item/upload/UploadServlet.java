@@ -68,6 +68,7 @@ public class UploadServlet extends HttpServlet {
   private class UploadItem {
     private File file;
     private String filename;
+    private String checksum;
     private Map<String, String> params = new HashMap<String, String>();
 
     /**
@@ -92,6 +93,17 @@ public class UploadServlet extends HttpServlet {
       return filename;
     }
 
+    /**
+     * @param checksum the checksum to set
+     */
+    public void setChecksum(String checksum) {
+      this.checksum = checksum;
+    }
+
+    public String getChecksum() {
+      return checksum;
+    }
+
     /**
      * @return the params
      */
@@ -121,7 +133,7 @@ public class UploadServlet extends HttpServlet {
       upload = uploadFuture.get();
       Item item = ImejiFactory.newItem(col);
       item.setLicenses(Arrays.asList(getLicense(upload)));
-      ITEM_SERVICE.createWithFile(item, upload.getFile(), upload.getFilename(), col, user);
+      ITEM_SERVICE.createWithFile(item, upload.getFile(), upload.getChecksum(), upload.getFilename(), col, user);
       writeResponse(resp, "");
     } catch (final AuthenticationError e) {
       writeResponse(resp, e.getMessage());
@@ -161,7 +173,8 @@ public class UploadServlet extends HttpServlet {
   }
 
   /**
-   * Download the file on the disk in a tmp file
+   * Download the file on the disk in a tmp file. The checksum of the file is calculated while it is
+   * written
    *
    * @param req
    * @return
@@ -178,7 +191,7 @@ public class UploadServlet extends HttpServlet {
         if (!fis.isFormField()) {
           uploadItem.setFilename(fis.getName());
           final File tmp = TempFileUtil.createTempFile("upload", "." + FilenameUtils.getExtension(uploadItem.getFilename()));
-          StorageUtils.writeInOut(fis.openStream(), new FileOutputStream(tmp), true);
+          uploadItem.setChecksum(StorageUtils.writeInOutWithChecksum(fis.openStream(), new FileOutputStream(tmp), true));
           uploadItem.setFile(tmp);
         } else {
           ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -0,0 +1,140 @@
+package de.mpg.imeji.test.j2j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.tdb.TDBFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.mpg.imeji.exceptions.ImejiException;
+import de.mpg.imeji.exceptions.UnprocessableError;
+import de.mpg.imeji.j2j.transaction.GroupCommitWriter;
+import de.mpg.imeji.j2j.transaction.Transaction;
+
+/**
+ * Tests for the {@link GroupCommitWriter}
+ */
+public class GroupCommitWriterTest {
+  private static final String MODEL = "http://imeji.org/test/model";
+  private static final String PREDICATE = "http://imeji.org/test/value";
+  private Dataset dataset;
+  private GroupCommitWriter writer;
+
+  /**
+   * Adds one statement to the test model, or fails before if the value is negative
+   */
+  private static class AddTransaction extends Transaction {
+    private final int value;
+
+    public AddTransaction(int value) {
+      super(MODEL);
+      this.value = value;
+    }
+
+    @Override
+    protected void execute(Dataset ds) throws ImejiException {
+      final Model model = getModel(ds);
+      model.add(ResourceFactory.createResource(MODEL + "/" + Math.abs(value)), ResourceFactory.createProperty(PREDICATE),
+          Integer.toString(value));
+      if (value < 0) {
+        throw new UnprocessableError("Failing transaction " + value);
+      }
+    }
+
+    @Override
+    protected ReadWrite getLockType() {
+      return ReadWrite.WRITE;
+    }
+  }
+
+  @Before
+  public void setup() {
+    dataset = TDBFactory.createDataset();
+    // a long latency, so that the concurrent transactions are committed in one group
+    writer = new GroupCommitWriter(dataset, 10, 1000);
+  }
+
+  @After
+  public void tearDown() {
+    writer.shutdown();
+    dataset.close();
+  }
+
+  /**
+   * If one {@link Transaction} of a group fails, the others are committed and each caller gets its
+   * own result
+   *
+   * @throws Exception
+   */
+  @Test
+  public void testFailureInGroup() throws Exception {
+    final int size = 5;
+    final int failing = 3;
+    final ExecutorService executor = Executors.newFixedThreadPool(size);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Future<ImejiException>> results = new ArrayList<>();
+    try {
+      for (int i = 1; i <= size; i++) {
+        final int value = i == failing ? -i : i;
+        results.add(executor.submit(new Callable<ImejiException>() {
+          @Override
+          public ImejiException call() throws Exception {
+            start.await();
+            try {
+              writer.write(new AddTransaction(value));
+              return null;
+            } catch (final ImejiException e) {
+              return e;
+            }
+          }
+        }));
+      }
+      start.countDown();
+      for (int i = 1; i <= size; i++) {
+        final ImejiException e = results.get(i - 1).get(1, TimeUnit.MINUTES);
+        if (i == failing) {
+          Assert.assertTrue(e instanceof UnprocessableError);
+          Assert.assertEquals("Failing transaction " + -i, e.getMessage());
+        } else {
+          Assert.assertNull(e);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    dataset.begin(ReadWrite.READ);
+    try {
+      final Model model = dataset.getNamedModel(MODEL);
+      for (int i = 1; i <= size; i++) {
+        Assert.assertEquals(i != failing,
+            model.contains(ResourceFactory.createResource(MODEL + "/" + i), ResourceFactory.createProperty(PREDICATE)));
+      }
+    } finally {
+      dataset.end();
+    }
+  }
+
+  /**
+   * A {@link Transaction} written after the shutdown is rejected instead of waiting forever
+   *
+   * @throws Exception
+   */
+  @Test(expected = ImejiException.class)
+  public void testWriteAfterShutdown() throws Exception {
+    writer.shutdown();
+    writer.write(new AddTransaction(1));
+  }
+}
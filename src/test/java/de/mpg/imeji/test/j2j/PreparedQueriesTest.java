@@ -0,0 +1,168 @@
+package de.mpg.imeji.test.j2j;
+
+import java.io.StringReader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.query.Syntax;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.RDFNode;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.mpg.imeji.j2j.queries.PreparedQueries;
+import de.mpg.imeji.j2j.queries.PreparedQueries.PreparedQuery;
+import de.mpg.imeji.j2j.queries.PreparedQueries.QueryStatistics;
+import de.mpg.imeji.logic.search.jenasearch.JenaCustomQueries;
+
+/**
+ * Tests for {@link PreparedQueries}: the queries of {@link JenaCustomQueries} must return the same
+ * results prepared and parsed as they are
+ */
+public class PreparedQueriesTest {
+  private static final String COLLECTION = "http://imeji.org/collection/c1";
+  private static final String OTHER_COLLECTION = "http://imeji.org/collection/c2";
+  private static final String DATA = "@prefix imeji: <http://imeji.org/terms/> .\n"
+      + "@prefix foaf: <http://xmlns.com/foaf/0.1/> .\n" + "@prefix dcterms: <http://purl.org/dc/terms/> .\n"
+      + "@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n"
+      + "<http://imeji.org/user/u1> a imeji:user ; foaf:email \"one@imeji.org\"^^xsd:string ;"
+      + " imeji:registrationToken \"token-1\"^^xsd:string .\n"
+      + "<http://imeji.org/user/u2> a imeji:user ; foaf:email \"two@imeji.org\"^^xsd:string .\n"
+      + "<http://imeji.org/userGroup/g1> a imeji:userGroup ; foaf:name \"Group \\\"one\\\"\"^^xsd:string ;"
+      + " foaf:member <http://imeji.org/user/u1> .\n"
+      + "<http://imeji.org/userGroup/g2> a imeji:userGroup ; foaf:name \"Other group\"^^xsd:string .\n"
+      + "<" + COLLECTION + "> a imeji:collection ; <http://purl.org/dc/elements/1.1/title> \"Collection 1\"@en .\n"
+      + "<" + OTHER_COLLECTION + "> a imeji:collection ; <http://purl.org/dc/elements/1.1/title> \"Collection 2\" .\n"
+      + "<http://imeji.org/item/i1> a imeji:item ; imeji:collection <" + COLLECTION + "> ; imeji:filename \"photo.jpg\" ;"
+      + " imeji:checksum \"abc\"^^xsd:string ; imeji:status <http://imeji.org/terms/status#PENDING> ;"
+      + " dcterms:creator <http://imeji.org/user/u1> ; imeji:fileSize 10 ; imeji:versionNumber 2 .\n"
+      + "<http://imeji.org/item/i2> a imeji:item ; imeji:collection <" + COLLECTION + "> ; imeji:filename \"photo.png\" ;"
+      + " imeji:checksum \"def\"^^xsd:string ; imeji:status <http://imeji.org/terms/status#WITHDRAWN> ;"
+      + " dcterms:creator <http://imeji.org/user/u1> ; imeji:fileSize 20 .\n"
+      + "<http://imeji.org/item/i3> a imeji:item ; imeji:collection <" + OTHER_COLLECTION + "> ; imeji:filename \"text.pdf\" ;"
+      + " imeji:checksum \"abc\"^^xsd:string ; imeji:status <http://imeji.org/terms/status#RELEASED> ;"
+      + " dcterms:creator <http://imeji.org/user/u2> ; imeji:fileSize 30 .\n"
+      + "<http://imeji.org/content/i1> a imeji:content ; imeji:itemId \"http://imeji.org/item/i1\" ;"
+      + " imeji:original \"http://imeji.org/file/a/b/original/photo.jpg\"^^xsd:string .\n"
+      + "<http://imeji.org/content/i2> a imeji:content ; imeji:itemId \"http://imeji.org/item/i2\" ;"
+      + " imeji:original \"http://imeji.org/file/c/d/original/photo.png\"^^xsd:string .\n"
+      + "<http://imeji.org/content/i3> a imeji:content ; imeji:itemId \"http://imeji.org/item/i3\" ;"
+      + " imeji:original \"http://imeji.org/file/e/f/original/text.pdf\"^^xsd:string .\n"
+      + "<http://imeji.org/subscription/s1> a imeji:subscription ; imeji:userId \"u1\"^^xsd:string ;"
+      + " imeji:objectId \"c1\"^^xsd:string .\n";
+  private static Model model;
+
+  @BeforeClass
+  public static void setup() {
+    model = ModelFactory.createDefaultModel();
+    model.read(new StringReader(DATA), null, "TURTLE");
+  }
+
+  /**
+   * A representative set of the queries of {@link JenaCustomQueries}: iris, plain, typed and
+   * language literals, regex, LIMIT, OFFSET, ORDER BY, aggregates and projections
+   */
+  @Test
+  public void testSameResults() {
+    final List<String> queries = Arrays.asList(JenaCustomQueries.selectUserByEmail("one@imeji.org"),
+        JenaCustomQueries.selectUserByEmail("nobody@imeji.org"), JenaCustomQueries.selectUserByRegistrationToken("token-1"),
+        JenaCustomQueries.selectUserGroupByName("Other group"), JenaCustomQueries.selectUserGroupAll("group"),
+        JenaCustomQueries.selectUserGroupAll(), JenaCustomQueries.selectSubscriptionByUserId("u1"),
+        JenaCustomQueries.selectSubscriptionByObjectId("c1"), JenaCustomQueries.selectCollectionIdOfItem("http://imeji.org/item/i3"),
+        JenaCustomQueries.selectItemOfFile("http://imeji.org/file/a/b/original/photo.jpg"),
+        JenaCustomQueries.selectContentByStorageId("c/d"), JenaCustomQueries.selectStatus("http://imeji.org/item/i2"),
+        JenaCustomQueries.selectVersion("http://imeji.org/item/i1"), JenaCustomQueries.selectCollectionName(COLLECTION),
+        JenaCustomQueries.selectCollectionAll(), JenaCustomQueries.selectItemAll(),
+        JenaCustomQueries.selectContainerItemByFilename(URI.create(COLLECTION), "photo"),
+        JenaCustomQueries.selectItemByChecksum(URI.create(COLLECTION), "abc"),
+        JenaCustomQueries.selectItemByChecksum(URI.create(OTHER_COLLECTION), "def"),
+        JenaCustomQueries.selectUserFileSize("http://imeji.org/user/u1"), JenaCustomQueries.selectFileSizeForAll(),
+        JenaCustomQueries.selectDistinct(JenaCustomQueries.selectContentAll()),
+        JenaCustomQueries.selectPageAfter(JenaCustomQueries.selectContentAll(), null, 2),
+        JenaCustomQueries.selectPageAfter(JenaCustomQueries.selectContentAll(), "http://imeji.org/content/i1", 2),
+        JenaCustomQueries.selectPageAfter(JenaCustomQueries.selectContentAll(), "http://imeji.org/content/i3", 2),
+        JenaCustomQueries.selectItemAll() + " ORDER BY ?s OFFSET 1 LIMIT 1",
+        JenaCustomQueries.countTriplesAll());
+    for (final String sparql : queries) {
+      // without ORDER BY, the order of the results depends on the query plan
+      final boolean ordered = sparql.contains("ORDER BY");
+      final List<String> expected = sort(execute(QueryFactory.create(sparql, Syntax.syntaxARQ), null), ordered);
+      final PreparedQuery prepared = PreparedQueries.prepare(sparql);
+      Assert.assertEquals(sparql, expected, sort(execute(prepared.getQuery(), prepared), ordered));
+      // the second time from the cache
+      final PreparedQuery cached = PreparedQueries.prepare(sparql);
+      Assert.assertEquals(sparql, expected, sort(execute(cached.getQuery(), cached), ordered));
+    }
+  }
+
+  /**
+   * All pages of a query have the same shape, and the pages don't change the shared query
+   */
+  @Test
+  public void testPagesHaveOneShape() {
+    PreparedQueries.resetStatistics();
+    final String query = JenaCustomQueries.selectContentAll();
+    final List<String> all = new ArrayList<>();
+    // the first page after "", so that all pages have the FILTER
+    String after = "";
+    for (int i = 0; i < 3; i++) {
+      final PreparedQuery page = PreparedQueries.prepare(JenaCustomQueries.selectPageAfter(query, after, 1));
+      final List<String> uris = execute(page.getQuery(), page);
+      page.record(0);
+      Assert.assertEquals(1, uris.size());
+      all.addAll(uris);
+      after = uris.get(0);
+    }
+    Assert.assertEquals(execute(QueryFactory.create(query + " ORDER BY ?s"), null), all);
+    final List<QueryStatistics> statistics = PreparedQueries.getStatistics();
+    Assert.assertEquals(1, statistics.size());
+    Assert.assertEquals(3, statistics.get(0).getCount());
+    Assert.assertFalse(statistics.get(0).getShape().contains("LIMIT"));
+    for (int limit = 1; limit <= 3; limit++) {
+      final PreparedQuery page = PreparedQueries.prepare(query + " ORDER BY ?s OFFSET 0 LIMIT " + limit);
+      Assert.assertEquals(limit, execute(page.getQuery(), page).size());
+    }
+  }
+
+  private static List<String> sort(List<String> results, boolean ordered) {
+    if (!ordered) {
+      results.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+    return results;
+  }
+
+  /**
+   * Execute the query and return the value of ?s for all results
+   *
+   * @param query
+   * @param prepared if not null, the bindings of the prepared query are used
+   * @return
+   */
+  private static List<String> execute(Query query, PreparedQuery prepared) {
+    final List<String> results = new ArrayList<>();
+    final QueryExecution qexec = prepared != null ? QueryExecutionFactory.create(query, model, prepared.getBindings())
+        : QueryExecutionFactory.create(query, model);
+    try {
+      final ResultSet rs = qexec.execSelect();
+      while (rs.hasNext()) {
+        final QuerySolution qs = rs.nextSolution();
+        final RDFNode node = qs.get("s");
+        results.add(node != null ? node.toString() : null);
+      }
+    } finally {
+      qexec.close();
+    }
+    return results;
+  }
+}
@@ -5,10 +5,13 @@ import org.junit.runners.Suite;
 
 import de.mpg.imeji.testimpl.logic.auth.DefaultAuthenticationTest;
 import de.mpg.imeji.testimpl.logic.auth.FileAuthorizationTest;
+import de.mpg.imeji.testimpl.logic.auth.GrantIndexTest;
 import de.mpg.imeji.testimpl.logic.auth.HttpAuthenticationTest;
+import de.mpg.imeji.testimpl.logic.auth.PrincipalCacheTest;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({DefaultAuthenticationTest.class, HttpAuthenticationTest.class, FileAuthorizationTest.class})
+@Suite.SuiteClasses({DefaultAuthenticationTest.class, HttpAuthenticationTest.class, FileAuthorizationTest.class,
+    GrantIndexTest.class, PrincipalCacheTest.class})
 
 public class AuthTestSuite {
 
@@ -0,0 +1,81 @@
+package de.mpg.imeji.test.logic.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.mpg.imeji.logic.config.Imeji;
+import de.mpg.imeji.logic.db.keyValue.stores.BTreeMapStore;
+import de.mpg.imeji.logic.db.keyValue.stores.MapDBStore;
+
+/**
+ * Compare the throughput of a {@link MapDBStore} committing every write with a store committing the
+ * writes by batch (with the batch size and delay of the MessageService). The ops/sec of both are
+ * logged
+ */
+public class MapDBStoreBenchmarkTest {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MapDBStoreBenchmarkTest.class);
+  private static final int KEYS = 2000;
+  // put all keys, then delete one key out of two
+  private static final int OPERATIONS = KEYS + KEYS / 2;
+  private static final byte[] VALUE = new byte[256];
+  private String tdbPath;
+  private File dir;
+
+  @Before
+  public void setup() throws IOException {
+    tdbPath = Imeji.tdbPath;
+    dir = Files.createTempDirectory("imeji-mapdb-benchmark").toFile();
+    Imeji.tdbPath = dir.getAbsolutePath();
+  }
+
+  @After
+  public void tearDown() {
+    Imeji.tdbPath = tdbPath;
+    FileUtils.deleteQuietly(dir);
+  }
+
+  @Test
+  public void testPerOperationVsBatchedCommit() {
+    final double perOperation = run(new BTreeMapStore("benchmarkPerOperation"));
+    final double batched = run(new BTreeMapStore("benchmarkBatched", 100, 1000));
+    LOGGER.info("MapDB store, " + OPERATIONS + " put/delete: " + Math.round(perOperation) + " ops/sec with per-op commit, "
+        + Math.round(batched) + " ops/sec with batched commit (" + String.format("%.1f", batched / perOperation) + "x)");
+  }
+
+  /**
+   * Put and delete all keys, and check that the writes have been committed once the store is stopped
+   *
+   * @param store
+   * @return the ops/sec, inclusive the commit of the pending writes when the store is stopped
+   */
+  private static double run(MapDBStore store) {
+    store.start();
+    final long start = System.nanoTime();
+    for (int i = 0; i < KEYS; i++) {
+      store.put("key" + i, VALUE);
+    }
+    for (int i = 0; i < KEYS; i += 2) {
+      store.delete("key" + i);
+    }
+    store.stop();
+    final long time = System.nanoTime() - start;
+    store.start();
+    try {
+      Assert.assertNull(store.get("key0"));
+      Assert.assertArrayEquals(VALUE, store.get("key1"));
+      Assert.assertEquals(KEYS / 2, store.getListByPrefix("key").size());
+    } finally {
+      store.stop();
+    }
+    return OPERATIONS * 1000000000.0 / time;
+  }
+}
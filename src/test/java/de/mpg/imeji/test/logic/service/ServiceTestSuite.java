@@ -6,6 +6,7 @@ import org.junit.runners.Suite;
 import de.mpg.imeji.testimpl.logic.service.CollectionServiceCreateTest;
 import de.mpg.imeji.testimpl.logic.service.CollectionServiceTest;
 import de.mpg.imeji.testimpl.logic.service.ContentServiceTest;
+import de.mpg.imeji.testimpl.logic.service.ElasticItemProjectionTest;
 import de.mpg.imeji.testimpl.logic.service.ItemServiceTest;
 import de.mpg.imeji.testimpl.logic.service.ShareServiceTest;
 import de.mpg.imeji.testimpl.logic.service.StatementServiceTest;
@@ -16,7 +17,7 @@ import de.mpg.imeji.testimpl.logic.service.UsergroupServiceTest;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({CollectionServiceTest.class, ShareServiceTest.class, StatementServiceTest.class, UsergroupServiceTest.class,
     UserServiceTest.class, ContentServiceTest.class, CollectionServiceCreateTest.class, StatementServiceUpdateTest.class,
-    ItemServiceTest.class})
+    ItemServiceTest.class, ElasticItemProjectionTest.class})
 
 public class ServiceTestSuite {
 
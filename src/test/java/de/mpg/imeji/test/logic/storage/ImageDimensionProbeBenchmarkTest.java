@@ -0,0 +1,113 @@
+package de.mpg.imeji.test.logic.storage;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.mpg.imeji.logic.storage.util.ImageDimensionProbe;
+
+/**
+ * Compare the time needed by {@link ImageDimensionProbe} to read the dimension of a large TIFF with
+ * the previous ways to read it: decoding the image with ImageIO.read, and reading the header with
+ * the first reader without seekForwardOnly and ignoreMetadata. The times are logged
+ */
+public class ImageDimensionProbeBenchmarkTest {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ImageDimensionProbeBenchmarkTest.class);
+  private static final int WIDTH = 4000;
+  private static final int HEIGHT = 3000;
+  private static final int RUNS = 10;
+  private static File tiff;
+
+  @BeforeClass
+  public static void createTiff() throws IOException {
+    final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    final Graphics2D g = image.createGraphics();
+    try {
+      g.setColor(Color.BLUE);
+      g.fillRect(0, 0, WIDTH / 2, HEIGHT / 2);
+    } finally {
+      g.dispose();
+    }
+    tiff = File.createTempFile("imeji-dimension-benchmark", ".tif");
+    Assert.assertTrue("No TIFF writer available", ImageIO.write(image, "tiff", tiff));
+  }
+
+  @AfterClass
+  public static void deleteTiff() {
+    FileUtils.deleteQuietly(tiff);
+  }
+
+  @Test
+  public void testProbeVsDecode() throws Exception {
+    final double decode = time(() -> {
+      final BufferedImage image = ImageIO.read(tiff);
+      return new Dimension(image.getWidth(), image.getHeight());
+    });
+    final double header = time(ImageDimensionProbeBenchmarkTest::readHeaderWithFirstReader);
+    final double probe = time(() -> {
+      // change the modification date, so that the cached dimension isn't used
+      tiff.setLastModified(tiff.lastModified() + 1000);
+      return ImageDimensionProbe.getDimension(tiff);
+    });
+    final double cached = time(() -> ImageDimensionProbe.getDimension(tiff));
+    LOGGER.info("Dimension of a " + WIDTH + "x" + HEIGHT + " TIFF (" + tiff.length() / 1024 / 1024 + " MB): ImageIO.read " + format(decode)
+        + ", first reader without flags " + format(header) + ", ImageDimensionProbe " + format(probe) + ", cached " + format(cached));
+  }
+
+  /**
+   * Run the reading once to warm up, then return its average time in ms over {@link #RUNS} runs.
+   * Check that every run returns the dimension of the TIFF
+   *
+   * @param read
+   * @return
+   * @throws Exception
+   */
+  private static double time(Callable<Dimension> read) throws Exception {
+    Assert.assertEquals(new Dimension(WIDTH, HEIGHT), read.call());
+    final long start = System.nanoTime();
+    for (int i = 0; i < RUNS; i++) {
+      Assert.assertEquals(new Dimension(WIDTH, HEIGHT), read.call());
+    }
+    return (System.nanoTime() - start) / 1000000.0 / RUNS;
+  }
+
+  /**
+   * The dimension as read before the {@link ImageDimensionProbe}
+   *
+   * @return
+   * @throws IOException
+   */
+  private static Dimension readHeaderWithFirstReader() throws IOException {
+    try (ImageInputStream in = ImageIO.createImageInputStream(tiff)) {
+      final Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+      final ImageReader reader = readers.next();
+      try {
+        reader.setInput(in);
+        return new Dimension(reader.getWidth(0), reader.getHeight(0));
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  private static String format(double ms) {
+    return String.format("%.2f ms", ms);
+  }
+}
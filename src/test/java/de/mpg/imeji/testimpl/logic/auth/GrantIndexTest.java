@@ -0,0 +1,168 @@
+package de.mpg.imeji.testimpl.logic.auth;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.mpg.imeji.logic.model.Grant;
+import de.mpg.imeji.logic.model.Grant.GrantType;
+import de.mpg.imeji.logic.model.User;
+import de.mpg.imeji.logic.model.UserGroup;
+import de.mpg.imeji.logic.security.authorization.GrantIndex;
+import de.mpg.imeji.util.ConcurrencyUtil;
+import de.mpg.imeji.util.ElasticsearchTestUtil;
+import de.mpg.imeji.util.JenaUtil;
+
+/**
+ * Test the {@link GrantIndex}: precedence of the grants of a user and of its groups, unknown grant
+ * types and rebuild of the cached index when a new version of the user or of its groups is used
+ */
+public class GrantIndexTest {
+  private static final String COLLECTION = "http://imeji.org/collection/grantindex";
+  private static final String OTHER_COLLECTION = "http://imeji.org/collection/grantindex2";
+
+  @BeforeClass
+  public static void setup() {
+    ElasticsearchTestUtil.startElasticsearch();
+    JenaUtil.initJena();
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    ConcurrencyUtil.waitForImejiThreadsToComplete();
+    ElasticsearchTestUtil.stopElasticsearch();
+    JenaUtil.closeJena();
+  }
+
+  @Test
+  public void testGroupGrantHigherThanUserGrant() {
+    final User user = newUser(grant(GrantType.READ, COLLECTION));
+    user.getGroups().add(newGroup(grant(GrantType.ADMIN, COLLECTION)));
+    final GrantIndex index = GrantIndex.get(user);
+    Assert.assertEquals(GrantType.ADMIN, index.get(COLLECTION));
+    Assert.assertTrue(index.hasGrant(COLLECTION, GrantType.READ));
+    Assert.assertTrue(index.hasGrant(COLLECTION, GrantType.EDIT));
+    Assert.assertTrue(index.hasGrant(COLLECTION, GrantType.ADMIN));
+  }
+
+  @Test
+  public void testUserGrantHigherThanGroupGrant() {
+    final User user = newUser(grant(GrantType.ADMIN, COLLECTION));
+    user.getGroups().add(newGroup(grant(GrantType.READ, COLLECTION)));
+    user.getGroups().add(newGroup(grant(GrantType.EDIT, COLLECTION)));
+    Assert.assertEquals(GrantType.ADMIN, GrantIndex.get(user).get(COLLECTION));
+  }
+
+  @Test
+  public void testHighestGrantOfGroups() {
+    final User user = newUser();
+    user.getGroups().add(newGroup(grant(GrantType.READ, COLLECTION)));
+    user.getGroups().add(newGroup(grant(GrantType.EDIT, COLLECTION), grant(GrantType.READ, OTHER_COLLECTION)));
+    final GrantIndex index = GrantIndex.get(user);
+    Assert.assertEquals(GrantType.EDIT, index.get(COLLECTION));
+    Assert.assertTrue(index.hasGrant(COLLECTION, GrantType.EDIT));
+    Assert.assertFalse(index.hasGrant(COLLECTION, GrantType.ADMIN));
+    Assert.assertEquals(GrantType.READ, index.get(OTHER_COLLECTION));
+    Assert.assertFalse(index.hasGrant(OTHER_COLLECTION, GrantType.EDIT));
+  }
+
+  @Test
+  public void testUnknownGrantTypeOnlyAllowsRead() {
+    final User user = newUser("FOO," + COLLECTION);
+    final GrantIndex index = GrantIndex.get(user);
+    Assert.assertEquals(GrantType.READ, index.get(COLLECTION));
+    Assert.assertTrue(index.hasGrant(COLLECTION));
+    Assert.assertTrue(index.hasGrant(COLLECTION, GrantType.READ));
+    Assert.assertFalse(index.hasGrant(COLLECTION, GrantType.EDIT));
+    Assert.assertFalse(index.hasGrant(COLLECTION, GrantType.ADMIN));
+    Assert.assertFalse(index.hasGrant(OTHER_COLLECTION));
+  }
+
+  @Test
+  public void testIndexRebuiltAfterUserGrantsChanged() {
+    final User user = newUser(grant(GrantType.READ, COLLECTION));
+    Assert.assertEquals(GrantType.READ, GrantIndex.get(user).get(COLLECTION));
+    // the same user (same id), updated with other grants
+    final User updated = newUser(grant(GrantType.EDIT, COLLECTION));
+    updated.setId(user.getId());
+    updated.setModified(later(user.getModified()));
+    Assert.assertEquals(GrantType.EDIT, GrantIndex.get(updated).get(COLLECTION));
+    updated.setGrants(new ArrayList<>());
+    updated.setModified(later(updated.getModified()));
+    Assert.assertNull(GrantIndex.get(updated).get(COLLECTION));
+    Assert.assertFalse(GrantIndex.get(updated).hasGrant(COLLECTION));
+  }
+
+  @Test
+  public void testIndexRebuiltAfterGroupGrantsChanged() {
+    final User user = newUser();
+    final UserGroup group = newGroup(grant(GrantType.READ, COLLECTION));
+    user.getGroups().add(group);
+    Assert.assertEquals(GrantType.READ, GrantIndex.get(user).get(COLLECTION));
+    group.setGrants(new ArrayList<>(Arrays.asList(grant(GrantType.ADMIN, COLLECTION))));
+    group.setModified(later(group.getModified()));
+    Assert.assertEquals(GrantType.ADMIN, GrantIndex.get(user).get(COLLECTION));
+    // removed from the group
+    user.getGroups().clear();
+    Assert.assertFalse(GrantIndex.get(user).hasGrant(COLLECTION));
+    // added to another group
+    user.getGroups().add(newGroup(grant(GrantType.EDIT, COLLECTION)));
+    Assert.assertEquals(GrantType.EDIT, GrantIndex.get(user).get(COLLECTION));
+  }
+
+  @Test
+  public void testIndexRebuiltAfterInvalidate() {
+    final User user = newUser(grant(GrantType.READ, COLLECTION));
+    final GrantIndex index = GrantIndex.get(user);
+    GrantIndex.invalidate(user.getId());
+    Assert.assertNotSame(index, GrantIndex.get(user));
+  }
+
+  @Test
+  public void testIndexCachedWhileVersionUnchanged() {
+    final User user = newUser(grant(GrantType.EDIT, COLLECTION));
+    user.getGroups().add(newGroup(grant(GrantType.READ, OTHER_COLLECTION)));
+    final GrantIndex index = GrantIndex.get(user);
+    Assert.assertSame(index, GrantIndex.get(user));
+    // the grants are not compared: a change which hasn't been stored is ignored
+    user.getGrants().clear();
+    Assert.assertSame(index, GrantIndex.get(user));
+  }
+
+  @Test
+  public void testIndexOfNotStoredUserNotCached() {
+    final User user = newUser(grant(GrantType.EDIT, COLLECTION));
+    user.setModified(null);
+    Assert.assertNotSame(GrantIndex.get(user), GrantIndex.get(user));
+    Assert.assertEquals(GrantType.EDIT, GrantIndex.get(user).get(COLLECTION));
+  }
+
+  private static String grant(GrantType type, String uri) {
+    return new Grant(type, uri).toGrantString();
+  }
+
+  private static User newUser(String... grants) {
+    final User user = new User();
+    user.setGrants(new ArrayList<>(Arrays.asList(grants)));
+    user.setModified(Calendar.getInstance());
+    return user;
+  }
+
+  private static UserGroup newGroup(String... grants) {
+    final UserGroup group = new UserGroup();
+    group.setGrants(new ArrayList<>(Arrays.asList(grants)));
+    group.setModified(Calendar.getInstance());
+    return group;
+  }
+
+  private static Calendar later(Calendar date) {
+    final Calendar later = (Calendar) date.clone();
+    later.add(Calendar.SECOND, 1);
+    return later;
+  }
+}
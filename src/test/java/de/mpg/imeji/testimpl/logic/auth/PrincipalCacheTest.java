@@ -0,0 +1,166 @@
+package de.mpg.imeji.testimpl.logic.auth;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.mpg.imeji.exceptions.AuthenticationError;
+import de.mpg.imeji.exceptions.ImejiException;
+import de.mpg.imeji.exceptions.NotAllowedError;
+import de.mpg.imeji.logic.core.collection.CollectionService;
+import de.mpg.imeji.logic.model.CollectionImeji;
+import de.mpg.imeji.logic.model.Grant;
+import de.mpg.imeji.logic.model.Grant.GrantType;
+import de.mpg.imeji.logic.model.User;
+import de.mpg.imeji.logic.model.UserGroup;
+import de.mpg.imeji.logic.model.factory.ImejiFactory;
+import de.mpg.imeji.logic.security.authentication.PrincipalCache;
+import de.mpg.imeji.logic.security.authentication.impl.APIKeyAuthentication;
+import de.mpg.imeji.logic.security.authentication.impl.DefaultAuthentication;
+import de.mpg.imeji.logic.security.user.UserService;
+import de.mpg.imeji.logic.security.user.UserService.USER_TYPE;
+import de.mpg.imeji.logic.security.usergroup.UserGroupService;
+import de.mpg.imeji.logic.util.StringHelper;
+import de.mpg.imeji.util.ConcurrencyUtil;
+import de.mpg.imeji.util.ElasticsearchTestUtil;
+import de.mpg.imeji.util.JenaUtil;
+
+/**
+ * Test the {@link PrincipalCache}: a cached user must never be used after its credentials, its
+ * grants or its groups have changed
+ */
+public class PrincipalCacheTest {
+  private static final String PASSWORD = "password";
+  private static User admin;
+  private static CollectionImeji collection;
+
+  @BeforeClass
+  public static void setup() throws ImejiException {
+    ElasticsearchTestUtil.startElasticsearch();
+    JenaUtil.initJena();
+    admin = ImejiFactory.newUser().setEmail("cache-admin@test.org").setPerson("admin", "admin", "org").setPassword(PASSWORD)
+        .setQuota(Long.MAX_VALUE).build();
+    new UserService().create(admin, USER_TYPE.ADMIN);
+    collection = ImejiFactory.newCollection().setTitle("Private collection").setPerson("Max", "Planck", "MPDL").build();
+    new CollectionService().create(collection, admin);
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    ConcurrencyUtil.waitForImejiThreadsToComplete();
+    ElasticsearchTestUtil.stopElasticsearch();
+    JenaUtil.closeJena();
+  }
+
+  @Test
+  public void testLoginAfterPasswordChanged() throws ImejiException {
+    final User user = createUser("cache-password@test.org");
+    Assert.assertNotNull(new DefaultAuthentication(user.getEmail(), PASSWORD).doLogin());
+    // twice, the second time from the cache
+    Assert.assertNotNull(new DefaultAuthentication(user.getEmail(), PASSWORD).doLogin());
+    final UserService userService = new UserService();
+    final User changed = userService.retrieve(user.getId(), admin);
+    changed.setEncryptedPassword(StringHelper.md5("newPassword"));
+    userService.update(changed, admin);
+    assertLoginFails(user.getEmail(), PASSWORD);
+    Assert.assertNotNull(new DefaultAuthentication(user.getEmail(), "newPassword").doLogin());
+    assertLoginFails(user.getEmail(), PASSWORD);
+  }
+
+  @Test
+  public void testLoginAfterApiKeyChanged() throws Exception {
+    final UserService userService = new UserService();
+    final User user = createUser("cache-apikey@test.org");
+    final String oldKey = APIKeyAuthentication.generateKey(user.getId(), 100);
+    user.setApiKey(oldKey);
+    userService.update(user, admin);
+    Assert.assertEquals(user.getId(), new APIKeyAuthentication(oldKey).doLogin().getId());
+    Assert.assertEquals(user.getId(), new APIKeyAuthentication(oldKey).doLogin().getId());
+    final String newKey = APIKeyAuthentication.generateKey(user.getId(), 100);
+    final User changed = userService.retrieve(user.getId(), admin);
+    changed.setApiKey(newKey);
+    userService.update(changed, admin);
+    try {
+      new APIKeyAuthentication(oldKey).doLogin();
+      Assert.fail("The old API Key should not be accepted anymore");
+    } catch (final AuthenticationError e) {
+      // expected
+    }
+    Assert.assertEquals(user.getId(), new APIKeyAuthentication(newKey).doLogin().getId());
+  }
+
+  @Test
+  public void testRevokedGrant() throws ImejiException {
+    final UserService userService = new UserService();
+    final User user = createUser("cache-revoke@test.org");
+    final String grant = new Grant(GrantType.READ, collection.getId().toString()).toGrantString();
+    user.getGrants().add(grant);
+    userService.update(user, admin);
+    // the user object of the session, which keeps its grants until it is reloaded
+    final User session = new DefaultAuthentication(user.getEmail(), PASSWORD).doLogin();
+    Assert.assertNotNull(new CollectionService().retrieve(collection.getId(), session));
+    final User changed = userService.retrieve(user.getId(), admin);
+    changed.getGrants().remove(grant);
+    userService.update(changed, admin);
+    assertReadNotAllowed(session);
+  }
+
+  @Test
+  public void testRevokedEditGrant() throws ImejiException {
+    final UserService userService = new UserService();
+    final User user = createUser("cache-revoke-edit@test.org");
+    final String grant = new Grant(GrantType.EDIT, collection.getId().toString()).toGrantString();
+    user.getGrants().add(grant);
+    userService.update(user, admin);
+    final User session = new DefaultAuthentication(user.getEmail(), PASSWORD).doLogin();
+    final CollectionService collectionService = new CollectionService();
+    collectionService.update(collectionService.retrieve(collection.getId(), session), session);
+    final User changed = userService.retrieve(user.getId(), admin);
+    changed.getGrants().remove(grant);
+    userService.update(changed, admin);
+    try {
+      collectionService.update(collectionService.retrieve(collection.getId(), admin), session);
+      Assert.fail(session.getEmail() + " should not be allowed to edit the collection anymore");
+    } catch (final NotAllowedError e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testRemovedFromGroup() throws ImejiException {
+    final User user = createUser("cache-group@test.org");
+    final UserGroupService groupService = new UserGroupService();
+    final UserGroup group = ImejiFactory.newUserGroup().setName("Cache group").addUsers(user)
+        .addGrants(new Grant(GrantType.READ, collection.getId().toString()).toGrantString()).build();
+    groupService.create(group, admin);
+    final User session = new DefaultAuthentication(user.getEmail(), PASSWORD).doLogin();
+    Assert.assertNotNull(new CollectionService().retrieve(collection.getId(), session));
+    groupService.removeUserFromGroup(admin, groupService.retrieve(group.getId().toString(), admin), user);
+    assertReadNotAllowed(session);
+  }
+
+  private static User createUser(String email) throws ImejiException {
+    final User user = ImejiFactory.newUser().setEmail(email).setPerson("cache", "cache", "org").setPassword(PASSWORD)
+        .setQuota(Long.MAX_VALUE).build();
+    return new UserService().create(user, USER_TYPE.DEFAULT);
+  }
+
+  private static void assertLoginFails(String email, String password) {
+    try {
+      new DefaultAuthentication(email, password).doLogin();
+      Assert.fail("The login with " + password + " should fail");
+    } catch (final AuthenticationError e) {
+      // expected
+    }
+  }
+
+  private static void assertReadNotAllowed(User user) throws ImejiException {
+    try {
+      new CollectionService().retrieve(collection.getId(), user);
+      Assert.fail(user.getEmail() + " should not be allowed to read the collection anymore");
+    } catch (final NotAllowedError e) {
+      // expected
+    }
+  }
+}
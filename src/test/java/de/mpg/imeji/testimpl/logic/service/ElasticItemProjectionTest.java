@@ -0,0 +1,111 @@
+package de.mpg.imeji.testimpl.logic.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.mpg.imeji.exceptions.ImejiException;
+import de.mpg.imeji.logic.core.collection.CollectionService;
+import de.mpg.imeji.logic.core.item.ItemService;
+import de.mpg.imeji.logic.core.statement.StatementService;
+import de.mpg.imeji.logic.model.CollectionImeji;
+import de.mpg.imeji.logic.model.Item;
+import de.mpg.imeji.logic.model.Metadata;
+import de.mpg.imeji.logic.model.Statement;
+import de.mpg.imeji.logic.model.StatementType;
+import de.mpg.imeji.logic.model.User;
+import de.mpg.imeji.logic.model.factory.ImejiFactory;
+import de.mpg.imeji.logic.search.elasticsearch.ElasticItemProjection;
+import de.mpg.imeji.logic.search.model.SearchResult;
+import de.mpg.imeji.logic.security.user.UserService;
+import de.mpg.imeji.logic.security.user.UserService.USER_TYPE;
+import de.mpg.imeji.test.logic.service.SuperServiceTest;
+import de.mpg.imeji.util.ImejiTestResources;
+
+/**
+ * Tests {@link ElasticItemProjection}: the items built from the search index must be the same as
+ * the items read from Jena
+ */
+public class ElasticItemProjectionTest extends SuperServiceTest {
+  private static final Logger LOGGER = LogManager.getLogger(ElasticItemProjectionTest.class);
+  private static User user;
+  private static CollectionImeji collection;
+  private static Item item;
+
+  @BeforeClass
+  public static void specificSetup() {
+    try {
+      user = ImejiFactory.newUser().setEmail("projection@test.org").setPerson("projection", "projection", "org")
+          .setPassword("password").setQuota(Long.MAX_VALUE).build();
+      new UserService().create(user, USER_TYPE.ADMIN);
+      collection = ImejiFactory.newCollection().setTitle("Projection").setPerson("Max", "Planck", "MPDL").build();
+      new CollectionService().create(collection, user);
+      final StatementService statementService = new StatementService();
+      final Statement text = ImejiFactory.newStatement().setIndex("Projection text").setType(StatementType.TEXT).build();
+      final Statement number = ImejiFactory.newStatement().setIndex("Projection number").setType(StatementType.NUMBER).build();
+      final Statement date = ImejiFactory.newStatement().setIndex("Projection date").setType(StatementType.DATE).build();
+      final Statement url = ImejiFactory.newStatement().setIndex("Projection url").setType(StatementType.URL).build();
+      final Statement person = ImejiFactory.newStatement().setIndex("Projection person").setType(StatementType.PERSON).build();
+      final Statement location = ImejiFactory.newStatement().setIndex("Projection location").setType(StatementType.GEOLOCATION).build();
+      statementService.createBatch(Arrays.asList(text, number, date, url, person, location), user);
+      final ItemService itemService = new ItemService();
+      item = ImejiFactory.newItem(collection);
+      itemService.createWithFile(item, ImejiTestResources.getTestJpg(), "Projection.jpg", collection, user);
+      // a text which looks like a number must stay a text
+      item.getMetadata().add(ImejiFactory.newMetadata(text).setText("42.0").build());
+      item.getMetadata().add(ImejiFactory.newMetadata(number).setNumber(42).build());
+      item.getMetadata().add(ImejiFactory.newMetadata(date).setDate("2018-01-01").build());
+      item.getMetadata().add(ImejiFactory.newMetadata(url).setUrl("http://imeji.org").setTitle("imeji").build());
+      item.getMetadata().add(ImejiFactory.newMetadata(person).setPerson(ImejiFactory.newPerson("Planck", "Max", "MPDL")).build());
+      item.getMetadata().add(ImejiFactory.newMetadata(location).setName("Munich").setLatitude(48.1).setLongitude(11.5).build());
+      // synchronous: the item is indexed when the update returns
+      item = itemService.update(item, user);
+    } catch (final ImejiException e) {
+      LOGGER.error("Error initializing ElasticItemProjectionTest", e);
+    }
+  }
+
+  @Test
+  public void toItemsLikeJena() throws ImejiException {
+    final SearchResult result = new ItemService().search(collection.getId(), null, null, user, 10, 0);
+    final List<Item> projected = ElasticItemProjection.toItems(result);
+    Assert.assertNotNull("The search result should have the sources of its hits", projected);
+    Assert.assertEquals(1, projected.size());
+    final Item fromIndex = projected.get(0);
+    final Item fromJena = new ItemService().retrieve(item.getId(), user);
+    Assert.assertEquals(fromJena.getId(), fromIndex.getId());
+    Assert.assertEquals(fromJena.getCollection(), fromIndex.getCollection());
+    Assert.assertEquals(fromJena.getFilename(), fromIndex.getFilename());
+    Assert.assertEquals(fromJena.getFiletype(), fromIndex.getFiletype());
+    Assert.assertEquals(fromJena.getFileSize(), fromIndex.getFileSize());
+    Assert.assertEquals(fromJena.getStatus(), fromIndex.getStatus());
+    Assert.assertEquals(fromJena.getModified().getTimeInMillis(), fromIndex.getModified().getTimeInMillis());
+    Assert.assertEquals(fromJena.getMetadata().size(), fromIndex.getMetadata().size());
+    final Map<String, Metadata> indexed = new HashMap<>();
+    fromIndex.getMetadata().forEach(md -> indexed.put(md.getIndex(), md));
+    for (final Metadata expected : fromJena.getMetadata()) {
+      final Metadata actual = indexed.get(expected.getIndex());
+      Assert.assertNotNull("Metadata not found: " + expected.getIndex(), actual);
+      Assert.assertEquals(expected.getIndex(), expected.getText(), actual.getText());
+      Assert.assertEquals(expected.getIndex(), expected.getNumber(), actual.getNumber(), 0);
+      Assert.assertEquals(expected.getIndex(), expected.getDate(), actual.getDate());
+      Assert.assertEquals(expected.getIndex(), expected.getUrl(), actual.getUrl());
+      Assert.assertEquals(expected.getIndex(), expected.getTitle(), actual.getTitle());
+      Assert.assertEquals(expected.getIndex(), expected.getName(), actual.getName());
+      Assert.assertEquals(expected.getIndex(), expected.getLatitude(), actual.getLatitude(), 0);
+      Assert.assertEquals(expected.getIndex(), expected.getLongitude(), actual.getLongitude(), 0);
+      Assert.assertEquals(expected.getIndex(), expected.getPerson() != null, actual.getPerson() != null);
+      if (expected.getPerson() != null) {
+        Assert.assertEquals(expected.getPerson().getFamilyName(), actual.getPerson().getFamilyName());
+        Assert.assertEquals(expected.getPerson().getGivenName(), actual.getPerson().getGivenName());
+      }
+    }
+  }
+}
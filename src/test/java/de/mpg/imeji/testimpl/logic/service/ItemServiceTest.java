@@ -26,6 +26,7 @@ import de.mpg.imeji.logic.config.Imeji;
 import de.mpg.imeji.logic.core.collection.CollectionService;
 import de.mpg.imeji.logic.core.content.ContentService;
 import de.mpg.imeji.logic.core.item.ItemService;
+import de.mpg.imeji.logic.core.statement.StatementService;
 import de.mpg.imeji.logic.model.CollectionImeji;
 import de.mpg.imeji.logic.model.ContentVO;
 import de.mpg.imeji.logic.model.Grant;
@@ -34,6 +35,8 @@ import de.mpg.imeji.logic.model.ImejiLicenses;
 import de.mpg.imeji.logic.model.Item;
 import de.mpg.imeji.logic.model.License;
 import de.mpg.imeji.logic.model.Properties.Status;
+import de.mpg.imeji.logic.model.Statement;
+import de.mpg.imeji.logic.model.StatementType;
 import de.mpg.imeji.logic.model.User;
 import de.mpg.imeji.logic.model.factory.ImejiFactory;
 import de.mpg.imeji.logic.security.user.UserService;
@@ -502,6 +505,33 @@ public class ItemServiceTest extends SuperServiceTest {
     itemPrivate.setId(oldId);
   }
 
+  /**
+   * An item with a long list of metadata is loaded back completely and in order
+   */
+  @Test
+  public void updateItemWithManyMetadata() {
+    try {
+      CollectionImeji collection = ImejiFactory.newCollection().setTitle("Many metadata").setPerson("Max", "Planck", "MPDL").build();
+      new CollectionService().create(collection, userAdmin);
+      Statement statement = ImejiFactory.newStatement().setIndex("Many metadata").setType(StatementType.TEXT).build();
+      new StatementService().create(statement, userAdmin);
+      ItemService service = new ItemService();
+      Item item = ImejiFactory.newItem(collection);
+      service.createWithFile(item, ImejiTestResources.getTestJpg(), "Many.jpg", collection, userAdmin);
+      for (int i = 0; i < 1500; i++) {
+        item.getMetadata().add(ImejiFactory.newMetadata(statement).setText("value " + i).build());
+      }
+      item = service.update(item, userAdmin);
+      Item result = service.retrieve(item.getId(), userAdmin);
+      Assert.assertEquals("All metadata should be loaded", 1500, result.getMetadata().size());
+      for (int i = 0; i < 1500; i++) {
+        Assert.assertEquals("Metadata should be loaded in order", "value " + i, result.getMetadata().get(i).getText());
+      }
+    } catch (ImejiException e) {
+      Assert.fail(e.getMessage());
+    }
+  }
+
   private void update_Test(String msg, Item item, User user, Class exception) {
     ItemService service = new ItemService();
     try {
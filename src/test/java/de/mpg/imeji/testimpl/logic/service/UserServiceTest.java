@@ -23,6 +23,8 @@ import de.mpg.imeji.logic.config.Imeji;
 import de.mpg.imeji.logic.core.collection.CollectionService;
 import de.mpg.imeji.logic.core.item.ItemService;
 import de.mpg.imeji.logic.model.CollectionImeji;
+import de.mpg.imeji.logic.model.Grant;
+import de.mpg.imeji.logic.model.Grant.GrantType;
 import de.mpg.imeji.logic.model.Item;
 import de.mpg.imeji.logic.model.Organization;
 import de.mpg.imeji.logic.model.Person;
@@ -182,6 +184,25 @@ public class UserServiceTest extends SuperServiceTest {
     }
   }
 
+  @Test
+  public void updateUserWithManyGrants() {
+    UserService service = new UserService();
+    try {
+      User user = ImejiFactory.newUser().setEmail("manygrants@test.org").setPerson("many", "grants", "org").setPassword("password")
+          .setQuota(Long.MAX_VALUE).build();
+      service.create(user, USER_TYPE.DEFAULT);
+      for (int i = 0; i < 1500; i++) {
+        user.getGrants().add(new Grant(GrantType.READ, Imeji.PROPERTIES.getBaseURI() + "collection/manygrants" + i).toGrantString());
+      }
+      service.update(user, Imeji.adminUser);
+      User retUser = service.retrieve(user.getId(), Imeji.adminUser);
+      Assert.assertEquals("All grants should be loaded", user.getGrants().size(), retUser.getGrants().size());
+      Assert.assertTrue("All grants should be loaded", retUser.getGrants().containsAll(user.getGrants()));
+    } catch (ImejiException e) {
+      Assert.fail(e.getMessage());
+    }
+  }
+
   @Test
   public void updateUserWithEmailAlreadyUsedByAnotherUser() {
     try {
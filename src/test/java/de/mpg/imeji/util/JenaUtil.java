@@ -23,7 +23,7 @@ import de.mpg.imeji.logic.model.Organization;
 import de.mpg.imeji.logic.model.Person;
 import de.mpg.imeji.logic.model.User;
 import de.mpg.imeji.logic.search.elasticsearch.ElasticInitializer;
-import de.mpg.imeji.logic.search.elasticsearch.ElasticService;
+import de.mpg.imeji.logic.search.elasticsearch.ElasticService.ElasticIndices;
 import de.mpg.imeji.logic.security.authorization.AuthorizationPredefinedRoles;
 import de.mpg.imeji.logic.security.user.UserService;
 import de.mpg.imeji.logic.security.user.UserService.USER_TYPE;
@@ -82,6 +82,7 @@ public class JenaUtil {
     ImejiInitializer.getNIGHTLY_EXECUTOR().stop();
 
     LOGGER.info("Closing Jena:");
+    Imeji.writer.shutdown();
     TDB.sync(Imeji.dataset);
     LOGGER.info("Jena Sync done! ");
     // TDBFactory.reset();
@@ -102,7 +103,7 @@ public class JenaUtil {
 
   private static void initTestUser() throws Exception {
     ElasticInitializer.reset();
-    new UserService().reindex(ElasticService.DATA_ALIAS);
+    new UserService().reindex(ElasticIndices.users.name());
     testUser = getMockupUser(TEST_USER_EMAIL, TEST_USER_NAME, TEST_USER_PWD, false);
     testUser2 = getMockupUser(TEST_USER_EMAIL_2, TEST_USER_NAME, TEST_USER_PWD, false);
     adminTestUser = getMockupUser(ADMIN_USER_EMAIL, TEST_USER_NAME, TEST_USER_PWD, true);